@@ -1,6 +1,9 @@
 package lambdify.aws.client.core;
 
 import java.net.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import lambdify.aws.client.core.http.*;
 import lambdify.aws.client.core.http.HttpUtils.*;
 import lombok.*;
@@ -16,11 +19,45 @@ public abstract class AmazonClient {
 	@NonNull AuthorizationHeaderAWS4Signer signer;
 	@NonNull String host;
 
+	/**
+	 * Sends the requests. Defined by the {@link AmazonClientBuilder} right after
+	 * the client is created.
+	 */
+	HttpTransport transport = HttpTransport.DEFAULT;
+
+	/**
+	 * Runs the asynchronous requests when the transport is a blocking one.
+	 */
+	Executor asyncExecutor = DefaultAsyncExecutor.INSTANCE;
+
+	@Getter(AccessLevel.NONE)
+	AsyncRequestLimiter asyncRequestLimiter = new AsyncRequestLimiter( AmazonClientBuilder.DEFAULT_MAX_IN_FLIGHT_REQUESTS );
+
 	protected <T> T sendJsonRequestAndParseResponse(Class<T> expectedResponseType, HttpRequest httpRequest) {
 		val response = sendRequest( httpRequest );
+		return parseJsonResponse( expectedResponseType, response );
+	}
+
+	protected <T> CompletableFuture<T> sendJsonRequestAndParseResponseAsync(Class<T> expectedResponseType, HttpRequest httpRequest) {
+		return sendRequestAsync( httpRequest ).thenApply( response -> parseJsonResponse( expectedResponseType, response ) );
+	}
+
+	/**
+	 * Deserializes successful responses, giving their body buffer back to the
+	 * pool right after. Failed responses are kept by the thrown exception.
+	 *
+	 * @param expectedResponseType
+	 * @param response
+	 * @param <T>
+	 * @return
+	 */
+	protected <T> T parseJsonResponse(Class<T> expectedResponseType, HttpResponse response) {
 		if ( response.status() == 200 ) {
-			val responseAsString = response.responseAsString();
-			return jsonSerializer.deserialize( responseAsString, expectedResponseType );
+			try {
+				return jsonSerializer.deserialize( response.buffer(), 0, response.length(), expectedResponseType );
+			} finally {
+				response.release();
+			}
 		}
 
 		throw new AmazonClientException( response );
@@ -28,7 +65,62 @@ public abstract class AmazonClient {
 
 	protected HttpResponse sendRequest(HttpRequest httpRequest) {
 		signer.sign( httpRequest, provider.getCredentials() );
-		return HttpUtils.invokeHttpRequest(httpRequest);
+		return transport.send( httpRequest );
+	}
+
+	/**
+	 * Sends the request without blocking the caller. Once the amount of requests
+	 * in flight reaches the limit defined at {@link AmazonClientBuilder#setMaxInFlightRequests(int)},
+	 * new requests are queued until previous ones complete.
+	 *
+	 * @param httpRequest
+	 * @return
+	 */
+	protected CompletableFuture<HttpResponse> sendRequestAsync(HttpRequest httpRequest) {
+		return asyncRequestLimiter.submit( () -> {
+			signer.sign( httpRequest, provider.getCredentials() );
+			return transport.sendAsync( httpRequest, asyncExecutor );
+		});
+	}
+
+	/**
+	 * Same as {@link #sendRequestAsync(HttpRequest)}, but the request is only created
+	 * once it can be sent. Meant for large amounts of requests whose bodies would
+	 * otherwise be kept in memory while they wait for their turn.
+	 *
+	 * @param requestFactory
+	 * @return
+	 */
+	protected CompletableFuture<HttpResponse> sendRequestAsync(Supplier<HttpRequest> requestFactory) {
+		return asyncRequestLimiter.submit( () -> {
+			val httpRequest = requestFactory.get();
+			signer.sign( httpRequest, provider.getCredentials() );
+			return transport.sendAsync( httpRequest, asyncExecutor );
+		});
+	}
+
+	/**
+	 * Sends the request, handing the response body over to the caller as it
+	 * arrives. The caller is expected to close the returned response.
+	 *
+	 * @param httpRequest
+	 * @return
+	 */
+	protected StreamingHttpResponse sendStreamingRequest(HttpRequest httpRequest) {
+		signer.sign( httpRequest, provider.getCredentials() );
+		return transport.stream( httpRequest );
+	}
+
+	/**
+	 * Asynchronous version of {@link #sendStreamingRequest(HttpRequest)}. The
+	 * request only counts as in flight until its response head arrives.
+	 *
+	 * @param httpRequest
+	 * @return
+	 */
+	protected CompletableFuture<StreamingHttpResponse> sendStreamingRequestAsync(HttpRequest httpRequest) {
+		return asyncRequestLimiter.submit( () ->
+			CompletableFuture.supplyAsync( () -> sendStreamingRequest( httpRequest ), asyncExecutor ) );
 	}
 
 	protected URL buildEndpoint( String uri ) {
@@ -43,6 +135,24 @@ public abstract class AmazonClient {
 		return buildEndpoint( "/" );
 	}
 
+	/**
+	 * Lazily created pool of daemon threads, shared by every client that had no
+	 * executor defined for its asynchronous requests.
+	 */
+	static class DefaultAsyncExecutor {
+
+		static final ExecutorService INSTANCE = Executors.newCachedThreadPool( new ThreadFactory() {
+			final AtomicInteger counter = new AtomicInteger();
+
+			@Override
+			public Thread newThread( Runnable runnable ) {
+				val thread = new Thread( runnable, "aws-client-async-" + counter.incrementAndGet() );
+				thread.setDaemon( true );
+				return thread;
+			}
+		});
+	}
+
 	public class AmazonClientException extends RuntimeException {
 
 		@Getter
@@ -1,17 +1,24 @@
 package lambdify.aws.client.core;
 
 import static lambdify.aws.client.core.AwsCredentialsProvider.defaultCredentialsChain;
+import java.util.concurrent.Executor;
 import lambdify.aws.client.core.http.*;
 import lombok.*;
 
 @NoArgsConstructor
-public abstract class AmazonClientBuilder<BUILDER extends AmazonClientBuilder, CLIENT> {
+public abstract class AmazonClientBuilder<BUILDER extends AmazonClientBuilder, CLIENT extends AmazonClient> {
+
+	static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 64;
 
 	@NonNull private AwsClientJsonSerializer jsonSerializer = getJsonSerializer();
 	@NonNull private String region = "us-east-1";
 
 	@NonNull private AwsCredentialsProvider credentialsProvider = defaultCredentialsChain();
 	@NonNull private String service;
+	@NonNull private HttpTransport httpTransport = HttpTransport.DEFAULT;
+	private Executor asyncExecutor;
+	private int maxInFlightRequests = DEFAULT_MAX_IN_FLIGHT_REQUESTS;
+	private boolean virtualThreads;
 
 	private AwsClientJsonSerializer getJsonSerializer() {
 		if ( jsonSerializer == null )
@@ -20,8 +27,32 @@ public abstract class AmazonClientBuilder<BUILDER extends AmazonClientBuilder, C
 	}
 
 	public CLIENT build() {
-		val signer = new AuthorizationHeaderAWS4Signer( getService(), getRegion() );
-		return buildClient( getJsonSerializer(), getCredentialsProvider(), signer, getHost() );
+		val client = buildClient( getJsonSerializer(), getCredentialsProvider(), createSigner(), getHost() );
+		client.transport = getHttpTransport();
+		client.asyncRequestLimiter = new AsyncRequestLimiter( getMaxInFlightRequests() );
+		if ( getAsyncExecutor() != null )
+			client.asyncExecutor = getAsyncExecutor();
+		if ( isVirtualThreads() )
+			configureVirtualThreads( client );
+		return client;
+	}
+
+	/**
+	 * Replaces the defaults that would pin virtual threads to their carriers: the
+	 * {@code HttpURLConnection}-based transport is swapped by a {@link PooledHttpTransport}
+	 * sized after the max in-flight requests, and asynchronous requests run on a
+	 * virtual-thread-per-task executor. Explicitly defined transports and executors are kept.
+	 */
+	private void configureVirtualThreads( CLIENT client ) {
+		if ( getHttpTransport() instanceof HttpURLConnectionTransport )
+			client.transport = new PooledHttpTransport().pool(
+				new HttpConnectionPool().maxConnectionsPerHost( getMaxInFlightRequests() ) );
+		if ( getAsyncExecutor() == null )
+			client.asyncExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+	}
+
+	protected AuthorizationHeaderAWS4Signer createSigner() {
+		return new AuthorizationHeaderAWS4Signer( getService(), getRegion() );
 	}
 
 	protected String getHost() {
@@ -59,6 +90,72 @@ public abstract class AmazonClientBuilder<BUILDER extends AmazonClientBuilder, C
 		return getBuilder();
 	}
 
+	public HttpTransport getHttpTransport() {
+		return httpTransport;
+	}
+
+	/**
+	 * Defines how requests are sent to AWS. Defaults to {@link HttpTransport#DEFAULT}.
+	 *
+	 * @param httpTransport
+	 * @return
+	 */
+	public BUILDER setHttpTransport(HttpTransport httpTransport) {
+		this.httpTransport = httpTransport;
+		return getBuilder();
+	}
+
+	public Executor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	/**
+	 * Defines where asynchronous requests are run when the {@link HttpTransport}
+	 * is a blocking one. Defaults to a shared pool of daemon threads.
+	 *
+	 * @param asyncExecutor
+	 * @return
+	 */
+	public BUILDER setAsyncExecutor(Executor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+		return getBuilder();
+	}
+
+	public int getMaxInFlightRequests() {
+		return maxInFlightRequests;
+	}
+
+	/**
+	 * Defines how many asynchronous requests can be in flight at the same time.
+	 * Further requests are queued until previous ones complete.
+	 *
+	 * @param maxInFlightRequests
+	 * @return
+	 */
+	public BUILDER setMaxInFlightRequests(int maxInFlightRequests) {
+		this.maxInFlightRequests = maxInFlightRequests;
+		return getBuilder();
+	}
+
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	/**
+	 * Prepares the client to be used from (and to fan out requests on) virtual
+	 * threads. Requires JDK 21 or newer.
+	 *
+	 * @param virtualThreads
+	 * @return
+	 * @see VirtualThreads
+	 */
+	public BUILDER setVirtualThreads(boolean virtualThreads) {
+		if ( virtualThreads && !VirtualThreads.isAvailable() )
+			throw new UnsupportedOperationException( "Virtual threads require JDK 21 or newer" );
+		this.virtualThreads = virtualThreads;
+		return getBuilder();
+	}
+
 	public String getService() {
 		return service;
 	}
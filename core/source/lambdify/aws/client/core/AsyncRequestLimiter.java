@@ -0,0 +1,70 @@
+package lambdify.aws.client.core;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.val;
+
+/**
+ * Bounds the amount of asynchronous requests in flight. Requests submitted once
+ * the limit is reached are queued (instead of blocking the caller) and started
+ * as soon as a previous request completes.
+ */
+class AsyncRequestLimiter {
+
+	private final int maxInFlightRequests;
+	private final AtomicInteger inFlightRequests = new AtomicInteger();
+	private final Queue<Runnable> pendingRequests = new ConcurrentLinkedQueue<>();
+
+	AsyncRequestLimiter( int maxInFlightRequests ) {
+		if ( maxInFlightRequests < 1 )
+			throw new IllegalArgumentException( "At least one request should be allowed in flight" );
+		this.maxInFlightRequests = maxInFlightRequests;
+	}
+
+	<T> CompletableFuture<T> submit( Supplier<CompletableFuture<T>> request ) {
+		val result = new CompletableFuture<T>();
+		pendingRequests.add( () -> start( request, result ) );
+		drain();
+		return result;
+	}
+
+	private <T> void start( Supplier<CompletableFuture<T>> request, CompletableFuture<T> result ) {
+		try {
+			request.get().whenComplete( (value, cause) -> {
+				release();
+				if ( cause != null ) result.completeExceptionally( cause );
+				else result.complete( value );
+			});
+		} catch ( Throwable cause ) {
+			release();
+			result.completeExceptionally( cause );
+		}
+	}
+
+	private void release() {
+		inFlightRequests.decrementAndGet();
+		drain();
+	}
+
+	private void drain() {
+		while ( !pendingRequests.isEmpty() ) {
+			val current = inFlightRequests.get();
+			if ( current >= maxInFlightRequests )
+				return;
+			if ( !inFlightRequests.compareAndSet( current, current + 1 ) )
+				continue;
+
+			val next = pendingRequests.poll();
+			if ( next == null )
+				inFlightRequests.decrementAndGet();
+			else
+				next.run();
+		}
+	}
+
+	int inFlightRequests() {
+		return inFlightRequests.get();
+	}
+}
@@ -0,0 +1,50 @@
+package lambdify.aws.client.core;
+
+import java.lang.invoke.*;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Gives access to virtual threads (JDK 21+) without requiring the library
+ * itself to be compiled against a JDK that supports them.
+ */
+public final class VirtualThreads {
+
+	private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookupVirtualThreadPerTaskExecutor();
+
+	private VirtualThreads(){}
+
+	/**
+	 * @return {@code true} if the running JVM supports virtual threads.
+	 */
+	public static boolean isAvailable() {
+		return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+	}
+
+	/**
+	 * Creates an {@link ExecutorService} that starts a new virtual thread for each task.
+	 *
+	 * @return
+	 * @throws UnsupportedOperationException if the running JVM does not support virtual threads.
+	 */
+	public static ExecutorService newVirtualThreadPerTaskExecutor() {
+		if ( !isAvailable() )
+			throw new UnsupportedOperationException( "Virtual threads require JDK 21 or newer. Running on " + System.getProperty( "java.version" ) );
+		try {
+			return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke();
+		} catch ( RuntimeException | Error e ) {
+			throw e;
+		} catch ( Throwable e ) {
+			throw new IllegalStateException( e );
+		}
+	}
+
+	private static MethodHandle lookupVirtualThreadPerTaskExecutor() {
+		try {
+			return MethodHandles.publicLookup().findStatic(
+				java.util.concurrent.Executors.class, "newVirtualThreadPerTaskExecutor",
+				MethodType.methodType( ExecutorService.class ) );
+		} catch ( NoSuchMethodException | IllegalAccessException e ) {
+			return null;
+		}
+	}
+}
@@ -1,9 +1,16 @@
 package lambdify.aws.client.core.http;
 
+import java.io.*;
 import java.net.URL;
-import java.security.MessageDigest;
-import java.text.SimpleDateFormat;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import lambdify.aws.client.core.AwsCredentials;
@@ -15,23 +22,108 @@ import lombok.*;
  */
 public class AuthorizationHeaderAWS4Signer {
 
+    /**
+     * Payload hash placeholder that excludes the body from the signature.
+     */
+    public static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    /**
+     * Payload hash placeholder for bodies sent with the aws-chunked encoding,
+     * where each chunk carries its own signature.
+     */
+    public static final String STREAMING_PAYLOAD = "STREAMING-AWS4-HMAC-SHA256-PAYLOAD";
+
     private static final String
         EMPTY_BODY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
         SCHEME = "AWS4",
         ALGORITHM = "HMAC-SHA256",
         TERMINATOR = "aws4_request",
+        CHUNK_ALGORITHM = "AWS4-HMAC-SHA256-PAYLOAD",
         ISO8601BasicFormat = "yyyyMMdd'T'HHmmss'Z'";
 
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int BUFFER_SIZE = 1024;
+    private static final int PAYLOAD_CHUNK_SIZE = 64 * 1024;
+    private static final long MAX_PRESIGNED_URL_EXPIRATION = 7 * 24 * 60 * 60;
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT =
+        DateTimeFormatter.ofPattern(ISO8601BasicFormat).withZone(ZoneOffset.UTC);
+
+    /**
+     * Hashing primitives are expensive to look up and are not thread-safe, thus
+     * they are kept in a small lock-free pool and reused on every request. Unlike
+     * a thread-local, the pool does not grow with the number of threads, so signing
+     * from thousands of short-lived virtual threads does not create a state per thread.
+     */
+    private static final HashingStatePool HASHING_STATES =
+        new HashingStatePool( Runtime.getRuntime().availableProcessors() * 2 );
+
     private final String serviceName;
     private final String regionName;
-    private final SimpleDateFormat dateTimeFormat;
+    private final Clock clock;
+
+    /**
+     * The last formatted timestamp. Requests issued within the same second
+     * share it instead of formatting the current date again.
+     */
+    private volatile Timestamp timestamp;
+
+    /**
+     * When enabled, requests sent over HTTPS are signed with {@link #UNSIGNED_PAYLOAD}
+     * instead of the SHA-256 of their body, relying on TLS for the payload integrity.
+     */
+    private boolean unsignedPayload;
+
+    /**
+     * The last derived signing key. As region and service are fixed for this signer
+     * it only varies with the secret key and the date stamp, being reused until
+     * the UTC midnight (or until the credentials get rotated).
+     */
+    private volatile SigningKey signingKey;
 
+    /**
+     * Creates a new signer. The signer is thread-safe and lock-free, thus a single
+     * instance can be shared among every thread that sends requests to the
+     * same service and region.
+     *
+     * @param serviceName
+     * @param regionName
+     */
     public AuthorizationHeaderAWS4Signer(String serviceName, String regionName)
+    {
+        this( serviceName, regionName, Clock.systemUTC() );
+    }
+
+    AuthorizationHeaderAWS4Signer(String serviceName, String regionName, Clock clock)
     {
         this.serviceName = serviceName;
         this.regionName = regionName;
-        this.dateTimeFormat = new SimpleDateFormat(ISO8601BasicFormat);
-        this.dateTimeFormat.setTimeZone(new SimpleTimeZone(0, "UTC"));
+        this.clock = clock;
+    }
+
+    /**
+     * Enables (or disables) signing requests sent over HTTPS without hashing
+     * their payload. Only services that accepts {@link #UNSIGNED_PAYLOAD} (such as S3)
+     * should have it enabled.
+     *
+     * @param unsignedPayload
+     * @return
+     */
+    public AuthorizationHeaderAWS4Signer unsignedPayload( boolean unsignedPayload ) {
+        this.unsignedPayload = unsignedPayload;
+        return this;
+    }
+
+    /**
+     * Checks whether the payload of a request sent to the given endpoint has to
+     * be hashed in order to be signed.
+     *
+     * @param endpoint
+     * @return
+     */
+    public boolean isPayloadSigned( URL endpoint ) {
+        return !unsignedPayload || !"https".equalsIgnoreCase( endpoint.getProtocol() );
     }
 
     /**
@@ -57,44 +149,134 @@ public class AuthorizationHeaderAWS4Signer {
         if ( credentials.isTemporaryCredential() )
             httpRequest.putHeader( "x-amz-security-token", credentials.getSessionKey() );
 
-        val dateTimeStamp = dateTimeFormat.format(new Date());
+        val dateTimeStamp = currentDateTimeStamp();
         httpRequest.putHeader("x-amz-date", dateTimeStamp);
 
-        val bodyHash = hashPayload( httpRequest.body );
+        val chunkedPayload = httpRequest.bodyWriter instanceof AwsChunkedPayload
+            ? (AwsChunkedPayload) httpRequest.bodyWriter : null;
+        if ( chunkedPayload != null ) {
+            httpRequest.putHeader( "content-encoding", "aws-chunked" );
+            httpRequest.putHeader( "x-amz-decoded-content-length", String.valueOf( chunkedPayload.getDecodedContentLength() ) );
+            httpRequest.putHeader( "content-length", String.valueOf( chunkedPayload.getEncodedContentLength() ) );
+        }
+
+        val bodyHash = chunkedPayload != null ? STREAMING_PAYLOAD
+            : httpRequest.contentSha256 != null ? httpRequest.contentSha256
+            : isPayloadSigned( httpRequest.endpoint ) ? hashPayload( httpRequest.body )
+            : UNSIGNED_PAYLOAD;
         httpRequest.putHeader("x-amz-content-sha256", bodyHash);
 
         val headers = httpRequest.headers();
-        val canonicalizedHeaderNames = getCanonicalizeHeaderNames(httpRequest.headers());
-        val canonicalizedHeaders = getCanonicalizedHeaderString(headers);
-        val canonicalizedQueryParameters = getCanonicalizedQueryString(httpRequest.queryParameters());
+        val state = HASHING_STATES.acquire();
+        try {
+            val headerNames = state.sortHeaderNames( headers );
+            val dateStamp = dateTimeStamp.substring( 0, 8 );
+
+            // canonicalize the various components of the request straight into the digest
+            state.startDigest()
+                .write( httpRequest.method ).write( '\n' )
+                .write( getCanonicalizedResourcePath( httpRequest.endpoint ) ).write( '\n' )
+                .write( getCanonicalizedQueryString( httpRequest.queryParameters() ) ).write( '\n' );
+            for ( int i = 0; i < headers.size(); i++ )
+                state.writeLowerCase( headerNames[i] ).write( ':' )
+                    .writeCanonicalValue( headers.get( headerNames[i] ) ).write( '\n' );
+            state.write( '\n' );
+            writeSignedHeaders( state, headerNames, headers.size() );
+            val canonicalRequestHash = state.write( '\n' ).write( bodyHash ).finishDigest();
+
+            // sign the string to be signed with the (possibly cached) signing key
+            val kSigning = getSigningKey( credentials.getSecretKey(), dateStamp );
+            state.startSigning( kSigning )
+                .write( SCHEME ).write( '-' ).write( ALGORITHM ).write( '\n' )
+                .write( dateTimeStamp ).write( '\n' );
+            writeScope( state, dateStamp );
+            val signature = state.write( '\n' ).writeHex( canonicalRequestHash ).finishSigning();
+
+            // the request signature is the seed for the signature of the first chunk
+            if ( chunkedPayload != null ) {
+                val scope = dateStamp + "/" + regionName + "/" + serviceName + "/" + TERMINATOR;
+                chunkedPayload.seed( new ChunkSigner( kSigning, dateTimeStamp, scope, toHex( signature ) ) );
+            }
 
-        // canonicalize the various components of the request
-        val canonicalRequest = getCanonicalRequest( httpRequest.endpoint, httpRequest.method,
-                canonicalizedQueryParameters, canonicalizedHeaderNames,
-                canonicalizedHeaders, bodyHash);
+            // the authorization header is built in the (reusable) text buffer
+            state.startText()
+                .write( SCHEME ).write( '-' ).write( ALGORITHM )
+                .write( " Credential=" ).write( credentials.getAccessKey() ).write( '/' );
+            writeScope( state, dateStamp );
+            state.write( ", SignedHeaders=" );
+            writeSignedHeaders( state, headerNames, headers.size() );
+            return state.write( ", Signature=" ).writeHex( signature ).finishText();
+        } finally {
+            HASHING_STATES.release( state );
+        }
+    }
+
+    /**
+     * Creates a presigned URL, signing the request with query string parameters
+     * instead of the Authorization header. Only the host header is signed and
+     * the payload is left unsigned, thus the URL can be handed to any HTTP client.
+     *
+     * @param httpMethod
+     * @param endpoint
+     * @param credentials
+     * @param expiresInSeconds for how long the URL remains valid (up to 7 days)
+     * @return
+     */
+    public URL presign( String httpMethod, URL endpoint, AwsCredentials credentials, long expiresInSeconds ) {
+        if ( expiresInSeconds < 1 || expiresInSeconds > MAX_PRESIGNED_URL_EXPIRATION )
+            throw new IllegalArgumentException( "Presigned URLs should expire within 1 and " + MAX_PRESIGNED_URL_EXPIRATION + " seconds" );
 
-        // construct the string to be signed
+        val dateTimeStamp = currentDateTimeStamp();
         val dateStamp = dateTimeStamp.substring( 0, 8 );
-        //String dateStamp = dateStampFormat.format(now);
-        val scope =  dateStamp + "/" + regionName + "/" + serviceName + "/" + TERMINATOR;
-        val stringToSign = getStringToSign( dateTimeStamp, scope, canonicalRequest);
-
-        // compute the signing key
-        val kSecret = (SCHEME + credentials.getSecretKey()).getBytes();
-        val kDate = sign(dateStamp, kSecret, "HmacSHA256");
-        val kRegion = sign(regionName, kDate, "HmacSHA256");
-        val kService = sign(serviceName, kRegion, "HmacSHA256");
-        val kSigning = sign(TERMINATOR, kService, "HmacSHA256");
-        val signature = sign(stringToSign, kSigning, "HmacSHA256");
-
-        val credentialsAuthorizationHeader = "Credential=" + credentials.getAccessKey() + "/" + scope;
-        val signedHeadersAuthorizationHeader = "SignedHeaders=" + canonicalizedHeaderNames;
-        val signatureAuthorizationHeader = "Signature=" + toHex(signature);
-
-        return SCHEME + "-" + ALGORITHM + " "
-                + credentialsAuthorizationHeader + ", "
-                + signedHeadersAuthorizationHeader + ", "
-                + signatureAuthorizationHeader;
+        val scope = dateStamp + "/" + regionName + "/" + serviceName + "/" + TERMINATOR;
+        val host = endpoint.getPort() == -1 ? endpoint.getHost() : endpoint.getHost() + ":" + endpoint.getPort();
+
+        val parameters = new HashMap<String, String>( new HttpRequest().endpoint( endpoint ).queryParameters() );
+        parameters.put( "X-Amz-Algorithm", SCHEME + "-" + ALGORITHM );
+        parameters.put( "X-Amz-Credential", credentials.getAccessKey() + "/" + scope );
+        parameters.put( "X-Amz-Date", dateTimeStamp );
+        parameters.put( "X-Amz-Expires", String.valueOf( expiresInSeconds ) );
+        parameters.put( "X-Amz-SignedHeaders", "host" );
+        if ( credentials.isTemporaryCredential() )
+            parameters.put( "X-Amz-Security-Token", credentials.getSessionKey() );
+
+        val path = getCanonicalizedResourcePath( endpoint );
+        val canonicalizedQueryParameters = getCanonicalizedQueryString( parameters );
+
+        val state = HASHING_STATES.acquire();
+        try {
+            val canonicalRequestHash = state.startDigest()
+                .write( httpMethod ).write( '\n' )
+                .write( path ).write( '\n' )
+                .write( canonicalizedQueryParameters ).write( '\n' )
+                .write( "host:" ).writeCanonicalValue( host ).write( "\n\n" )
+                .write( "host\n" )
+                .write( UNSIGNED_PAYLOAD ).finishDigest();
+
+            val kSigning = getSigningKey( credentials.getSecretKey(), dateStamp );
+            val signature = state.startSigning( kSigning )
+                .write( SCHEME ).write( '-' ).write( ALGORITHM ).write( '\n' )
+                .write( dateTimeStamp ).write( '\n' )
+                .write( scope ).write( '\n' )
+                .writeHex( canonicalRequestHash ).finishSigning();
+
+            return HttpUtils.createUrl( endpoint.getProtocol() + "://" + host + path
+                + "?" + canonicalizedQueryParameters + "&X-Amz-Signature=" + toHex( signature ) );
+        } finally {
+            HASHING_STATES.release( state );
+        }
+    }
+
+    private void writeScope( HashingState state, String dateStamp ) {
+        state.write( dateStamp ).write( '/' ).write( regionName ).write( '/' )
+            .write( serviceName ).write( '/' ).write( TERMINATOR );
+    }
+
+    private static void writeSignedHeaders( HashingState state, String[] headerNames, int size ) {
+        for ( int i = 0; i < size; i++ ) {
+            if ( i > 0 ) state.write( ';' );
+            state.writeLowerCase( headerNames[i] );
+        }
     }
 
     /**
@@ -135,13 +317,42 @@ public class AuthorizationHeaderAWS4Signer {
 
         val buffer = new StringBuilder();
         for (String key : sortedHeaders) {
-            buffer.append(key.toLowerCase().replaceAll("\\s+", " ") + ":" + headers.get(key).replaceAll("\\s+", " "));
+            buffer.append(key.toLowerCase()).append(":");
+            appendCanonicalValue(buffer, headers.get(key));
             buffer.append("\n");
         }
 
         return buffer.toString();
     }
 
+    /**
+     * Appends the header value trimmed and with sequential spaces converted
+     * into a single space, as required by the AWS4 canonical header format.
+     *
+     * @param buffer
+     * @param value
+     */
+    static void appendCanonicalValue(StringBuilder buffer, String value) {
+        if ( value == null ) return;
+
+        boolean started = false, pendingSpace = false;
+        for (int i = 0; i < value.length(); i++) {
+            val c = value.charAt(i);
+            if ( isWhitespace(c) ) {
+                pendingSpace = started;
+                continue;
+            }
+            if ( pendingSpace ) buffer.append(' ');
+            buffer.append(c);
+            started = true;
+            pendingSpace = false;
+        }
+    }
+
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+
     /**
      * Returns the canonical request string to go into the signer process; this
      * consists of several canonical sub-parts.
@@ -229,14 +440,6 @@ public class AuthorizationHeaderAWS4Signer {
         return builder.toString();
     }
     
-    private String getStringToSign(String dateTime, String scope, String canonicalRequest) {
-        return
-            SCHEME + "-" + ALGORITHM + "\n" +
-            dateTime + "\n" +
-            scope + "\n" +
-            toHex(hash(canonicalRequest));
-    }
-
     public String hashPayload(byte[] payload) {
 	    if ( payload == null )
             return EMPTY_BODY_SHA256;
@@ -245,22 +448,141 @@ public class AuthorizationHeaderAWS4Signer {
     }
 
     /**
-     * Hashes the string contents (assumed to be UTF-8) using the SHA-256
-     * algorithm.
+     * Hashes the remaining content of the stream in fixed-size chunks. The stream
+     * is fully consumed, but not closed.
      *
-     * @param text
+     * @param payload
      * @return
+     * @throws IOException
      */
-    private byte[] hash(String text) {
+    public String hashPayload(InputStream payload) throws IOException {
+        val state = HASHING_STATES.acquire();
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(text.getBytes("UTF-8"));
-            return md.digest();
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to compute hash while signing request: " + e.getMessage(), e);
+            val md = state.sha256;
+            val chunk = state.payloadChunk();
+            md.reset();
+            int read;
+            while ( (read = payload.read( chunk )) != -1 )
+                md.update( chunk, 0, read );
+            return toHex( md.digest() );
+        } finally {
+            HASHING_STATES.release( state );
         }
     }
-    
+
+    /**
+     * Hashes the remaining bytes of the buffer (heap or direct) without
+     * changing its position.
+     *
+     * @param payload
+     * @return
+     */
+    public String hashPayload(ByteBuffer payload) {
+        val state = HASHING_STATES.acquire();
+        try {
+            val md = state.sha256;
+            md.reset();
+            md.update( payload.duplicate() );
+            return toHex( md.digest() );
+        } finally {
+            HASHING_STATES.release( state );
+        }
+    }
+
+    /**
+     * Hashes the remaining bytes of every buffer, as a single payload, without
+     * changing their positions. Meant for payloads split across several buffers,
+     * like files mapped in regions.
+     *
+     * @param payload
+     * @return
+     */
+    public String hashPayload(List<ByteBuffer> payload) {
+        val state = HASHING_STATES.acquire();
+        try {
+            val md = state.sha256;
+            md.reset();
+            for ( val buffer : payload )
+                md.update( buffer.duplicate() );
+            return toHex( md.digest() );
+        } finally {
+            HASHING_STATES.release( state );
+        }
+    }
+
+    /**
+     * Hashes a region of the file in fixed-size chunks using positional reads,
+     * thus the channel position is left untouched.
+     *
+     * @param channel
+     * @param position
+     * @param count
+     * @return
+     * @throws IOException
+     */
+    public String hashPayload(FileChannel channel, long position, long count) throws IOException {
+        val state = HASHING_STATES.acquire();
+        try {
+            val md = state.sha256;
+            val chunk = ByteBuffer.wrap( state.payloadChunk() );
+            md.reset();
+            val end = position + count;
+            while ( position < end ) {
+                chunk.clear();
+                if ( end - position < chunk.capacity() )
+                    chunk.limit( (int)(end - position) );
+                val read = channel.read( chunk, position );
+                if ( read < 0 )
+                    throw new EOFException( "Unexpected end of file while hashing payload" );
+                md.update( chunk.array(), 0, read );
+                position += read;
+            }
+            return toHex( md.digest() );
+        } finally {
+            HASHING_STATES.release( state );
+        }
+    }
+
+    /**
+     * Returns the current date time in the ISO8601 basic format, formatting it
+     * only once per second.
+     *
+     * @return
+     */
+    String currentDateTimeStamp() {
+        val epochSecond = clock.millis() / 1000;
+        val cached = timestamp;
+        if ( cached != null && cached.epochSecond == epochSecond )
+            return cached.formatted;
+
+        val formatted = DATE_TIME_FORMAT.format( Instant.ofEpochSecond( epochSecond ) );
+        timestamp = new Timestamp( epochSecond, formatted );
+        return formatted;
+    }
+
+    /**
+     * Retrieves the signing key for the given secret key and date stamp. The
+     * kDate, kRegion, kService and kSigning HMAC chain is only computed when
+     * the cached key does not match the requested one.
+     *
+     * @param secretKey
+     * @param dateStamp
+     * @return
+     */
+    byte[] getSigningKey( String secretKey, String dateStamp ) {
+        val cached = signingKey;
+        if ( cached != null && cached.matches( secretKey, dateStamp ) )
+            return cached.key;
+
+        val kSecret = (SCHEME + secretKey).getBytes(StandardCharsets.UTF_8);
+        val kDate = sign(dateStamp, kSecret);
+        val kRegion = sign(regionName, kDate);
+        val kService = sign(serviceName, kRegion);
+        val kSigning = sign(TERMINATOR, kService);
+        signingKey = new SigningKey( secretKey, dateStamp, kSigning );
+        return kSigning;
+    }
+
     /**
      * Hashes the byte array using the SHA-256 algorithm.
      *
@@ -268,23 +590,22 @@ public class AuthorizationHeaderAWS4Signer {
      * @return
      */
     public byte[] hash(byte[] data) {
+        val state = HASHING_STATES.acquire();
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(data);
-            return md.digest();
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to compute hash while signing request: " + e.getMessage(), e);
+            val md = state.sha256;
+            md.reset();
+            return md.digest(data);
+        } finally {
+            HASHING_STATES.release( state );
         }
     }
     
-    private byte[] sign(String stringData, byte[] key, String algorithm) {
+    private byte[] sign(String stringData, byte[] key) {
+        val state = HASHING_STATES.acquire();
         try {
-            byte[] data = stringData.getBytes("UTF-8");
-            Mac mac = Mac.getInstance(algorithm);
-            mac.init(new SecretKeySpec(key, algorithm));
-            return mac.doFinal(data);
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to calculate a request signature: " + e.getMessage(), e);
+            return state.hmac( key, stringData.getBytes(StandardCharsets.UTF_8) );
+        } finally {
+            HASHING_STATES.release( state );
         }
     }
 
@@ -296,19 +617,331 @@ public class AuthorizationHeaderAWS4Signer {
      *
      * @return hex-encoded string.
      */
-    private String toHex(byte[] data) {
-        StringBuilder sb = new StringBuilder(data.length * 2);
+    private static String toHex(byte[] data) {
+        val chars = new char[data.length * 2];
         for (int i = 0; i < data.length; i++) {
-            String hex = Integer.toHexString(data[i]);
-            if (hex.length() == 1) {
-                // Append leading zero.
-                sb.append("0");
-            } else if (hex.length() == 8) {
-                // Remove ff prefix from negative numbers.
-                hex = hex.substring(6);
+            chars[i * 2] = HEX_DIGITS[(data[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[data[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Signs the chunks of an aws-chunked payload. Every chunk signature is chained
+     * to the previous one, starting from the seed (request) signature, thus chunks
+     * must be signed in the same order they are sent.
+     */
+    public static class ChunkSigner {
+
+        private final byte[] signingKey;
+        private final String dateTimeStamp;
+        private final String scope;
+        private String previousSignature;
+
+        ChunkSigner( byte[] signingKey, String dateTimeStamp, String scope, String seedSignature ) {
+            this.signingKey = signingKey;
+            this.dateTimeStamp = dateTimeStamp;
+            this.scope = scope;
+            this.previousSignature = seedSignature;
+        }
+
+        /**
+         * Computes the signature of the next chunk. The final (empty) chunk should
+         * be signed with {@code length} equals to zero.
+         *
+         * @param chunk
+         * @param offset
+         * @param length
+         * @return the hex-encoded chunk signature
+         */
+        public String sign( byte[] chunk, int offset, int length ) {
+            val state = HASHING_STATES.acquire();
+            try {
+                val md = state.sha256;
+                md.reset();
+                md.update( chunk, offset, length );
+                val chunkHash = md.digest();
+
+                val signature = state.startSigning( signingKey )
+                    .write( CHUNK_ALGORITHM ).write( '\n' )
+                    .write( dateTimeStamp ).write( '\n' )
+                    .write( scope ).write( '\n' )
+                    .write( previousSignature ).write( '\n' )
+                    .write( EMPTY_BODY_SHA256 ).write( '\n' )
+                    .writeHex( chunkHash ).finishSigning();
+                previousSignature = toHex( signature );
+            } finally {
+                HASHING_STATES.release( state );
+            }
+            return previousSignature;
+        }
+    }
+
+    /**
+     * A formatted timestamp and the second it represents.
+     */
+    @RequiredArgsConstructor
+    private static class Timestamp {
+        final long epochSecond;
+        final String formatted;
+    }
+
+    /**
+     * A derived signing key and the values it was derived from.
+     */
+    @RequiredArgsConstructor
+    private static class SigningKey {
+        final String secretKey;
+        final String dateStamp;
+        final byte[] key;
+
+        boolean matches( String secretKey, String dateStamp ) {
+            return this.dateStamp.equals( dateStamp ) && this.secretKey.equals( secretKey );
+        }
+    }
+
+    /**
+     * Lock-free pool of {@link HashingState}s. Each slot holds at most one idle
+     * state; when every slot is empty a new state is created, and states released
+     * while every slot is taken are simply dropped.
+     */
+    private static class HashingStatePool {
+        final AtomicReferenceArray<HashingState> slots;
+
+        HashingStatePool( int size ) {
+            slots = new AtomicReferenceArray<>( size );
+        }
+
+        HashingState acquire() {
+            val size = slots.length();
+            val start = ThreadLocalRandom.current().nextInt( size );
+            for ( int i = 0; i < size; i++ ) {
+                val slot = (start + i) % size;
+                if ( slots.get( slot ) != null ) {
+                    val state = slots.getAndSet( slot, null );
+                    if ( state != null )
+                        return state;
+                }
+            }
+            return new HashingState();
+        }
+
+        void release( HashingState state ) {
+            val size = slots.length();
+            val start = ThreadLocalRandom.current().nextInt( size );
+            for ( int i = 0; i < size; i++ )
+                if ( slots.compareAndSet( (start + i) % size, null, state ) )
+                    return;
+        }
+    }
+
+    /**
+     * Hashing primitives used by a single thread at a time. The HMAC instance remembers the last
+     * key it was initialized with, so consecutive signatures made with the same
+     * signing key skip the {@link Mac#init(java.security.Key)} call.
+     *
+     * Canonical requests and strings to sign are UTF-8 encoded into a reusable
+     * buffer which is fed straight into the digest (or HMAC) once it gets full,
+     * avoiding the intermediate strings the canonical form would otherwise need.
+     */
+    private static class HashingState {
+        final MessageDigest sha256;
+        final Mac hmacSha256;
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        final StringBuilder text = new StringBuilder(256);
+        String[] headerNames = new String[16];
+        byte[] payloadChunk;
+        byte[] hmacKey;
+        int position;
+        char highSurrogate;
+        boolean signing;
+        boolean writingText;
+
+        HashingState() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+                hmacSha256 = Mac.getInstance(HMAC_SHA256);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("Unable to initialize the request signer: " + e.getMessage(), e);
+            }
+        }
+
+        byte[] hmac( byte[] key, byte[] data ) {
+            initHmac( key );
+            return hmacSha256.doFinal(data);
+        }
+
+        void initHmac( byte[] key ) {
+            try {
+                if ( key != hmacKey ) {
+                    hmacSha256.init(new SecretKeySpec(key, HMAC_SHA256));
+                    hmacKey = key;
+                }
+            } catch (InvalidKeyException e) {
+                hmacKey = null;
+                throw new RuntimeException("Unable to calculate a request signature: " + e.getMessage(), e);
+            }
+        }
+
+        byte[] payloadChunk() {
+            if ( payloadChunk == null )
+                payloadChunk = new byte[PAYLOAD_CHUNK_SIZE];
+            return payloadChunk;
+        }
+
+        /**
+         * Sorts the header names case-insensitively into a reusable array.
+         */
+        String[] sortHeaderNames( Map<String, String> headers ) {
+            if ( headerNames.length < headers.size() )
+                headerNames = new String[headers.size() * 2];
+            int size = 0;
+            for ( val name : headers.keySet() )
+                headerNames[size++] = name;
+            Arrays.sort( headerNames, 0, size, String.CASE_INSENSITIVE_ORDER );
+            return headerNames;
+        }
+
+        HashingState startDigest() {
+            sha256.reset();
+            position = 0;
+            highSurrogate = 0;
+            signing = false;
+            writingText = false;
+            return this;
+        }
+
+        HashingState startSigning( byte[] key ) {
+            initHmac( key );
+            position = 0;
+            highSurrogate = 0;
+            signing = true;
+            writingText = false;
+            return this;
+        }
+
+        HashingState startText() {
+            text.setLength(0);
+            writingText = true;
+            return this;
+        }
+
+        byte[] finishDigest() {
+            flush();
+            return sha256.digest();
+        }
+
+        byte[] finishSigning() {
+            flush();
+            return hmacSha256.doFinal();
+        }
+
+        String finishText() {
+            writingText = false;
+            return text.toString();
+        }
+
+        HashingState write( String value ) {
+            if ( value == null ) return this;
+            for ( int i = 0; i < value.length(); i++ )
+                write( value.charAt(i) );
+            return this;
+        }
+
+        HashingState writeLowerCase( String value ) {
+            for ( int i = 0; i < value.length(); i++ ) {
+                val c = value.charAt(i);
+                write( c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : Character.toLowerCase(c) );
+            }
+            return this;
+        }
+
+        /**
+         * Writes the header value trimmed and with sequential whitespaces
+         * collapsed into a single space.
+         */
+        HashingState writeCanonicalValue( String value ) {
+            if ( value == null ) return this;
+            boolean started = false, pendingSpace = false;
+            for ( int i = 0; i < value.length(); i++ ) {
+                val c = value.charAt(i);
+                if ( isWhitespace(c) ) {
+                    pendingSpace = started;
+                    continue;
+                }
+                if ( pendingSpace ) write( ' ' );
+                write( c );
+                started = true;
+                pendingSpace = false;
+            }
+            return this;
+        }
+
+        HashingState writeHex( byte[] data ) {
+            for ( val b : data ) {
+                write( HEX_DIGITS[(b >> 4) & 0xF] );
+                write( HEX_DIGITS[b & 0xF] );
+            }
+            return this;
+        }
+
+        HashingState write( char c ) {
+            if ( writingText ) {
+                text.append(c);
+                return this;
+            }
+
+            if ( highSurrogate != 0 ) {
+                val high = highSurrogate;
+                highSurrogate = 0;
+                if ( Character.isLowSurrogate(c) ) {
+                    writeCodePoint( Character.toCodePoint(high, c) );
+                    return this;
+                }
+                put( (byte) '?' );
+            }
+
+            if ( c < 0x80 ) {
+                put( (byte) c );
+            } else if ( c < 0x800 ) {
+                put( (byte) (0xC0 | (c >> 6)) );
+                put( (byte) (0x80 | (c & 0x3F)) );
+            } else if ( Character.isHighSurrogate(c) ) {
+                highSurrogate = c;
+            } else if ( Character.isLowSurrogate(c) ) {
+                put( (byte) '?' );
+            } else {
+                put( (byte) (0xE0 | (c >> 12)) );
+                put( (byte) (0x80 | ((c >> 6) & 0x3F)) );
+                put( (byte) (0x80 | (c & 0x3F)) );
+            }
+            return this;
+        }
+
+        private void writeCodePoint( int codePoint ) {
+            put( (byte) (0xF0 | (codePoint >> 18)) );
+            put( (byte) (0x80 | ((codePoint >> 12) & 0x3F)) );
+            put( (byte) (0x80 | ((codePoint >> 6) & 0x3F)) );
+            put( (byte) (0x80 | (codePoint & 0x3F)) );
+        }
+
+        private void put( byte b ) {
+            if ( position == buffer.length )
+                flush();
+            buffer[position++] = b;
+        }
+
+        private void flush() {
+            if ( highSurrogate != 0 ) {
+                highSurrogate = 0;
+                put( (byte) '?' );
             }
-            sb.append(hex);
+            if ( position == 0 ) return;
+            if ( signing )
+                hmacSha256.update(buffer, 0, position);
+            else
+                sha256.update(buffer, 0, position);
+            position = 0;
         }
-        return sb.toString().toLowerCase(Locale.getDefault());
     }
-}
\ No newline at end of file
+}
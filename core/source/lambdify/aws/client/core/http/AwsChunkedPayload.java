@@ -0,0 +1,106 @@
+package lambdify.aws.client.core.http;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import lambdify.aws.client.core.http.AuthorizationHeaderAWS4Signer.ChunkSigner;
+import lambdify.aws.client.core.http.HttpUtils.BodyWriter;
+import lombok.*;
+
+/**
+ * Request body sent with the aws-chunked content encoding
+ * (STREAMING-AWS4-HMAC-SHA256-PAYLOAD). The content is read from the source
+ * stream one chunk at a time and each chunk is signed right before being sent,
+ * thus memory usage is bounded by the chunk size regardless of the payload size.
+ *
+ * The signer detects this body writer and seeds it with the request signature.
+ */
+@Getter
+public class AwsChunkedPayload implements BodyWriter {
+
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+	/** Minimum chunk size accepted by S3 (except for the last chunk). */
+	public static final int MIN_CHUNK_SIZE = 8 * 1024;
+
+	private static final String CHUNK_SIGNATURE = ";chunk-signature=";
+	private static final int SIGNATURE_LENGTH = 64;
+	private static final byte[] CRLF = { '\r', '\n' };
+
+	@Getter(AccessLevel.NONE)
+	private final InputStream source;
+	private final long decodedContentLength;
+	private final int chunkSize;
+
+	@Getter(AccessLevel.NONE)
+	private ChunkSigner chunkSigner;
+
+	public AwsChunkedPayload( InputStream source, long decodedContentLength ) {
+		this( source, decodedContentLength, DEFAULT_CHUNK_SIZE );
+	}
+
+	public AwsChunkedPayload( InputStream source, long decodedContentLength, int chunkSize ) {
+		if ( chunkSize < MIN_CHUNK_SIZE )
+			throw new IllegalArgumentException( "Chunk size should be at least " + MIN_CHUNK_SIZE + " bytes" );
+		if ( decodedContentLength < 0 )
+			throw new IllegalArgumentException( "The decoded content length is required by aws-chunked payloads" );
+		this.source = source;
+		this.decodedContentLength = decodedContentLength;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @return the length of the payload once encoded, including the chunk headers.
+	 */
+	public long getEncodedContentLength() {
+		val fullChunks = decodedContentLength / chunkSize;
+		val remaining = (int) (decodedContentLength % chunkSize);
+		long length = fullChunks * encodedChunkLength( chunkSize );
+		if ( remaining > 0 )
+			length += encodedChunkLength( remaining );
+		return length + encodedChunkLength( 0 );
+	}
+
+	private static long encodedChunkLength( int size ) {
+		return Integer.toHexString( size ).length() + CHUNK_SIGNATURE.length() + SIGNATURE_LENGTH
+			+ CRLF.length + size + CRLF.length;
+	}
+
+	void seed( ChunkSigner chunkSigner ) {
+		this.chunkSigner = chunkSigner;
+	}
+
+	@Override
+	public void writeTo( OutputStream output ) throws IOException {
+		if ( chunkSigner == null )
+			throw new IllegalStateException( "aws-chunked payloads should be signed before being sent" );
+
+		val chunk = new byte[ chunkSize ];
+		long remaining = decodedContentLength;
+		while ( remaining > 0 ) {
+			val length = readChunk( chunk, (int) Math.min( chunkSize, remaining ) );
+			writeChunk( output, chunk, length );
+			remaining -= length;
+		}
+		writeChunk( output, chunk, 0 );
+	}
+
+	private int readChunk( byte[] chunk, int length ) throws IOException {
+		int read = 0;
+		while ( read < length ) {
+			val count = source.read( chunk, read, length - read );
+			if ( count < 0 )
+				throw new EOFException( "Payload ended " + (length - read) + " bytes before the declared content length" );
+			read += count;
+		}
+		return read;
+	}
+
+	private void writeChunk( OutputStream output, byte[] chunk, int length ) throws IOException {
+		val signature = chunkSigner.sign( chunk, 0, length );
+		val header = Integer.toHexString( length ) + CHUNK_SIGNATURE + signature;
+		output.write( header.getBytes( StandardCharsets.US_ASCII ) );
+		output.write( CRLF );
+		output.write( chunk, 0, length );
+		output.write( CRLF );
+	}
+}
@@ -0,0 +1,104 @@
+package lambdify.aws.client.core.http;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import lombok.*;
+
+/**
+ * Request body sent with the aws-chunked content encoding, without chunk
+ * signatures (STREAMING-UNSIGNED-PAYLOAD-TRAILER). The CRC32C checksum of the
+ * content is computed while it is sent, and appended as a trailing
+ * {@code x-amz-checksum-crc32c} header once the last chunk was written.
+ *
+ * As the payload is not signed, it should only be sent over HTTPS.
+ */
+@Getter
+public class AwsChunkedTrailerPayload implements HttpUtils.BodyWriter {
+
+	public static final String STREAMING_UNSIGNED_PAYLOAD_TRAILER = "STREAMING-UNSIGNED-PAYLOAD-TRAILER";
+	public static final String CHECKSUM_CRC32C_HEADER = "x-amz-checksum-crc32c";
+
+	/** Length of a Base64 encoded CRC32C checksum. */
+	private static final int CHECKSUM_LENGTH = 8;
+	private static final byte[] CRLF = { '\r', '\n' };
+
+	@Getter(AccessLevel.NONE)
+	private final InputStream source;
+	private final long decodedContentLength;
+	private final int chunkSize;
+
+	public AwsChunkedTrailerPayload( InputStream source, long decodedContentLength ) {
+		this( source, decodedContentLength, AwsChunkedPayload.DEFAULT_CHUNK_SIZE );
+	}
+
+	public AwsChunkedTrailerPayload( InputStream source, long decodedContentLength, int chunkSize ) {
+		if ( chunkSize < AwsChunkedPayload.MIN_CHUNK_SIZE )
+			throw new IllegalArgumentException( "Chunk size should be at least " + AwsChunkedPayload.MIN_CHUNK_SIZE + " bytes" );
+		if ( decodedContentLength < 0 )
+			throw new IllegalArgumentException( "The decoded content length is required by aws-chunked payloads" );
+		this.source = source;
+		this.decodedContentLength = decodedContentLength;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @return the length of the payload once encoded, including the chunk headers and the trailer.
+	 */
+	public long getEncodedContentLength() {
+		val fullChunks = decodedContentLength / chunkSize;
+		val remaining = (int) (decodedContentLength % chunkSize);
+		long length = fullChunks * encodedChunkLength( chunkSize );
+		if ( remaining > 0 )
+			length += encodedChunkLength( remaining );
+		return length + "0".length() + CRLF.length
+			+ CHECKSUM_CRC32C_HEADER.length() + 1 + CHECKSUM_LENGTH + CRLF.length + CRLF.length;
+	}
+
+	private static long encodedChunkLength( int size ) {
+		return Integer.toHexString( size ).length() + CRLF.length + size + CRLF.length;
+	}
+
+	/**
+	 * Sets this payload as the request body, along with the headers its encoding requires.
+	 */
+	public HttpUtils.HttpRequest applyTo( HttpUtils.HttpRequest request ) {
+		return request
+			.putHeader( "content-encoding", "aws-chunked" )
+			.putHeader( "x-amz-decoded-content-length", String.valueOf( decodedContentLength ) )
+			.putHeader( "x-amz-trailer", CHECKSUM_CRC32C_HEADER )
+			.contentSha256( STREAMING_UNSIGNED_PAYLOAD_TRAILER )
+			.body( this, getEncodedContentLength() );
+	}
+
+	@Override
+	public void writeTo( OutputStream output ) throws IOException {
+		val checksum = new Crc32c();
+		val chunk = new byte[ chunkSize ];
+		long remaining = decodedContentLength;
+		while ( remaining > 0 ) {
+			val length = readChunk( chunk, (int) Math.min( chunkSize, remaining ) );
+			checksum.update( chunk, 0, length );
+			output.write( Integer.toHexString( length ).getBytes( StandardCharsets.US_ASCII ) );
+			output.write( CRLF );
+			output.write( chunk, 0, length );
+			output.write( CRLF );
+			remaining -= length;
+		}
+		output.write( '0' );
+		output.write( CRLF );
+		output.write( (CHECKSUM_CRC32C_HEADER + ":" + checksum.toBase64()).getBytes( StandardCharsets.US_ASCII ) );
+		output.write( CRLF );
+		output.write( CRLF );
+	}
+
+	private int readChunk( byte[] chunk, int length ) throws IOException {
+		int read = 0;
+		while ( read < length ) {
+			val count = source.read( chunk, read, length - read );
+			if ( count < 0 )
+				throw new EOFException( "Payload ended " + (length - read) + " bytes before the declared content length" );
+			read += count;
+		}
+		return read;
+	}
+}
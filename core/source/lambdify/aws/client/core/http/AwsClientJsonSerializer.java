@@ -1,5 +1,6 @@
 package lambdify.aws.client.core.http;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import lombok.val;
 
@@ -15,6 +16,15 @@ public interface AwsClientJsonSerializer {
 
 	<T> T deserialize(String input, Class<T> clazz);
 
+	/**
+	 * Deserializes the UTF-8 encoded JSON found in a region of the array.
+	 * Implementations able to parse bytes should override it, skipping the
+	 * intermediate String.
+	 */
+	default <T> T deserialize(byte[] input, int offset, int length, Class<T> clazz) {
+		return deserialize( new String( input, offset, length, StandardCharsets.UTF_8 ), clazz );
+	}
+
 	<T> List<T> deserializeAsList(String input, Class<T> clazz);
 
 	@SuppressWarnings( "LoopStatementThatDoesntLoop" )
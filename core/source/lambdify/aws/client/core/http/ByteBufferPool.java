@@ -0,0 +1,41 @@
+package lambdify.aws.client.core.http;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import lombok.val;
+
+/**
+ * Recycles direct {@link ByteBuffer}s of the same size. Direct buffers are costly
+ * to allocate and are only freed by the GC, thus they are given back to the pool
+ * instead of being dropped. Not thread-safe: each {@link NioEventLoop} has its own.
+ */
+class ByteBufferPool {
+
+	final int bufferSize;
+	private final int maxPooledBuffers;
+	private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<>();
+
+	ByteBufferPool( int bufferSize, int maxPooledBuffers ) {
+		this.bufferSize = bufferSize;
+		this.maxPooledBuffers = maxPooledBuffers;
+	}
+
+	/**
+	 * @param minCapacity
+	 * @return a cleared buffer, pooled when {@code minCapacity} fits in the pooled buffers.
+	 */
+	ByteBuffer acquire( int minCapacity ) {
+		if ( minCapacity > bufferSize )
+			return ByteBuffer.allocateDirect( minCapacity );
+		val buffer = buffers.pollFirst();
+		if ( buffer == null )
+			return ByteBuffer.allocateDirect( bufferSize );
+		buffer.clear();
+		return buffer;
+	}
+
+	void release( ByteBuffer buffer ) {
+		if ( buffer != null && buffer.capacity() == bufferSize && buffers.size() < maxPooledBuffers )
+			buffers.offerFirst( buffer );
+	}
+}
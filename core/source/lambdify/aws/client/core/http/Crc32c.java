@@ -0,0 +1,104 @@
+package lambdify.aws.client.core.http;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.zip.Checksum;
+import lombok.val;
+
+/**
+ * CRC-32C (Castagnoli) checksum, as used by S3 integrity checks. Java 8 lacks
+ * {@code java.util.zip.CRC32C}, thus this slicing-by-8 implementation, which
+ * is considerably cheaper than hashing the payload with SHA-256.
+ */
+public class Crc32c implements Checksum {
+
+	private static final int POLYNOMIAL = 0x82F63B78;
+	private static final int[][] TABLES = createTables();
+
+	private int crc = 0xFFFFFFFF;
+
+	@Override
+	public void update( int b ) {
+		crc = (crc >>> 8) ^ TABLES[0][(crc ^ b) & 0xFF];
+	}
+
+	@Override
+	public void update( byte[] data, int offset, int length ) {
+		int value = crc;
+		int index = offset;
+		val end = offset + length;
+
+		while ( end - index >= 8 ) {
+			val low = value
+				^ ((data[index] & 0xFF) | (data[index + 1] & 0xFF) << 8
+				| (data[index + 2] & 0xFF) << 16 | (data[index + 3] & 0xFF) << 24);
+			value = TABLES[7][low & 0xFF] ^ TABLES[6][(low >>> 8) & 0xFF]
+				^ TABLES[5][(low >>> 16) & 0xFF] ^ TABLES[4][low >>> 24]
+				^ TABLES[3][data[index + 4] & 0xFF] ^ TABLES[2][data[index + 5] & 0xFF]
+				^ TABLES[1][data[index + 6] & 0xFF] ^ TABLES[0][data[index + 7] & 0xFF];
+			index += 8;
+		}
+
+		while ( index < end )
+			value = (value >>> 8) ^ TABLES[0][(value ^ data[index++]) & 0xFF];
+
+		crc = value;
+	}
+
+	public void update( byte[] data ) {
+		update( data, 0, data.length );
+	}
+
+	/**
+	 * Updates the checksum with the remaining bytes of the buffer, leaving
+	 * its position at the limit.
+	 */
+	public void update( ByteBuffer buffer ) {
+		if ( buffer.hasArray() ) {
+			update( buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining() );
+			buffer.position( buffer.limit() );
+		} else {
+			val chunk = new byte[ Math.min( buffer.remaining(), 8192 ) ];
+			while ( buffer.hasRemaining() ) {
+				val length = Math.min( buffer.remaining(), chunk.length );
+				buffer.get( chunk, 0, length );
+				update( chunk, 0, length );
+			}
+		}
+	}
+
+	@Override
+	public long getValue() {
+		return (~crc) & 0xFFFFFFFFL;
+	}
+
+	@Override
+	public void reset() {
+		crc = 0xFFFFFFFF;
+	}
+
+	/**
+	 * @return the big-endian checksum encoded as Base64, as expected by the
+	 * {@code x-amz-checksum-crc32c} header.
+	 */
+	public String toBase64() {
+		val value = (int) getValue();
+		return Base64.getEncoder().encodeToString( new byte[]{
+			(byte)(value >>> 24), (byte)(value >>> 16), (byte)(value >>> 8), (byte) value
+		} );
+	}
+
+	private static int[][] createTables() {
+		val tables = new int[8][256];
+		for ( int i = 0; i < 256; i++ ) {
+			int value = i;
+			for ( int bit = 0; bit < 8; bit++ )
+				value = (value & 1) != 0 ? (value >>> 1) ^ POLYNOMIAL : value >>> 1;
+			tables[0][i] = value;
+		}
+		for ( int i = 0; i < 256; i++ )
+			for ( int table = 1; table < 8; table++ )
+				tables[table][i] = (tables[table - 1][i] >>> 8) ^ tables[0][tables[table - 1][i] & 0xFF];
+		return tables;
+	}
+}
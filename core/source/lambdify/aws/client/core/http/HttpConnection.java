@@ -0,0 +1,214 @@
+package lambdify.aws.client.core.http;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import lombok.val;
+
+/**
+ * A pooled HTTP/1.1 connection. Reads and writes go through its own (unsynchronized)
+ * buffers, as a connection is never used by more than one request at a time.
+ */
+class HttpConnection implements Closeable {
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	final HttpConnectionPool.Route route;
+	final long createdAt = System.currentTimeMillis();
+	long lastUsedAt = createdAt;
+	int exchanges;
+
+	private final Socket socket;
+	private final InputStream input;
+	private final OutputStream output;
+	private final byte[] readBuffer = new byte[BUFFER_SIZE];
+	private final byte[] writeBuffer = new byte[BUFFER_SIZE];
+	private int readPosition, readLimit, writePosition;
+	private long receivedBytes;
+
+	HttpConnection( HttpConnectionPool.Route route, Socket socket ) throws IOException {
+		this.route = route;
+		this.socket = socket;
+		this.input = socket.getInputStream();
+		this.output = socket.getOutputStream();
+	}
+
+	/**
+	 * Marks the beginning of a new request/response exchange.
+	 */
+	void startExchange() {
+		exchanges++;
+		receivedBytes = 0;
+	}
+
+	boolean isReused() {
+		return exchanges > 1;
+	}
+
+	boolean hasReceivedData() {
+		return receivedBytes > 0;
+	}
+
+	boolean isExpired( long now, long maxIdleTime, long maxLifetime ) {
+		return now - lastUsedAt > maxIdleTime || now - createdAt > maxLifetime
+			|| socket.isClosed() || socket.isInputShutdown();
+	}
+
+	// ---- reading
+
+	int read() throws IOException {
+		if ( readPosition == readLimit && !fill() )
+			return -1;
+		return readBuffer[readPosition++] & 0xFF;
+	}
+
+	int read( byte[] data, int offset, int length ) throws IOException {
+		if ( length == 0 ) return 0;
+		if ( readPosition == readLimit ) {
+			// large reads skip the buffer
+			if ( length >= readBuffer.length ) {
+				val read = input.read( data, offset, length );
+				if ( read > 0 ) receivedBytes += read;
+				return read;
+			}
+			if ( !fill() ) return -1;
+		}
+		val count = Math.min( length, readLimit - readPosition );
+		System.arraycopy( readBuffer, readPosition, data, offset, count );
+		readPosition += count;
+		return count;
+	}
+
+	int available() throws IOException {
+		return readLimit - readPosition + input.available();
+	}
+
+	void readFully( byte[] data, int offset, int length ) throws IOException {
+		while ( length > 0 ) {
+			val read = read( data, offset, length );
+			if ( read < 0 )
+				throw new EOFException( "Connection closed with " + length + " bytes left to read" );
+			offset += read;
+			length -= read;
+		}
+	}
+
+	/**
+	 * Reads a CRLF (or LF) terminated line, or {@code null} if the connection was closed.
+	 */
+	String readLine() throws IOException {
+		val line = new StringBuilder( 64 );
+		int c;
+		while ( (c = read()) != -1 ) {
+			if ( c == '\n' ) {
+				val length = line.length();
+				if ( length > 0 && line.charAt( length - 1 ) == '\r' )
+					line.setLength( length - 1 );
+				return line.toString();
+			}
+			line.append( (char) c );
+		}
+		return line.length() == 0 ? null : line.toString();
+	}
+
+	private boolean fill() throws IOException {
+		val read = input.read( readBuffer, 0, readBuffer.length );
+		if ( read <= 0 ) return false;
+		receivedBytes += read;
+		readPosition = 0;
+		readLimit = read;
+		return true;
+	}
+
+	// ---- writing
+
+	void write( String ascii ) throws IOException {
+		write( ascii.getBytes( StandardCharsets.UTF_8 ) );
+	}
+
+	void write( byte[] data ) throws IOException {
+		write( data, 0, data.length );
+	}
+
+	void write( int b ) throws IOException {
+		if ( writePosition == writeBuffer.length )
+			flush();
+		writeBuffer[writePosition++] = (byte) b;
+	}
+
+	void write( byte[] data, int offset, int length ) throws IOException {
+		if ( length > writeBuffer.length - writePosition ) {
+			flush();
+			if ( length >= writeBuffer.length ) {
+				output.write( data, offset, length );
+				return;
+			}
+		}
+		System.arraycopy( data, offset, writeBuffer, writePosition, length );
+		writePosition += length;
+	}
+
+	void flush() throws IOException {
+		if ( writePosition > 0 ) {
+			output.write( writeBuffer, 0, writePosition );
+			writePosition = 0;
+		}
+		output.flush();
+	}
+
+	/**
+	 * @return a stream that writes into this connection, optionally using the
+	 * chunked transfer encoding. Closing it does not close the connection.
+	 */
+	OutputStream bodyOutput( boolean chunked ) {
+		return chunked ? new ChunkedBodyOutput() : new BodyOutput();
+	}
+
+	@Override
+	public void close() {
+		try {
+			socket.close();
+		} catch ( IOException cause ) {
+			// nothing to do, the connection is being discarded
+		}
+	}
+
+	class BodyOutput extends OutputStream {
+
+		@Override
+		public void write( int b ) throws IOException {
+			HttpConnection.this.write( b );
+		}
+
+		@Override
+		public void write( byte[] data, int offset, int length ) throws IOException {
+			HttpConnection.this.write( data, offset, length );
+		}
+	}
+
+	class ChunkedBodyOutput extends BodyOutput {
+
+		boolean closed;
+
+		@Override
+		public void write( int b ) throws IOException {
+			write( new byte[]{ (byte) b }, 0, 1 );
+		}
+
+		@Override
+		public void write( byte[] data, int offset, int length ) throws IOException {
+			if ( length == 0 ) return;
+			HttpConnection.this.write( Integer.toHexString( length ) + "\r\n" );
+			HttpConnection.this.write( data, offset, length );
+			HttpConnection.this.write( "\r\n" );
+		}
+
+		@Override
+		public void close() throws IOException {
+			if ( !closed ) {
+				closed = true;
+				HttpConnection.this.write( "0\r\n\r\n" );
+			}
+		}
+	}
+}
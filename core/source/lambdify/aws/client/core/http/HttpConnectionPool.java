@@ -0,0 +1,169 @@
+package lambdify.aws.client.core.http;
+
+import java.io.*;
+import java.net.*;
+import java.util.concurrent.*;
+import javax.net.ssl.*;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * Keeps HTTP/1.1 connections alive between requests, so only the first request
+ * to a host pays for the TCP and TLS handshakes. Connections are pooled per host,
+ * bounded by {@link #maxConnectionsPerHost}, and discarded once they stay idle for
+ * longer than {@link #maxIdleTime} or live longer than {@link #maxLifetime}.
+ *
+ * Only {@code java.util.concurrent} primitives are used for coordination, thus
+ * waiting for a connection never pins the carrier of a virtual thread.
+ */
+@Getter @Setter
+@Accessors(fluent = true)
+public class HttpConnectionPool implements Closeable {
+
+	/** Maximum number of connections (in use or idle) per host. */
+	private int maxConnectionsPerHost = 50;
+
+	/** Idle connections older than this (in milliseconds) are closed. */
+	private long maxIdleTime = 20_000;
+
+	/** Connections older than this (in milliseconds) are not reused. */
+	private long maxLifetime = 5 * 60_000;
+
+	/** How long (in milliseconds) to wait for a connection when the pool is exhausted. */
+	private long acquireTimeout = 10_000;
+
+	/** Connection timeout in milliseconds. */
+	private int connectTimeout = 10_000;
+
+	/** Read timeout in milliseconds. */
+	private int readTimeout = 60_000;
+
+	@Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+	private final ConcurrentMap<String, Route> routes = new ConcurrentHashMap<>();
+
+	@Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+	private volatile boolean closed;
+
+	/**
+	 * Retrieves an idle connection to the endpoint's host, opening a new one
+	 * when none is available.
+	 */
+	HttpConnection acquire( URL endpoint ) throws IOException {
+		if ( closed )
+			throw new IllegalStateException( "Connection pool is closed" );
+
+		val route = routes.computeIfAbsent( Route.keyOf( endpoint ), k -> new Route( endpoint, maxConnectionsPerHost ) );
+		try {
+			if ( !route.permits.tryAcquire( acquireTimeout, TimeUnit.MILLISECONDS ) )
+				throw new HttpException( "Timeout waiting for a connection to " + route.key );
+		} catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new HttpException( "Interrupted while waiting for a connection to " + route.key, e );
+		}
+
+		try {
+			val now = System.currentTimeMillis();
+			HttpConnection connection;
+			while ( (connection = route.idle.pollFirst()) != null ) {
+				if ( !connection.isExpired( now, maxIdleTime, maxLifetime ) )
+					return connection;
+				connection.close();
+			}
+			return connect( route );
+		} catch ( IOException | RuntimeException e ) {
+			route.permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Gives the connection back to the pool. Connections that can't be reused
+	 * (e.g. the server asked to close it, or the response was not fully read)
+	 * are closed instead.
+	 */
+	void release( HttpConnection connection, boolean reusable ) {
+		val route = connection.route;
+		try {
+			val now = System.currentTimeMillis();
+			connection.lastUsedAt = now;
+			if ( reusable && !closed && !connection.isExpired( now, maxIdleTime, maxLifetime ) )
+				route.idle.offerFirst( connection );
+			else
+				connection.close();
+			evictIdleConnections( route, now );
+		} finally {
+			route.permits.release();
+		}
+	}
+
+	/**
+	 * Closes the connections that have been idle for too long. Most recently used
+	 * connections are kept at the head of the queue, thus only its tail is checked.
+	 */
+	private void evictIdleConnections( Route route, long now ) {
+		HttpConnection oldest;
+		while ( (oldest = route.idle.peekLast()) != null && oldest.isExpired( now, maxIdleTime, maxLifetime ) ) {
+			if ( route.idle.removeLastOccurrence( oldest ) )
+				oldest.close();
+		}
+	}
+
+	private HttpConnection connect( Route route ) throws IOException {
+		val socket = new Socket();
+		try {
+			socket.setTcpNoDelay( true );
+			socket.setKeepAlive( true );
+			socket.setSoTimeout( readTimeout );
+			socket.connect( new InetSocketAddress( route.host, route.port ), connectTimeout );
+			if ( !route.secure )
+				return new HttpConnection( route, socket );
+
+			val sslSocket = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault())
+				.createSocket( socket, route.host, route.port, true );
+			val parameters = sslSocket.getSSLParameters();
+			parameters.setEndpointIdentificationAlgorithm( "HTTPS" );
+			sslSocket.setSSLParameters( parameters );
+			sslSocket.startHandshake();
+			return new HttpConnection( route, sslSocket );
+		} catch ( IOException | RuntimeException e ) {
+			socket.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Closes every idle connection. Connections in use are closed as soon as
+	 * they are released.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for ( val route : routes.values() ) {
+			HttpConnection connection;
+			while ( (connection = route.idle.pollFirst()) != null )
+				connection.close();
+		}
+	}
+
+	static class Route {
+		final String key;
+		final String host;
+		final int port;
+		final boolean secure;
+		final Semaphore permits;
+		final ConcurrentLinkedDeque<HttpConnection> idle = new ConcurrentLinkedDeque<>();
+
+		Route( URL endpoint, int maxConnections ) {
+			this.key = keyOf( endpoint );
+			this.host = endpoint.getHost();
+			this.secure = "https".equalsIgnoreCase( endpoint.getProtocol() );
+			this.port = endpoint.getPort() != -1 ? endpoint.getPort() : endpoint.getDefaultPort();
+			this.permits = new Semaphore( maxConnections );
+		}
+
+		static String keyOf( URL endpoint ) {
+			val port = endpoint.getPort() != -1 ? endpoint.getPort() : endpoint.getDefaultPort();
+			return endpoint.getProtocol().toLowerCase() + "://" + endpoint.getHost().toLowerCase() + ":" + port;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package lambdify.aws.client.core.http;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import lambdify.aws.client.core.http.PooledHttpTransport.ParsedResponse;
+import lombok.val;
+
+/**
+ * Incremental HTTP/1.1 response parser. Bytes are fed as they arrive from the
+ * network and the parser remembers where it stopped, thus a response can be
+ * split across any number of reads. Every byte handed to {@link #parse(ByteBuffer)}
+ * is consumed, either as part of the current response or (once it is complete)
+ * left in the buffer for the next one. Bodies are read into arrays presized after
+ * their content length, taken from the {@link ResponseBufferPool}.
+ */
+class HttpResponseParser {
+
+	private static final int MAX_LINE_LENGTH = 64 * 1024;
+	private static final ResponseBufferPool POOL = ResponseBufferPool.DEFAULT;
+
+	private enum State {
+		STATUS_LINE, HEADERS, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS, BODY_UNTIL_CLOSE, DONE
+	}
+
+	private final StringBuilder line = new StringBuilder( 128 );
+	private boolean lineComplete;
+	private String method;
+	private State state;
+	private ParsedResponse response;
+	private byte[] body;
+	private int bodySize;
+	private long remaining;
+	private boolean receivedData;
+
+	/**
+	 * Prepares the parser for the response of a request made with the given method.
+	 */
+	void reset( String method ) {
+		this.method = method;
+		this.state = State.STATUS_LINE;
+		this.response = null;
+		this.body = null;
+		this.bodySize = 0;
+		this.receivedData = false;
+		this.lineComplete = false;
+		this.line.setLength( 0 );
+	}
+
+	boolean hasReceivedData() {
+		return receivedData;
+	}
+
+	boolean isComplete() {
+		return state == State.DONE;
+	}
+
+	/**
+	 * Consumes the available bytes, stopping as soon as the response is complete.
+	 *
+	 * @param input
+	 * @return {@code true} if the response is complete.
+	 * @throws IOException if the response is malformed.
+	 */
+	boolean parse( ByteBuffer input ) throws IOException {
+		while ( input.hasRemaining() && state != State.DONE ) {
+			receivedData = true;
+			switch ( state ) {
+				case STATUS_LINE:
+					if ( readLine( input ) ) {
+						response = ParsedResponse.fromStatusLine( line.toString() );
+						state = State.HEADERS;
+					}
+					break;
+				case HEADERS:
+					if ( readLine( input ) ) {
+						if ( line.length() == 0 ) endOfHead();
+						else response.addHeader( line.toString() );
+					}
+					break;
+				case BODY:
+					readBody( input );
+					if ( remaining == 0 ) state = State.DONE;
+					break;
+				case CHUNK_SIZE:
+					if ( readLine( input ) ) startChunk();
+					break;
+				case CHUNK_DATA:
+					readBody( input );
+					if ( remaining == 0 ) state = State.CHUNK_END;
+					break;
+				case CHUNK_END:
+					if ( readLine( input ) ) state = State.CHUNK_SIZE;
+					break;
+				case TRAILERS:
+					// trailers are ignored
+					if ( readLine( input ) && line.length() == 0 ) state = State.DONE;
+					break;
+				case BODY_UNTIL_CLOSE:
+					remaining = input.remaining();
+					readBody( input );
+					break;
+			}
+		}
+		return state == State.DONE;
+	}
+
+	/**
+	 * Notifies that the server closed the connection.
+	 *
+	 * @return {@code true} if the response was delimited by the end of the connection,
+	 * thus it is now complete.
+	 */
+	boolean endOfStream() {
+		if ( state == State.BODY_UNTIL_CLOSE ) {
+			state = State.DONE;
+			return true;
+		}
+		return state == State.DONE;
+	}
+
+	/**
+	 * @return the parsed response, once {@link #isComplete()}.
+	 */
+	ParsedResponse response() {
+		response.body = body == null ? new byte[0] : body;
+		response.bodyLength = bodySize;
+		body = null;
+		return response;
+	}
+
+	private void endOfHead() {
+		response.endOfHead();
+		if ( response.status / 100 == 1 ) {
+			// informational responses precede the actual one
+			response = null;
+			state = State.STATUS_LINE;
+		} else if ( !response.hasBody( method ) ) {
+			state = State.DONE;
+		} else if ( response.isChunked() ) {
+			body = POOL.acquire( ResponseBufferPool.MIN_BUFFER_SIZE );
+			state = State.CHUNK_SIZE;
+		} else if ( response.contentLength() >= 0 ) {
+			remaining = response.contentLength();
+			body = remaining == 0 ? null : POOL.acquire( (int) remaining );
+			state = remaining == 0 ? State.DONE : State.BODY;
+		} else {
+			// the body is delimited by the end of the connection
+			response.keepAlive = false;
+			body = POOL.acquire( ResponseBufferPool.MIN_BUFFER_SIZE );
+			state = State.BODY_UNTIL_CLOSE;
+		}
+	}
+
+	private void startChunk() throws IOException {
+		val extension = line.indexOf( ";" );
+		val size = (extension < 0 ? line.toString() : line.substring( 0, extension )).trim();
+		try {
+			remaining = Long.parseLong( size, 16 );
+		} catch ( NumberFormatException e ) {
+			throw new IOException( "Invalid chunk size: " + size, e );
+		}
+		state = remaining == 0 ? State.TRAILERS : State.CHUNK_DATA;
+	}
+
+	private void readBody( ByteBuffer input ) {
+		val length = (int) Math.min( remaining, input.remaining() );
+		body = POOL.grow( body, bodySize, bodySize + length );
+		input.get( body, bodySize, length );
+		bodySize += length;
+		remaining -= length;
+	}
+
+	/**
+	 * Reads (ISO-8859-1) characters until the end of the line.
+	 *
+	 * @return {@code true} once a whole line, without its CRLF, is available.
+	 */
+	private boolean readLine( ByteBuffer input ) throws IOException {
+		if ( lineComplete ) {
+			line.setLength( 0 );
+			lineComplete = false;
+		}
+		while ( input.hasRemaining() ) {
+			val c = (char) (input.get() & 0xFF);
+			if ( c == '\n' ) {
+				val length = line.length();
+				if ( length > 0 && line.charAt( length - 1 ) == '\r' )
+					line.setLength( length - 1 );
+				return lineComplete = true;
+			}
+			if ( line.length() >= MAX_LINE_LENGTH )
+				throw new IOException( "HTTP response line is too long" );
+			line.append( c );
+		}
+		return false;
+	}
+}
@@ -0,0 +1,60 @@
+package lambdify.aws.client.core.http;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.*;
+import lambdify.aws.client.core.http.HttpUtils.*;
+import lombok.val;
+
+/**
+ * Sends the (already signed) requests to AWS. Implementations can be set per
+ * client through the {@link lambdify.aws.client.core.AmazonClientBuilder}, or
+ * registered globally as a {@link ServiceLoader} service.
+ */
+public interface HttpTransport {
+
+	HttpTransport DEFAULT = getDefaultHttpTransport();
+
+	/**
+	 * Sends the request, reading the whole response before returning.
+	 *
+	 * @param request
+	 * @return
+	 */
+	HttpResponse send( HttpRequest request );
+
+	/**
+	 * Sends the request without blocking the caller. Blocking transports run
+	 * {@link #send(HttpRequest)} on the given executor, while non-blocking ones
+	 * are free to ignore it.
+	 *
+	 * @param request
+	 * @param executor
+	 * @return
+	 */
+	default CompletableFuture<HttpResponse> sendAsync( HttpRequest request, Executor executor ) {
+		return CompletableFuture.supplyAsync( () -> send( request ), executor );
+	}
+
+	/**
+	 * Sends the request, returning as soon as the response head was read. The body
+	 * is read from the connection as the caller consumes it, and must be closed.
+	 * Transports that can't stream fall back to the fully read response.
+	 *
+	 * @param request
+	 * @return
+	 */
+	default StreamingHttpResponse stream( HttpRequest request ) {
+		val response = send( request );
+		return new StreamingHttpResponse( response.status(), response.headers(), response.responseAsStream() );
+	}
+
+	@SuppressWarnings( "LoopStatementThatDoesntLoop" )
+	static HttpTransport getDefaultHttpTransport() {
+		val transports = ServiceLoader.load( HttpTransport.class );
+		for ( val transport : transports ) {
+			System.err.println( "AWS Client HTTP Transport found: " + transport.getClass().getCanonicalName() );
+			return transport;
+		}
+		return new HttpURLConnectionTransport();
+	}
+}
@@ -0,0 +1,149 @@
+package lambdify.aws.client.core.http;
+
+import java.io.*;
+import java.net.*;
+import java.util.Map;
+import lambdify.aws.client.core.http.HttpUtils.*;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * {@link HttpTransport} backed by the JDK's {@link HttpURLConnection}. It does
+ * not need any extra dependency, which makes it the default transport.
+ */
+@Getter @Setter
+@Accessors(fluent = true)
+public class HttpURLConnectionTransport implements HttpTransport {
+
+	/** Connection timeout in milliseconds. Zero means no timeout. */
+	private int connectTimeout = 10_000;
+
+	/** Read timeout in milliseconds. Zero means no timeout. */
+	private int readTimeout = 60_000;
+
+	/**
+	 * Keeps connections open after the response is fully read, letting the JDK
+	 * reuse them for subsequent requests to the same host. The amount of idle
+	 * connections kept per host is defined by the {@code http.maxConnections}
+	 * system property. For explicit control over pooling, use {@link PooledHttpTransport}.
+	 */
+	private boolean keepAlive = false;
+
+	@Override
+	public HttpResponse send( HttpRequest httpRequest ) {
+		val connection = createHttpConnection( httpRequest.endpoint, httpRequest.method, httpRequest.headers );
+		boolean fullyRead = false;
+		try {
+			if ( httpRequest.body != null )
+				sendBody( connection, httpRequest.body );
+			else if ( httpRequest.bodyWriter != null )
+				sendBody( connection, httpRequest.bodyWriter, httpRequest.contentLength() );
+			val response = readResponse( connection );
+			fullyRead = true;
+			return response;
+		} catch (Throwable e) {
+			throw new HttpException("Request failed. " + e.getMessage(), e);
+		} finally {
+			if ( !keepAlive || !fullyRead )
+				connection.disconnect();
+		}
+	}
+
+	/**
+	 * Streams the response body from the connection. Once closed, the connection
+	 * is disconnected unless {@link #keepAlive} is enabled, in which case the JDK
+	 * keeps it only if the body was fully read.
+	 */
+	@Override
+	public StreamingHttpResponse stream( HttpRequest httpRequest ) {
+		val connection = createHttpConnection( httpRequest.endpoint, httpRequest.method, httpRequest.headers );
+		try {
+			if ( httpRequest.body != null )
+				sendBody( connection, httpRequest.body );
+			else if ( httpRequest.bodyWriter != null )
+				sendBody( connection, httpRequest.bodyWriter, httpRequest.contentLength() );
+			val status = connection.getResponseCode();
+			val input = openResponseStream( connection );
+			val body = new FilterInputStream( input != null ? input : new ByteArrayInputStream( new byte[0] ) ) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						if ( !keepAlive )
+							connection.disconnect();
+					}
+				}
+			};
+			return new StreamingHttpResponse( status, connection.getHeaderFields(), body );
+		} catch (Throwable e) {
+			connection.disconnect();
+			throw new HttpException("Request failed. " + e.getMessage(), e);
+		}
+	}
+
+	HttpURLConnection createHttpConnection( URL endpointUrl, String httpMethod, Map<String, String> headers ) {
+		try {
+			val connection = (HttpURLConnection) endpointUrl.openConnection();
+			connection.setRequestMethod(httpMethod);
+			connection.setConnectTimeout(connectTimeout);
+			connection.setReadTimeout(readTimeout);
+
+			if ( headers != null )
+				for ( val header : headers.entrySet() )
+					connection.setRequestProperty( header.getKey(), header.getValue() );
+
+			connection.setUseCaches(false);
+			connection.setDoInput(true);
+			return connection;
+		} catch (Exception e) {
+			throw new HttpException("Cannot create connection. " + e.getMessage(), e);
+		}
+	}
+
+	static void sendBody( HttpURLConnection connection, byte[] body ) throws IOException {
+		connection.setDoOutput(true);
+		connection.setFixedLengthStreamingMode( body.length );
+		try ( val wr = connection.getOutputStream() ) {
+			wr.write( body );
+			wr.flush();
+		}
+	}
+
+	static void sendBody( HttpURLConnection connection, BodyWriter writer, long contentLength ) throws IOException {
+		connection.setDoOutput(true);
+		if ( contentLength >= 0 )
+			connection.setFixedLengthStreamingMode( contentLength );
+		else
+			connection.setChunkedStreamingMode( 0 );
+
+		try ( val wr = connection.getOutputStream() ) {
+			writer.writeTo( wr );
+			wr.flush();
+		}
+	}
+
+	/**
+	 * Reads the response into a pooled array, presized after its content length.
+	 */
+	static HttpResponse readResponse( HttpURLConnection connection ) throws IOException {
+		val status = connection.getResponseCode();
+		val input = openResponseStream( connection );
+		if ( input == null )
+			return new HttpResponse( status, connection.getHeaderFields(), new byte[]{} );
+		val contentLength = Methods.HEAD.equals( connection.getRequestMethod() ) ? 0 : connection.getContentLengthLong();
+		try {
+			return ResponseBufferPool.DEFAULT.readResponse( status, connection.getHeaderFields(), input, contentLength );
+		} finally {
+			input.close();
+		}
+	}
+
+	static InputStream openResponseStream( HttpURLConnection connection ) {
+		try {
+			return connection.getInputStream();
+		} catch ( IOException e ) {
+			return connection.getErrorStream();
+		}
+	}
+}
@@ -2,9 +2,10 @@ package lambdify.aws.client.core.http;
 
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import lombok.*;
-import lombok.experimental.Accessors;
+import lombok.experimental.*;
 
 /**
  * Various Http helper routines
@@ -12,75 +13,42 @@ import lombok.experimental.Accessors;
 public class HttpUtils {
 
     public interface Methods {
-        String POST = "POST", GET = "GET", PUT = "PUT", DELETE = "DELETE";
+        String POST = "POST", GET = "GET", PUT = "PUT", DELETE = "DELETE", HEAD = "HEAD";
     }
 
     /**
-     * Makes a http request to the specified endpoint
+     * Writes the request body straight into the connection, allowing large
+     * payloads to be sent without having them fully loaded in memory.
+     */
+    public interface BodyWriter {
+        void writeTo( OutputStream output ) throws IOException;
+    }
+
+    /**
+     * Makes a http request to the specified endpoint through the default {@link HttpTransport}.
      *
      * @param httpRequest
      * @return
      */
     public static HttpResponse invokeHttpRequest( HttpRequest httpRequest ) {
-        val connection = createHttpConnection( httpRequest.endpoint, httpRequest.method, httpRequest.headers );
-        try {
-            if ( httpRequest.body != null )
-                sendBody( connection, httpRequest.body );
-            return new HttpResponse( connection.getResponseCode(), connection.getHeaderFields(), readResponse(connection) );
-        } catch (Throwable e) {
-            throw new HttpException("Request failed. " + e.getMessage(), e);
-        } finally {
-            if (connection != null)
-                connection.disconnect();
-        }
-    }
-
-    private static HttpURLConnection createHttpConnection( URL endpointUrl, String httpMethod, Map<String, String> headers ) {
-        try {
-            HttpURLConnection connection = (HttpURLConnection) endpointUrl.openConnection();
-            connection.setRequestMethod(httpMethod);
-
-            if ( headers != null )
-                for ( String headerKey : headers.keySet() )
-                    connection.setRequestProperty( headerKey, headers.get( headerKey ) );
-
-            connection.setUseCaches(false);
-            connection.setDoInput(true);
-            connection.setDoOutput(true);
-            return connection;
-        } catch (Exception e) {
-            throw new HttpException("Cannot create connection. " + e.getMessage(), e);
-        }
-    }
-
-    private static void sendBody( HttpURLConnection connection, byte[] body ) throws IOException {
-        try ( val wr = connection.getOutputStream() ) {
-            wr.write( body );
-            wr.flush();
-        }
+        return HttpTransport.DEFAULT.send( httpRequest );
     }
 
-    private static byte[] readResponse(HttpURLConnection response) throws IOException {
-        InputStream input;
-        try {
-            input = response.getInputStream();
-        } catch ( IOException e ) {
-            input = response.getErrorStream();
-        }
-
-        try {
-            if ( input != null )
-                return readBytes( input );
-            return new byte[]{};
-        } finally {
-            if ( input != null )
-                input.close();
+    /**
+     * @return whether sending the request again has the same effect as sending it once.
+     */
+    public static boolean isIdempotent( String method ) {
+        switch ( method ) {
+            case "GET": case "HEAD": case "PUT": case "DELETE": case "OPTIONS": case "TRACE":
+                return true;
+            default:
+                return false;
         }
     }
 
     public static byte[] readBytes( InputStream input ) throws IOException {
         ByteArrayOutputStream result = new ByteArrayOutputStream();
-        byte[] buffer = new byte[1024];
+        byte[] buffer = new byte[8 * 1024];
         int length;
         while ((length = input.read(buffer)) != -1) {
             result.write(buffer, 0, length);
@@ -96,10 +64,26 @@ public class HttpUtils {
         }
     }
 
+    public static String urlDecode(String encoded){
+        try {
+            return URLDecoder.decode( encoded.replace( "+", "%2B" ), "UTF-8" );
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException("UTF-8 encoding is not supported.", e);
+        }
+    }
+
     public static String urlEncode(String url){
         return urlEncode( url, false );
     }
 
+    /**
+     * Encodes the value as defined by RFC 3986, as expected by the AWS4 signature:
+     * spaces become '%20', '*' becomes '%2A' and '~' is kept as is.
+     *
+     * @param url
+     * @param keepPathSlash
+     * @return
+     */
     public static String urlEncode(String url, boolean keepPathSlash) {
         String encoded;
         try {
@@ -107,6 +91,9 @@ public class HttpUtils {
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException("UTF-8 encoding is not supported.", e);
         }
+        if ( encoded.indexOf('+') >= 0 || encoded.indexOf('*') >= 0 || encoded.contains("%7E") ) {
+            encoded = encoded.replace("+", "%20").replace("*", "%2A").replace("%7E", "~");
+        }
         if ( keepPathSlash ) {
             encoded = encoded.replace("%2F", "/");
         }
@@ -118,19 +105,54 @@ public class HttpUtils {
                 .put("content-type", "application/json");
     }
 
+    /**
+     * A fully read response. The body may be held by a (larger) pooled array,
+     * which the {@link lambdify.aws.client.core.AmazonClient} gives back to its
+     * {@link ResponseBufferPool} through {@link #release()} once the response
+     * was deserialized.
+     */
     @Value @Accessors(fluent = true)
     public static class HttpResponse {
 
         int status;
         Map<String, List<String>> headers;
-        byte[] response;
+        @Getter(AccessLevel.NONE) @NonFinal byte[] buffer;
+        int length;
+        @Getter(AccessLevel.NONE) @NonFinal ResponseBufferPool pool;
+
+        public HttpResponse( int status, Map<String, List<String>> headers, byte[] response ) {
+            this( status, headers, response, response.length, null );
+        }
+
+        public HttpResponse( int status, Map<String, List<String>> headers, byte[] buffer, int length, ResponseBufferPool pool ) {
+            this.status = status;
+            this.headers = headers;
+            this.buffer = buffer;
+            this.length = length;
+            this.pool = pool;
+        }
+
+        /**
+         * @return the response body. Bodies held by a pooled array are always copied,
+         * as the array is reused by another response once this one is released.
+         */
+        public byte[] response(){
+            return pool == null && buffer.length == length ? buffer : Arrays.copyOf( buffer, length );
+        }
+
+        /**
+         * @return the array holding the body, which is only valid up to {@link #length()}.
+         */
+        public byte[] buffer(){
+            return buffer;
+        }
+
+        public InputStream responseAsStream(){
+            return new ByteArrayInputStream( buffer, 0, length );
+        }
 
         public String responseAsString(){
-            try {
-                return new String( response, "UTF-8" );
-            } catch ( UnsupportedEncodingException e ) {
-                throw new IllegalStateException( e );
-            }
+            return new String( buffer, 0, length, StandardCharsets.UTF_8 );
         }
 
         public Map<String, String> flatHeaders(){
@@ -138,6 +160,18 @@ public class HttpUtils {
             headers.forEach( (k,v) -> flat.put( k, v.get( 0 ) ) );
             return flat;
         }
+
+        /**
+         * Gives the body array back to its pool. The response must not be read
+         * afterwards: its body is gone, and further calls do nothing.
+         */
+        public synchronized void release(){
+            if ( pool == null )
+                return;
+            pool.release( buffer );
+            pool = null;
+            buffer = null;
+        }
     }
 
     @Data @NoArgsConstructor
@@ -148,6 +182,17 @@ public class HttpUtils {
         @NonNull String method;
         @NonNull byte[] body;
 
+        /**
+         * Streams the body when it is not available as a byte array.
+         */
+        BodyWriter bodyWriter;
+
+        /**
+         * The precomputed SHA-256 of the payload. When defined, the signer will
+         * use it instead of hashing the body.
+         */
+        String contentSha256;
+
         {
             headers.put( "Accept","application/json" );
         }
@@ -171,6 +216,18 @@ public class HttpUtils {
             return this;
         }
 
+        public HttpRequest body( BodyWriter bodyWriter, long contentLength ) {
+            this.bodyWriter = bodyWriter;
+            return putHeader( "content-length", String.valueOf( contentLength ) );
+        }
+
+        public long contentLength() {
+            for ( val header : headers.entrySet() )
+                if ( "content-length".equalsIgnoreCase( header.getKey() ) )
+                    return Long.parseLong( header.getValue() );
+            return -1;
+        }
+
         public HttpRequest body( String body ) {
             try {
                 this.body = body.getBytes( "UTF-8" );
@@ -185,11 +242,15 @@ public class HttpUtils {
             if ( queryParams == null || queryParams.isEmpty() )
                 return Collections.emptyMap();
 
+            // values are decoded, as they are encoded again when canonicalized
             val params = queryParams.split( "&" );
             val map = new HashMap<String, String>();
             for ( String param : params ) {
-                val tokens = param.split( "=" );
-                map.put( tokens[0].trim(), tokens[1].trim() );
+                val separator = param.indexOf( '=' );
+                if ( separator < 0 )
+                    map.put( urlDecode( param.trim() ), "" );
+                else
+                    map.put( urlDecode( param.substring( 0, separator ).trim() ), urlDecode( param.substring( separator + 1 ).trim() ) );
             }
             return map;
         }
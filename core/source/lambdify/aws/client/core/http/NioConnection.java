@@ -0,0 +1,399 @@
+package lambdify.aws.client.core.http;
+
+import static java.nio.channels.SelectionKey.*;
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.ArrayDeque;
+import javax.net.ssl.*;
+import javax.net.ssl.SSLEngineResult.*;
+import lambdify.aws.client.core.http.NioHttpTransport.Exchange;
+import lombok.val;
+
+/**
+ * A non-blocking HTTP/1.1 connection driven by a {@link NioEventLoop}. Only the
+ * loop thread touches it. Requests are encoded into the (pooled, direct) plain
+ * text buffer and, for HTTPS, wrapped by the {@link SSLEngine} into the network
+ * buffer. Received bytes travel the opposite way before being fed to the
+ * {@link HttpResponseParser}.
+ *
+ * Requests are answered in the same order they were sent, thus the exchanges
+ * waiting for a response are kept in a queue whose head is the one being parsed.
+ */
+class NioConnection {
+
+	final NioEventLoop loop;
+	final NioEventLoop.Route route;
+	final long createdAt = System.currentTimeMillis();
+	private long lastActivityAt = createdAt;
+
+	private final SocketChannel channel;
+	private final SSLEngine engine;
+	private final ArrayDeque<Exchange> exchanges = new ArrayDeque<>();
+	private final HttpResponseParser parser = new HttpResponseParser();
+	private SelectionKey key;
+
+	/** Buffers in write mode: received bytes are appended to them. */
+	private ByteBuffer appIn, netIn;
+	/** Buffers in read mode: they hold the bytes yet to be sent. */
+	private ByteBuffer appOut, netOut;
+
+	private boolean ready, keepAlive = true, closed;
+	private int completedExchanges;
+
+	NioConnection( NioEventLoop loop, NioEventLoop.Route route, SocketChannel channel, SSLEngine engine ) {
+		this.loop = loop;
+		this.route = route;
+		this.channel = channel;
+		this.engine = engine;
+		this.appIn = loop.buffers.acquire( engine == null ? 0 : engine.getSession().getApplicationBufferSize() );
+		this.appOut = (ByteBuffer) loop.buffers.acquire( 0 ).flip();
+		if ( engine != null ) {
+			this.netIn = loop.buffers.acquire( engine.getSession().getPacketBufferSize() );
+			this.netOut = (ByteBuffer) loop.buffers.acquire( engine.getSession().getPacketBufferSize() ).flip();
+		}
+	}
+
+	void connect( InetSocketAddress address ) throws IOException {
+		key = channel.register( loop.selector, 0, this );
+		if ( channel.connect( address ) ) {
+			onConnected();
+			progress();
+		} else
+			key.interestOps( OP_CONNECT );
+	}
+
+	private void onConnected() throws IOException {
+		lastActivityAt = System.currentTimeMillis();
+		if ( engine == null )
+			ready = true;
+		else
+			engine.beginHandshake();
+	}
+
+	boolean canTakeExchange() {
+		return !closed && keepAlive && exchanges.size() < loop.transport.maxPipelinedRequests()
+			&& (exchanges.isEmpty() || ready);
+	}
+
+	boolean isIdle() {
+		return !closed && exchanges.isEmpty();
+	}
+
+	boolean isExpired( long now ) {
+		return now - lastActivityAt > loop.transport.maxIdleTime()
+			|| now - createdAt > loop.transport.maxLifetime();
+	}
+
+	/**
+	 * Queues the exchange, sending it as soon as the connection is ready.
+	 */
+	void assign( Exchange exchange ) {
+		exchange.prepare();
+		if ( exchanges.isEmpty() )
+			parser.reset( exchange.request.method );
+		exchanges.offerLast( exchange );
+		if ( ready )
+			try {
+				progress();
+			} catch ( IOException | RuntimeException e ) {
+				fail( e );
+			}
+	}
+
+	void handle( SelectionKey key ) {
+		if ( closed )
+			return;
+		try {
+			if ( key.isConnectable() ) {
+				if ( !channel.finishConnect() )
+					return;
+				onConnected();
+			} else if ( key.isReadable() && ready )
+				onReadable();
+			if ( !closed )
+				progress();
+		} catch ( IOException | RuntimeException e ) {
+			fail( e );
+		}
+	}
+
+	/**
+	 * Moves the connection forward: completes the TLS handshake, then sends
+	 * whatever is pending, and finally waits for more data to arrive.
+	 */
+	private void progress() throws IOException {
+		if ( !ready ) {
+			if ( !handshake() )
+				return;
+			ready = true;
+		}
+		key.interestOps( write() ? OP_READ : OP_READ | OP_WRITE );
+	}
+
+	void checkTimeouts( long now ) {
+		if ( !ready && now - createdAt > loop.transport.connectTimeout() )
+			fail( new SocketTimeoutException( "Connect timed out: " + route.key ) );
+		else if ( !exchanges.isEmpty() && now - lastActivityAt > loop.transport.readTimeout() )
+			fail( new SocketTimeoutException( "Read timed out: " + route.key ) );
+		else if ( exchanges.isEmpty() && isExpired( now ) )
+			close();
+	}
+
+	// ---- reading
+
+	private void onReadable() throws IOException {
+		int read;
+		if ( engine == null )
+			read = channel.read( appIn );
+		else {
+			netIn = ensureCapacity( netIn, engine.getSession().getPacketBufferSize(), true );
+			read = channel.read( netIn );
+			unwrap();
+			if ( engine.isInboundDone() )
+				read = -1;
+		}
+
+		if ( read > 0 )
+			lastActivityAt = System.currentTimeMillis();
+		feed();
+		if ( read < 0 )
+			onEndOfStream();
+		else if ( !keepAlive )
+			fail( new EOFException( "Connection closed by " + route.key ) );
+	}
+
+	private void unwrap() throws IOException {
+		netIn.flip();
+		try {
+			while ( !closed && netIn.hasRemaining() ) {
+				val result = engine.unwrap( netIn, appIn );
+				runDelegatedTasks();
+				if ( result.getStatus() == Status.BUFFER_OVERFLOW ) {
+					feed();
+					appIn = ensureCapacity( appIn, engine.getSession().getApplicationBufferSize(), true );
+				} else if ( result.getStatus() != Status.OK
+						|| result.bytesConsumed() == 0 && result.bytesProduced() == 0 )
+					break;
+			}
+		} finally {
+			netIn.compact();
+		}
+	}
+
+	/**
+	 * Hands the received bytes to the parser, completing every response they finish.
+	 */
+	private void feed() throws IOException {
+		appIn.flip();
+		try {
+			while ( !closed && appIn.hasRemaining() ) {
+				if ( exchanges.isEmpty() )
+					throw new IOException( "Unexpected data received from " + route.key );
+				if ( parser.parse( appIn ) )
+					onResponse();
+			}
+		} finally {
+			appIn.clear();
+		}
+	}
+
+	private void onResponse() {
+		val exchange = exchanges.pollFirst();
+		val response = parser.response();
+		completedExchanges++;
+		// a response that arrives before its request was fully sent leaves the connection unusable
+		if ( !response.keepAlive || !exchange.isEncoded() )
+			keepAlive = false;
+		if ( !exchanges.isEmpty() )
+			parser.reset( exchanges.peekFirst().request.method );
+
+		exchange.complete( response.toHttpResponse() );
+		if ( keepAlive )
+			loop.onAvailable( this );
+	}
+
+	private void onEndOfStream() {
+		if ( !exchanges.isEmpty() && parser.endOfStream() ) {
+			keepAlive = false;
+			onResponse();
+		}
+		fail( new EOFException( "Connection closed by " + route.key ) );
+	}
+
+	// ---- writing
+
+	/**
+	 * @return {@code true} once every pending byte was handed to the socket.
+	 */
+	private boolean write() throws IOException {
+		while ( true ) {
+			if ( !flush( engine == null ? appOut : netOut ) )
+				return false;
+			if ( engine != null && (appOut.hasRemaining() || engine.getHandshakeStatus() == HandshakeStatus.NEED_WRAP) )
+				wrap();
+			else if ( !encode() )
+				return true;
+		}
+	}
+
+	/**
+	 * Encodes the requests not yet sent into the plain text buffer.
+	 *
+	 * @return {@code true} if there is something to send.
+	 */
+	private boolean encode() {
+		appOut.compact();
+		try {
+			for ( val exchange : exchanges )
+				if ( !exchange.isEncoded() && !exchange.encodeInto( appOut ) )
+					break;
+		} finally {
+			appOut.flip();
+		}
+		return appOut.hasRemaining();
+	}
+
+	private boolean flush( ByteBuffer buffer ) throws IOException {
+		while ( buffer.hasRemaining() ) {
+			if ( channel.write( buffer ) == 0 )
+				return false;
+			lastActivityAt = System.currentTimeMillis();
+		}
+		return true;
+	}
+
+	private void wrap() throws IOException {
+		netOut.compact();
+		try {
+			val result = engine.wrap( appOut, netOut );
+			runDelegatedTasks();
+			if ( result.getStatus() == Status.CLOSED )
+				throw new EOFException( "TLS session closed by " + route.key );
+			if ( result.getStatus() == Status.BUFFER_OVERFLOW )
+				netOut = ensureCapacity( netOut, engine.getSession().getPacketBufferSize(), true );
+		} finally {
+			netOut.flip();
+		}
+	}
+
+	// ---- TLS handshake
+
+	/**
+	 * Runs the handshake as far as the socket allows it.
+	 *
+	 * @return {@code true} once the handshake is complete.
+	 */
+	private boolean handshake() throws IOException {
+		while ( true ) {
+			if ( !flush( netOut ) ) {
+				key.interestOps( OP_WRITE );
+				return false;
+			}
+
+			switch ( engine.getHandshakeStatus() ) {
+				case NOT_HANDSHAKING:
+				case FINISHED:
+					return true;
+				case NEED_TASK:
+					runDelegatedTasks();
+					break;
+				case NEED_WRAP:
+					wrap();
+					break;
+				default:
+					netIn.flip();
+					final SSLEngineResult result;
+					try {
+						result = engine.unwrap( netIn, appIn );
+					} finally {
+						netIn.compact();
+					}
+					if ( result.getStatus() == Status.CLOSED )
+						throw new EOFException( "Connection closed by " + route.key + " during the TLS handshake" );
+					if ( result.getStatus() == Status.BUFFER_UNDERFLOW ) {
+						netIn = ensureCapacity( netIn, engine.getSession().getPacketBufferSize(), true );
+						val read = channel.read( netIn );
+						if ( read < 0 )
+							throw new EOFException( "Connection closed by " + route.key + " during the TLS handshake" );
+						if ( read == 0 ) {
+							key.interestOps( OP_READ );
+							return false;
+						}
+						lastActivityAt = System.currentTimeMillis();
+					}
+			}
+		}
+	}
+
+	private void runDelegatedTasks() {
+		Runnable task;
+		while ( (task = engine.getDelegatedTask()) != null )
+			task.run();
+	}
+
+	/**
+	 * Replaces the buffer by a bigger one, when needed, keeping its content.
+	 *
+	 * @param writeMode whether the buffer content is between zero and its position
+	 *                  (otherwise, between its position and limit).
+	 */
+	private ByteBuffer ensureCapacity( ByteBuffer buffer, int capacity, boolean writeMode ) {
+		if ( buffer.capacity() >= capacity )
+			return buffer;
+		val bigger = loop.buffers.acquire( capacity );
+		if ( writeMode ) buffer.flip();
+		bigger.put( buffer );
+		if ( !writeMode ) bigger.flip();
+		loop.buffers.release( buffer );
+		return bigger;
+	}
+
+	// ---- closing
+
+	/**
+	 * Closes the connection. Exchanges that were never answered, either because
+	 * the server closed a reused connection or because they were pipelined after
+	 * the failed one, are retried on another connection, as long as they were
+	 * never sent or are idempotent: the server may have processed a request
+	 * whose response was lost. The others fail, as do all of them once the event
+	 * loop stopped.
+	 */
+	void fail( Exception cause ) {
+		if ( closed )
+			return;
+		close();
+
+		val retriable = !(cause instanceof SocketTimeoutException) && loop.isRunning();
+		boolean first = true;
+		Exchange exchange;
+		while ( (exchange = exchanges.pollFirst()) != null ) {
+			val unanswered = !first || (completedExchanges > 0 && !parser.hasReceivedData());
+			val resendable = !exchange.isStarted() || HttpUtils.isIdempotent( exchange.request.method );
+			if ( retriable && unanswered && resendable && exchange.attempts < NioHttpTransport.MAX_ATTEMPTS )
+				loop.dispatch( exchange );
+			else
+				exchange.fail( cause );
+			first = false;
+		}
+	}
+
+	void close() {
+		if ( closed )
+			return;
+		closed = true;
+		try {
+			channel.close();
+		} catch ( IOException e ) {
+			// nothing left to do
+		}
+		// buffers are recycled once the current event is handled, as they may still be in use down the stack
+		val buffers = new ByteBuffer[]{ appIn, appOut, netIn, netOut };
+		loop.execute( () -> {
+			for ( val buffer : buffers )
+				loop.buffers.release( buffer );
+		});
+		loop.onClosed( this );
+	}
+}
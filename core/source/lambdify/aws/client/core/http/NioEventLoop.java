@@ -0,0 +1,262 @@
+package lambdify.aws.client.core.http;
+
+import java.io.IOException;
+import java.net.*;
+import java.nio.channels.*;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.net.ssl.*;
+import lambdify.aws.client.core.http.NioHttpTransport.Exchange;
+import lombok.val;
+
+/**
+ * A selector thread and the connections it drives. Connections, routes and
+ * buffers belong to a single event loop and are only touched by its thread,
+ * thus none of them need synchronization. Other threads hand work over
+ * through {@link #execute(Runnable)}.
+ */
+class NioEventLoop implements Runnable {
+
+	private static final long TIMEOUT_CHECK_INTERVAL = 250;
+	private static final int BUFFER_SIZE = 32 * 1024;
+	private static final int MAX_POOLED_BUFFERS = 256;
+
+	final NioHttpTransport transport;
+	final Selector selector;
+	final ByteBufferPool buffers = new ByteBufferPool( BUFFER_SIZE, MAX_POOLED_BUFFERS );
+	private final int maxConnectionsPerHost;
+	private final Thread thread;
+	private final Map<String, Route> routes = new HashMap<>();
+	private final Set<NioConnection> connections = new HashSet<>();
+	private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean wakeupPending = new AtomicBoolean();
+	private volatile boolean running = true;
+	/** Why the loop stopped, when it stopped on a failure. */
+	private volatile IOException failure;
+	private SSLContext sslContext;
+
+	NioEventLoop( NioHttpTransport transport, int index, int maxConnectionsPerHost ) throws IOException {
+		this.transport = transport;
+		this.maxConnectionsPerHost = maxConnectionsPerHost;
+		this.selector = Selector.open();
+		this.thread = new Thread( this, "aws-client-nio-" + index );
+		this.thread.setDaemon( true );
+	}
+
+	void start() {
+		thread.start();
+	}
+
+	/**
+	 * Runs the task on the event loop thread. Once the loop is shut down, tasks
+	 * are run by the caller, as {@link #dispatch(Exchange)} fails fast by then.
+	 */
+	void execute( Runnable task ) {
+		if ( !running ) {
+			task.run();
+			return;
+		}
+		tasks.offer( task );
+		if ( !running && tasks.remove( task ) )
+			task.run();
+		else if ( wakeupPending.compareAndSet( false, true ) )
+			selector.wakeup();
+	}
+
+	boolean isRunning() {
+		return running;
+	}
+
+	void shutdown() {
+		running = false;
+		if ( thread.isAlive() )
+			selector.wakeup();
+		else
+			closeSelector();
+	}
+
+	@Override
+	public void run() {
+		long nextTimeoutCheck = 0;
+		try {
+			while ( running ) {
+				selector.select( TIMEOUT_CHECK_INTERVAL );
+				wakeupPending.set( false );
+				runTasks();
+
+				val selectedKeys = selector.selectedKeys();
+				for ( val key : selectedKeys )
+					((NioConnection) key.attachment()).handle( key );
+				selectedKeys.clear();
+
+				val now = System.currentTimeMillis();
+				if ( now >= nextTimeoutCheck ) {
+					for ( val connection : new ArrayList<>( connections ) )
+						connection.checkTimeouts( now );
+					nextTimeoutCheck = now + TIMEOUT_CHECK_INTERVAL;
+				}
+			}
+		} catch ( IOException | RuntimeException e ) {
+			failure = new IOException( "Selector thread failed: " + e.getMessage(), e );
+		} finally {
+			running = false;
+			closeEverything();
+		}
+	}
+
+	private void runTasks() {
+		Runnable task;
+		while ( (task = tasks.poll()) != null )
+			task.run();
+	}
+
+	/**
+	 * Fails every exchange of the loop, with the failure that stopped it if any.
+	 */
+	private void closeEverything() {
+		val cause = failure != null ? failure : new IOException( "Transport closed" );
+		for ( val connection : new ArrayList<>( connections ) )
+			connection.fail( cause );
+		for ( val route : routes.values() ) {
+			Exchange exchange;
+			while ( (exchange = route.pending.pollFirst()) != null )
+				exchange.fail( cause );
+		}
+		runTasks();
+		closeSelector();
+	}
+
+	private void closeSelector() {
+		try {
+			selector.close();
+		} catch ( IOException e ) {
+			// nothing left to do
+		}
+	}
+
+	/**
+	 * Sends the exchange through an available connection to its host, opening
+	 * a new one if allowed. Otherwise, it waits for a connection to be available.
+	 */
+	void dispatch( Exchange exchange ) {
+		if ( !running ) {
+			val cause = failure;
+			exchange.fail( cause != null ? cause : new IllegalStateException( "Transport is closed" ) );
+			return;
+		}
+
+		try {
+			val endpoint = exchange.request.endpoint;
+			val route = routes.computeIfAbsent( HttpConnectionPool.Route.keyOf( endpoint ), k -> new Route( endpoint ) );
+			val connection = availableConnection( route, System.currentTimeMillis() );
+			if ( connection != null )
+				connection.assign( exchange );
+			else if ( route.connections.size() < maxConnectionsPerHost )
+				connect( route ).assign( exchange );
+			else
+				route.pending.offerLast( exchange );
+		} catch ( IOException | RuntimeException e ) {
+			exchange.fail( e );
+		}
+	}
+
+	private NioConnection availableConnection( Route route, long now ) {
+		NioConnection connection;
+		while ( (connection = route.idle.pollFirst()) != null ) {
+			if ( !connection.isExpired( now ) )
+				return connection;
+			connection.close();
+		}
+
+		if ( transport.maxPipelinedRequests() > 1 )
+			for ( val candidate : route.connections )
+				if ( candidate.canTakeExchange() )
+					return candidate;
+		return null;
+	}
+
+	private NioConnection connect( Route route ) throws IOException {
+		val channel = SocketChannel.open();
+		try {
+			channel.configureBlocking( false );
+			channel.setOption( StandardSocketOptions.TCP_NODELAY, true );
+			channel.setOption( StandardSocketOptions.SO_KEEPALIVE, true );
+			val engine = route.secure ? createEngine( route ) : null;
+			val connection = new NioConnection( this, route, channel, engine );
+			connection.connect( new InetSocketAddress( route.host, route.port ) );
+			route.connections.add( connection );
+			connections.add( connection );
+			return connection;
+		} catch ( IOException | RuntimeException e ) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private SSLEngine createEngine( Route route ) {
+		val engine = sslContext().createSSLEngine( route.host, route.port );
+		engine.setUseClientMode( true );
+		val parameters = engine.getSSLParameters();
+		parameters.setEndpointIdentificationAlgorithm( "HTTPS" );
+		engine.setSSLParameters( parameters );
+		return engine;
+	}
+
+	private SSLContext sslContext() {
+		if ( sslContext == null )
+			try {
+				sslContext = transport.sslContext() != null ? transport.sslContext() : SSLContext.getDefault();
+			} catch ( NoSuchAlgorithmException e ) {
+				throw new IllegalStateException( "TLS is not available: " + e.getMessage(), e );
+			}
+		return sslContext;
+	}
+
+	/**
+	 * Hands the requests waiting for a connection to the given one, which just
+	 * received a response. Connections with nothing left to do become idle.
+	 */
+	void onAvailable( NioConnection connection ) {
+		val route = connection.route;
+		while ( !route.pending.isEmpty() && connection.canTakeExchange() )
+			connection.assign( route.pending.pollFirst() );
+		if ( connection.isIdle() ) {
+			if ( connection.isExpired( System.currentTimeMillis() ) )
+				connection.close();
+			else
+				route.idle.offerFirst( connection );
+		}
+	}
+
+	/**
+	 * Forgets the connection, opening a new one for the requests that were
+	 * waiting for a connection to be available.
+	 */
+	void onClosed( NioConnection connection ) {
+		val route = connection.route;
+		connections.remove( connection );
+		route.connections.remove( connection );
+		route.idle.remove( connection );
+		if ( running && !route.pending.isEmpty() )
+			dispatch( route.pending.pollFirst() );
+	}
+
+	static class Route {
+		final String key;
+		final String host;
+		final int port;
+		final boolean secure;
+		final List<NioConnection> connections = new ArrayList<>();
+		final ArrayDeque<NioConnection> idle = new ArrayDeque<>();
+		final ArrayDeque<Exchange> pending = new ArrayDeque<>();
+
+		Route( URL endpoint ) {
+			this.key = HttpConnectionPool.Route.keyOf( endpoint );
+			this.host = endpoint.getHost();
+			this.secure = "https".equalsIgnoreCase( endpoint.getProtocol() );
+			this.port = endpoint.getPort() != -1 ? endpoint.getPort() : endpoint.getDefaultPort();
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package lambdify.aws.client.core.http;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import javax.net.ssl.SSLContext;
+import lambdify.aws.client.core.http.HttpUtils.*;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * Non-blocking {@link HttpTransport} built on {@link java.nio.channels.SocketChannel}s,
+ * with TLS handled by {@link javax.net.ssl.SSLEngine}s. A few selector threads
+ * ({@link #selectorThreads}) drive every connection, thus the amount of requests
+ * in flight is not bound to the amount of threads. Requests are encoded into
+ * pooled direct buffers, responses are parsed as their bytes arrive, and
+ * connections are kept alive between requests.
+ *
+ * Each selector thread keeps its own connections, up to its share of
+ * {@link #maxConnectionsPerHost}. Further requests wait for a connection to be
+ * available or, when {@link #maxPipelinedRequests} is greater than one, are
+ * pipelined into connections that are still waiting for previous responses.
+ * Requests that were not answered by a connection closed by the server are
+ * transparently retried on another one.
+ *
+ * Requests streaming their body through a {@link BodyWriter}, as well as
+ * responses streamed to the caller, are delegated to the {@link #streamingTransport}.
+ */
+@Getter @Setter
+@Accessors(fluent = true)
+public class NioHttpTransport implements HttpTransport, Closeable {
+
+	static final int MAX_ATTEMPTS = 3;
+
+	/** Amount of selector threads. */
+	private int selectorThreads = Math.min( 4, Runtime.getRuntime().availableProcessors() );
+
+	/** Maximum number of connections (in use or idle) per host. */
+	private int maxConnectionsPerHost = 50;
+
+	/** Maximum number of requests sent through a connection before its responses arrive. */
+	private int maxPipelinedRequests = 1;
+
+	/** Idle connections older than this (in milliseconds) are closed. */
+	private long maxIdleTime = 20_000;
+
+	/** Connections older than this (in milliseconds) are not reused. */
+	private long maxLifetime = 5 * 60_000;
+
+	/** Connection (and TLS handshake) timeout in milliseconds. */
+	private int connectTimeout = 10_000;
+
+	/** Read timeout in milliseconds. */
+	private int readTimeout = 60_000;
+
+	/** TLS configuration. Defaults to {@link SSLContext#getDefault()}. */
+	private SSLContext sslContext;
+
+	/** Sends the requests whose body is streamed. */
+	@NonNull private HttpTransport streamingTransport = new PooledHttpTransport();
+
+	@Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+	private final AtomicReference<NioEventLoop[]> eventLoops = new AtomicReference<>();
+
+	@Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+	private final AtomicInteger nextEventLoop = new AtomicInteger();
+
+	@Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+	private volatile boolean closed;
+
+	@Override
+	public HttpResponse send( HttpRequest request ) {
+		try {
+			return sendAsync( request, Runnable::run ).join();
+		} catch ( CompletionException e ) {
+			if ( e.getCause() instanceof RuntimeException )
+				throw (RuntimeException) e.getCause();
+			throw new HttpException( "Request failed. " + e.getCause().getMessage(), e.getCause() );
+		}
+	}
+
+	@Override
+	public StreamingHttpResponse stream( HttpRequest request ) {
+		return streamingTransport.stream( request );
+	}
+
+	/**
+	 * Sends the request without blocking the caller. The returned future is
+	 * completed through the given executor, thus the selector threads never
+	 * run the caller's callbacks.
+	 *
+	 * @param request
+	 * @param executor
+	 * @return
+	 */
+	@Override
+	public CompletableFuture<HttpResponse> sendAsync( HttpRequest request, Executor executor ) {
+		if ( request.body == null && request.bodyWriter != null )
+			return streamingTransport.sendAsync( request, executor );
+
+		val exchange = new Exchange( request, new CompletableFuture<>(), executor );
+		val eventLoop = nextEventLoop();
+		eventLoop.execute( () -> eventLoop.dispatch( exchange ) );
+		return exchange.future;
+	}
+
+	NioEventLoop nextEventLoop() {
+		var loops = eventLoops.get();
+		if ( loops == null )
+			loops = startEventLoops();
+		return loops[ Math.floorMod( nextEventLoop.getAndIncrement(), loops.length ) ];
+	}
+
+	private NioEventLoop[] startEventLoops() {
+		if ( closed )
+			throw new IllegalStateException( "Transport is closed" );
+
+		val loops = new NioEventLoop[ Math.max( 1, selectorThreads ) ];
+		val maxConnectionsPerLoop = (maxConnectionsPerHost + loops.length - 1) / loops.length;
+		try {
+			for ( int i = 0; i < loops.length; i++ )
+				loops[i] = new NioEventLoop( this, i + 1, Math.max( 1, maxConnectionsPerLoop ) );
+		} catch ( IOException e ) {
+			closeEventLoops( loops );
+			throw new HttpException( "Could not start the selector threads: " + e.getMessage(), e );
+		}
+
+		if ( !eventLoops.compareAndSet( null, loops ) ) {
+			closeEventLoops( loops );
+			return eventLoops.get();
+		}
+		for ( val loop : loops )
+			loop.start();
+		return loops;
+	}
+
+	private static void closeEventLoops( NioEventLoop[] loops ) {
+		for ( val loop : loops )
+			if ( loop != null )
+				loop.shutdown();
+	}
+
+	/**
+	 * Stops the selector threads, failing the requests that are still in flight,
+	 * and closes every connection.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		val loops = eventLoops.get();
+		if ( loops != null )
+			closeEventLoops( loops );
+		if ( streamingTransport instanceof Closeable )
+			try {
+				((Closeable) streamingTransport).close();
+			} catch ( IOException e ) {
+				// nothing left to do
+			}
+	}
+
+	/**
+	 * A request, its encoded form and the future waiting for its response.
+	 */
+	static class Exchange {
+		final HttpRequest request;
+		final CompletableFuture<HttpResponse> future;
+		final Executor executor;
+		private byte[] head;
+		private int headWritten, bodyWritten;
+		int attempts;
+
+		Exchange( HttpRequest request, CompletableFuture<HttpResponse> future, Executor executor ) {
+			this.request = request;
+			this.future = future;
+			this.executor = executor;
+		}
+
+		/**
+		 * Prepares the request to be (re)sent from the beginning.
+		 */
+		void prepare() {
+			if ( head == null )
+				head = PooledHttpTransport.requestHead( request, false ).getBytes( StandardCharsets.UTF_8 );
+			headWritten = 0;
+			bodyWritten = 0;
+			attempts++;
+		}
+
+		/**
+		 * @return whether any byte of the request may have reached the server.
+		 */
+		boolean isStarted() {
+			return headWritten > 0;
+		}
+
+		boolean isEncoded() {
+			return headWritten == head.length && (request.body == null || bodyWritten == request.body.length);
+		}
+
+		/**
+		 * Copies as much of the request as the buffer can hold.
+		 *
+		 * @return {@code true} once the whole request was copied.
+		 */
+		boolean encodeInto( ByteBuffer buffer ) {
+			val headLength = Math.min( buffer.remaining(), head.length - headWritten );
+			buffer.put( head, headWritten, headLength );
+			headWritten += headLength;
+
+			val body = request.body;
+			if ( body != null && headWritten == head.length ) {
+				val bodyLength = Math.min( buffer.remaining(), body.length - bodyWritten );
+				buffer.put( body, bodyWritten, bodyLength );
+				bodyWritten += bodyLength;
+			}
+			return isEncoded();
+		}
+
+		void complete( HttpResponse response ) {
+			run( () -> future.complete( response ) );
+		}
+
+		void fail( Throwable cause ) {
+			val failure = cause instanceof HttpException ? cause
+				: new HttpException( "Request failed. " + cause.getMessage(), cause );
+			run( () -> future.completeExceptionally( failure ) );
+		}
+
+		private void run( Runnable task ) {
+			try {
+				executor.execute( task );
+			} catch ( RejectedExecutionException e ) {
+				task.run();
+			}
+		}
+	}
+}
@@ -0,0 +1,405 @@
+package lambdify.aws.client.core.http;
+
+import java.io.*;
+import java.net.SocketTimeoutException;
+import java.util.*;
+import lambdify.aws.client.core.http.HttpUtils.*;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * {@link HttpTransport} that speaks HTTP/1.1 over persistent connections kept by
+ * a {@link HttpConnectionPool}. Responses are always read until their end, so
+ * connections go back to the pool ready to be reused by the next request.
+ *
+ * Requests sent through a pooled connection that was silently closed by the
+ * server are transparently retried on a new connection, as long as their body
+ * can be sent again, and either they were not completely written or their method
+ * is idempotent: otherwise the server may have already processed them. Timeouts
+ * are never retried, as the server may just be slow.
+ */
+@Getter @Setter
+@Accessors(fluent = true)
+public class PooledHttpTransport implements HttpTransport, Closeable {
+
+	private static final int MAX_ATTEMPTS_ON_STALE_CONNECTIONS = 3;
+
+	@NonNull private HttpConnectionPool pool = new HttpConnectionPool();
+
+	@Override
+	public HttpResponse send( HttpRequest request ) {
+		try {
+			for ( int attempt = 1; ; attempt++ ) {
+				try {
+					return sendThroughPool( request, attempt < MAX_ATTEMPTS_ON_STALE_CONNECTIONS );
+				} catch ( StaleConnectionException cause ) {
+					// retried on another connection
+				}
+			}
+		} catch ( IOException e ) {
+			throw new HttpException( "Request failed. " + e.getMessage(), e );
+		}
+	}
+
+	private HttpResponse sendThroughPool( HttpRequest request, boolean canRetry ) throws IOException {
+		val connection = pool.acquire( request.endpoint );
+		boolean reusable = false, written = false;
+		try {
+			connection.startExchange();
+			writeRequest( connection, request );
+			written = true;
+			val response = readResponse( connection, request.method );
+			reusable = response.keepAlive;
+			return response.toHttpResponse();
+		} catch ( IOException cause ) {
+			if ( canRetry && isStale( connection, request, written, cause ) )
+				throw new StaleConnectionException( cause );
+			throw cause;
+		} finally {
+			pool.release( connection, reusable );
+		}
+	}
+
+	/**
+	 * Streams the response body from the pooled connection, which goes back to
+	 * the pool as soon as the body is fully read. Bodies closed before their end
+	 * discard the connection instead.
+	 */
+	@Override
+	public StreamingHttpResponse stream( HttpRequest request ) {
+		try {
+			for ( int attempt = 1; ; attempt++ ) {
+				try {
+					return streamThroughPool( request, attempt < MAX_ATTEMPTS_ON_STALE_CONNECTIONS );
+				} catch ( StaleConnectionException cause ) {
+					// retried on another connection
+				}
+			}
+		} catch ( IOException e ) {
+			throw new HttpException( "Request failed. " + e.getMessage(), e );
+		}
+	}
+
+	private StreamingHttpResponse streamThroughPool( HttpRequest request, boolean canRetry ) throws IOException {
+		val connection = pool.acquire( request.endpoint );
+		boolean written = false;
+		try {
+			connection.startExchange();
+			writeRequest( connection, request );
+			written = true;
+			ParsedResponse response;
+			do {
+				response = readResponseHead( connection );
+			} while ( response.status / 100 == 1 );
+			return new StreamingHttpResponse( response.status, response.headers,
+				new BodyInputStream( connection, response, request.method ) );
+		} catch ( IOException cause ) {
+			pool.release( connection, false );
+			if ( canRetry && isStale( connection, request, written, cause ) )
+				throw new StaleConnectionException( cause );
+			throw cause;
+		} catch ( RuntimeException cause ) {
+			pool.release( connection, false );
+			throw cause;
+		}
+	}
+
+	/**
+	 * @return whether the failure comes from a pooled connection closed by the server
+	 * before it answered, and the request can safely be sent again.
+	 */
+	private static boolean isStale( HttpConnection connection, HttpRequest request, boolean written, IOException cause ) {
+		return !(cause instanceof SocketTimeoutException)
+			&& connection.isReused() && !connection.hasReceivedData() && request.bodyWriter == null
+			&& (!written || HttpUtils.isIdempotent( request.method ));
+	}
+
+	static void writeRequest( HttpConnection connection, HttpRequest request ) throws IOException {
+		val chunked = request.body == null && request.bodyWriter != null && request.contentLength() < 0;
+		connection.write( requestHead( request, chunked ) );
+		if ( request.body != null )
+			connection.write( request.body );
+		else if ( request.bodyWriter != null )
+			try ( val output = connection.bodyOutput( chunked ) ) {
+				request.bodyWriter.writeTo( output );
+			}
+		connection.flush();
+	}
+
+	/**
+	 * Builds the request line and headers, up to (and including) the empty line
+	 * that precedes the body.
+	 */
+	static String requestHead( HttpRequest request, boolean chunked ) {
+		val target = request.endpoint.getFile();
+		val head = new StringBuilder( 512 )
+			.append( request.method ).append( ' ' ).append( target.isEmpty() ? "/" : target ).append( " HTTP/1.1\r\n" );
+
+		for ( val header : request.headers().entrySet() ) {
+			if ( header.getValue() == null || "content-length".equalsIgnoreCase( header.getKey() ) )
+				continue;
+			head.append( header.getKey() ).append( ": " ).append( header.getValue() ).append( "\r\n" );
+		}
+
+		if ( request.body != null )
+			head.append( "content-length: " ).append( request.body.length ).append( "\r\n" );
+		else if ( request.bodyWriter != null && !chunked )
+			head.append( "content-length: " ).append( request.contentLength() ).append( "\r\n" );
+		else if ( chunked )
+			head.append( "transfer-encoding: chunked\r\n" );
+		return head.append( "\r\n" ).toString();
+	}
+
+	static ParsedResponse readResponse( HttpConnection connection, String method ) throws IOException {
+		ParsedResponse response;
+		do {
+			response = readResponseHead( connection );
+		} while ( response.status / 100 == 1 );
+
+		if ( !response.hasBody( method ) ) {
+			response.body = new byte[0];
+		} else if ( response.isChunked() ) {
+			readChunkedBody( connection, response );
+		} else if ( response.contentLength() >= 0 ) {
+			response.bodyLength = (int) response.contentLength();
+			response.body = ResponseBufferPool.DEFAULT.acquire( response.bodyLength );
+			connection.readFully( response.body, 0, response.bodyLength );
+		} else {
+			// the body is delimited by the end of the connection
+			readUntilClosed( connection, response );
+			response.keepAlive = false;
+		}
+		return response;
+	}
+
+	static ParsedResponse readResponseHead( HttpConnection connection ) throws IOException {
+		val statusLine = connection.readLine();
+		if ( statusLine == null )
+			throw new EOFException( "Connection closed by the server before sending a response" );
+
+		val response = ParsedResponse.fromStatusLine( statusLine );
+		String line;
+		while ( (line = connection.readLine()) != null && !line.isEmpty() )
+			response.addHeader( line );
+		response.endOfHead();
+		return response;
+	}
+
+	static void readChunkedBody( HttpConnection connection, ParsedResponse response ) throws IOException {
+		val pool = ResponseBufferPool.DEFAULT;
+		response.body = pool.acquire( ResponseBufferPool.MIN_BUFFER_SIZE );
+		while ( true ) {
+			val sizeLine = connection.readLine();
+			if ( sizeLine == null )
+				throw new EOFException( "Connection closed while reading a chunked response" );
+			val extension = sizeLine.indexOf( ';' );
+			val size = Integer.parseInt( (extension < 0 ? sizeLine : sizeLine.substring( 0, extension )).trim(), 16 );
+			if ( size == 0 )
+				break;
+			response.body = pool.grow( response.body, response.bodyLength, response.bodyLength + size );
+			connection.readFully( response.body, response.bodyLength, size );
+			response.bodyLength += size;
+			connection.readLine();
+		}
+
+		// trailers are ignored
+		String line;
+		while ( (line = connection.readLine()) != null && !line.isEmpty() ) {}
+	}
+
+	static void readUntilClosed( HttpConnection connection, ParsedResponse response ) throws IOException {
+		val pool = ResponseBufferPool.DEFAULT;
+		response.body = pool.acquire( ResponseBufferPool.MIN_BUFFER_SIZE );
+		int read;
+		while ( true ) {
+			if ( response.bodyLength == response.body.length )
+				response.body = pool.grow( response.body, response.bodyLength, response.bodyLength + 1 );
+			if ( (read = connection.read( response.body, response.bodyLength, response.body.length - response.bodyLength )) == -1 )
+				break;
+			response.bodyLength += read;
+		}
+	}
+
+	@Override
+	public void close() {
+		pool.close();
+	}
+
+	static class ParsedResponse {
+		final int status;
+		final Map<String, List<String>> headers = new TreeMap<>( String.CASE_INSENSITIVE_ORDER );
+		boolean keepAlive;
+		byte[] body;
+		int bodyLength;
+
+		ParsedResponse( int status ) {
+			this.status = status;
+		}
+
+		static ParsedResponse fromStatusLine( String statusLine ) throws IOException {
+			val tokens = statusLine.split( " ", 3 );
+			if ( tokens.length < 2 || !tokens[0].startsWith( "HTTP/" ) )
+				throw new IOException( "Invalid HTTP status line: " + statusLine );
+
+			try {
+				val response = new ParsedResponse( Integer.parseInt( tokens[1] ) );
+				response.keepAlive = !"HTTP/1.0".equals( tokens[0] );
+				return response;
+			} catch ( NumberFormatException e ) {
+				throw new IOException( "Invalid HTTP status line: " + statusLine, e );
+			}
+		}
+
+		void addHeader( String line ) {
+			val separator = line.indexOf( ':' );
+			if ( separator <= 0 ) return;
+			val name = line.substring( 0, separator ).trim();
+			val value = line.substring( separator + 1 ).trim();
+			headers.computeIfAbsent( name, k -> new ArrayList<>( 1 ) ).add( value );
+		}
+
+		/**
+		 * Decides whether the connection can be kept once every header is known.
+		 */
+		void endOfHead() {
+			val connectionHeader = header( "Connection" );
+			if ( "close".equalsIgnoreCase( connectionHeader ) )
+				keepAlive = false;
+			else if ( "keep-alive".equalsIgnoreCase( connectionHeader ) )
+				keepAlive = true;
+		}
+
+		boolean hasBody( String method ) {
+			return !Methods.HEAD.equals( method ) && status != 204 && status != 304;
+		}
+
+		String header( String name ) {
+			val values = headers.get( name );
+			return values == null || values.isEmpty() ? null : values.get( 0 );
+		}
+
+		long contentLength() {
+			val value = header( "Content-Length" );
+			return value == null ? -1 : Long.parseLong( value );
+		}
+
+		boolean isChunked() {
+			val value = header( "Transfer-Encoding" );
+			return value != null && value.toLowerCase().contains( "chunked" );
+		}
+
+		HttpResponse toHttpResponse() {
+			return new HttpResponse( status, headers, body, bodyLength, ResponseBufferPool.DEFAULT );
+		}
+	}
+
+	/**
+	 * Reads the body of a response straight from its connection, following the
+	 * framing announced by the response head (content length, chunked encoding or
+	 * end of connection).
+	 */
+	class BodyInputStream extends InputStream {
+
+		final HttpConnection connection;
+		final boolean chunked;
+		final boolean untilClosed;
+		boolean keepAlive;
+		long remaining;
+		boolean firstChunk = true;
+		boolean released;
+
+		BodyInputStream( HttpConnection connection, ParsedResponse response, String method ) {
+			this.connection = connection;
+			this.keepAlive = response.keepAlive;
+			val hasBody = response.hasBody( method );
+			this.chunked = hasBody && response.isChunked();
+			this.untilClosed = hasBody && !chunked && response.contentLength() < 0;
+			this.remaining = !hasBody || chunked ? 0 : untilClosed ? Long.MAX_VALUE : response.contentLength();
+			if ( untilClosed )
+				keepAlive = false;
+			if ( !hasBody || (!chunked && remaining == 0) )
+				release( keepAlive );
+		}
+
+		@Override
+		public int read() throws IOException {
+			val single = new byte[1];
+			return read( single, 0, 1 ) == -1 ? -1 : single[0] & 0xFF;
+		}
+
+		@Override
+		public int read( byte[] buffer, int offset, int length ) throws IOException {
+			if ( released )
+				return -1;
+			if ( length == 0 )
+				return 0;
+			try {
+				if ( remaining == 0 && (!chunked || !nextChunk()) )
+					return -1;
+				val read = connection.read( buffer, offset, (int) Math.min( length, remaining ) );
+				if ( read == -1 ) {
+					release( false );
+					if ( untilClosed )
+						return -1;
+					throw new EOFException( "Connection closed before the end of the response body" );
+				}
+				remaining -= read;
+				if ( remaining == 0 && !chunked )
+					release( keepAlive );
+				return read;
+			} catch ( IOException | RuntimeException e ) {
+				release( false );
+				throw e;
+			}
+		}
+
+		/**
+		 * @return {@code false} once the last chunk was read.
+		 */
+		private boolean nextChunk() throws IOException {
+			if ( !firstChunk )
+				connection.readLine();
+			firstChunk = false;
+
+			val sizeLine = connection.readLine();
+			if ( sizeLine == null )
+				throw new EOFException( "Connection closed while reading a chunked response" );
+			val extension = sizeLine.indexOf( ';' );
+			remaining = Long.parseLong( (extension < 0 ? sizeLine : sizeLine.substring( 0, extension )).trim(), 16 );
+			if ( remaining > 0 )
+				return true;
+
+			// trailers are ignored
+			String line;
+			while ( (line = connection.readLine()) != null && !line.isEmpty() ) {}
+			release( keepAlive );
+			return false;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return released ? 0 : (int) Math.min( remaining, connection.available() );
+		}
+
+		/**
+		 * Discards the connection, unless the body was already fully read.
+		 */
+		@Override
+		public void close() {
+			release( false );
+		}
+
+		private void release( boolean reusable ) {
+			if ( released )
+				return;
+			released = true;
+			pool.release( connection, reusable );
+		}
+	}
+
+	static class StaleConnectionException extends IOException {
+		StaleConnectionException( IOException cause ) {
+			super( cause.getMessage(), cause );
+		}
+	}
+}
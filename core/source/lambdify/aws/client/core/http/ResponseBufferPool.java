@@ -0,0 +1,142 @@
+package lambdify.aws.client.core.http;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import lambdify.aws.client.core.http.HttpUtils.HttpResponse;
+import lombok.val;
+
+/**
+ * Bounded pool of the byte arrays response bodies are read into. Arrays are
+ * grouped in power-of-two size classes, from {@link #MIN_BUFFER_SIZE} up to
+ * {@link #MAX_BUFFER_SIZE}, and each class keeps at most {@code maxPooledBytesPerSize}
+ * bytes of idle arrays, thus the memory held by the pool is bounded. Larger bodies
+ * are read into non-pooled arrays.
+ *
+ * Arrays get back to the pool through {@link HttpResponse#release()}, which the
+ * clients call once the response was deserialized.
+ */
+public class ResponseBufferPool {
+
+	public static final int MIN_BUFFER_SIZE = 4 * 1024;
+	public static final int MAX_BUFFER_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * Pool shared by every transport.
+	 */
+	public static final ResponseBufferPool DEFAULT = new ResponseBufferPool( 4 * 1024 * 1024 );
+
+	private static final int READ_CHUNK_SIZE = 64 * 1024;
+
+	private final SizeClass[] sizeClasses;
+
+	public ResponseBufferPool( int maxPooledBytesPerSize ) {
+		val amount = Integer.numberOfTrailingZeros( MAX_BUFFER_SIZE / MIN_BUFFER_SIZE ) + 1;
+		sizeClasses = new SizeClass[ amount ];
+		for ( int i = 0; i < amount; i++ ) {
+			val size = MIN_BUFFER_SIZE << i;
+			sizeClasses[i] = new SizeClass( size, Math.max( 1, maxPooledBytesPerSize / size ) );
+		}
+	}
+
+	/**
+	 * @param minCapacity
+	 * @return an array that can hold at least {@code minCapacity} bytes.
+	 */
+	public byte[] acquire( int minCapacity ) {
+		val sizeClass = sizeClassOf( minCapacity );
+		if ( sizeClass == null )
+			return new byte[ minCapacity ];
+		val buffer = sizeClass.buffers.poll();
+		if ( buffer == null )
+			return new byte[ sizeClass.size ];
+		sizeClass.pooled.decrementAndGet();
+		return buffer;
+	}
+
+	/**
+	 * Gives the array back to the pool. It should not be used afterwards.
+	 */
+	public void release( byte[] buffer ) {
+		if ( buffer == null || Integer.bitCount( buffer.length ) != 1 )
+			return;
+		val sizeClass = sizeClassOf( buffer.length );
+		if ( sizeClass == null || sizeClass.size != buffer.length )
+			return;
+		if ( sizeClass.pooled.incrementAndGet() <= sizeClass.maxPooled )
+			sizeClass.buffers.offer( buffer );
+		else
+			sizeClass.pooled.decrementAndGet();
+	}
+
+	/**
+	 * Replaces the array by a bigger one, keeping its first {@code used} bytes.
+	 */
+	public byte[] grow( byte[] buffer, int used, int minCapacity ) {
+		if ( buffer.length >= minCapacity )
+			return buffer;
+		val bigger = acquire( (int) Math.min( Integer.MAX_VALUE - 8, Math.max( minCapacity, (long) buffer.length * 2 ) ) );
+		System.arraycopy( buffer, 0, bigger, 0, used );
+		release( buffer );
+		return bigger;
+	}
+
+	/**
+	 * Reads the whole stream into a pooled array. When the content length is
+	 * known, the array is presized after it and filled without any extra copy.
+	 *
+	 * @param status
+	 * @param headers
+	 * @param input
+	 * @param contentLength the expected amount of bytes, or a negative number if unknown.
+	 * @return
+	 * @throws IOException
+	 */
+	public HttpResponse readResponse( int status, Map<String, List<String>> headers, InputStream input, long contentLength ) throws IOException {
+		if ( contentLength > Integer.MAX_VALUE - 8 )
+			throw new IOException( "Response is too large to be read into memory: " + contentLength + " bytes" );
+
+		byte[] buffer = acquire( contentLength >= 0 ? Math.max( 1, (int) contentLength ) : MIN_BUFFER_SIZE );
+		int length = 0;
+		try {
+			while ( true ) {
+				if ( length == buffer.length ) {
+					// the buffer is full: only grow it if there is more to read
+					val next = input.read();
+					if ( next == -1 )
+						break;
+					buffer = grow( buffer, length, length + READ_CHUNK_SIZE );
+					buffer[length++] = (byte) next;
+				}
+				int read = input.read( buffer, length, Math.min( buffer.length - length, READ_CHUNK_SIZE ) );
+				if ( read == -1 )
+					break;
+				length += read;
+			}
+		} catch ( IOException | RuntimeException e ) {
+			release( buffer );
+			throw e;
+		}
+		return new HttpResponse( status, headers, buffer, length, this );
+	}
+
+	private SizeClass sizeClassOf( int capacity ) {
+		if ( capacity > MAX_BUFFER_SIZE )
+			return null;
+		val size = Math.max( MIN_BUFFER_SIZE, Integer.highestOneBit( Math.max( 1, capacity - 1 ) ) << 1 );
+		return sizeClasses[ Integer.numberOfTrailingZeros( size / MIN_BUFFER_SIZE ) ];
+	}
+
+	private static class SizeClass {
+		final int size;
+		final int maxPooled;
+		final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+		final AtomicInteger pooled = new AtomicInteger();
+
+		SizeClass( int size, int maxPooled ) {
+			this.size = size;
+			this.maxPooled = maxPooled;
+		}
+	}
+}
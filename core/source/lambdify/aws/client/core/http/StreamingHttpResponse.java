@@ -0,0 +1,45 @@
+package lambdify.aws.client.core.http;
+
+import java.io.*;
+import java.util.*;
+import lambdify.aws.client.core.http.HttpUtils.HttpResponse;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * A response whose body is read straight from the connection, as the caller
+ * consumes it. The connection is held until the body is fully read or closed:
+ * fully read bodies give the connection back for reuse, while bodies closed
+ * early discard it. Thus the body should always be closed.
+ */
+@Value @Accessors(fluent = true)
+public class StreamingHttpResponse implements Closeable {
+
+	int status;
+	Map<String, List<String>> headers;
+	InputStream body;
+
+	public Map<String, String> flatHeaders(){
+		val flat = new TreeMap<String, String>( String.CASE_INSENSITIVE_ORDER );
+		headers.forEach( (k,v) -> { if ( k != null ) flat.put( k, v.get( 0 ) ); } );
+		return flat;
+	}
+
+	/**
+	 * Reads the whole body, closing it. Meant for small bodies, like error messages.
+	 *
+	 * @return
+	 */
+	public HttpResponse readFully() {
+		try ( val input = body ) {
+			return new HttpResponse( status, headers, HttpUtils.readBytes( input ) );
+		} catch ( IOException e ) {
+			throw new HttpException( "Could not read the response. " + e.getMessage(), e );
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		body.close();
+	}
+}
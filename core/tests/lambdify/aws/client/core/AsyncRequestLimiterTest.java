@@ -0,0 +1,48 @@
+package lambdify.aws.client.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ *
+ */
+class AsyncRequestLimiterTest {
+
+	@DisplayName( "Will queue requests once the in flight limit is reached" )
+	@Test void submit() {
+		val limiter = new AsyncRequestLimiter( 2 );
+		val started = new ArrayList<CompletableFuture<Integer>>();
+		val results = new ArrayList<CompletableFuture<Integer>>();
+		for ( int i = 0; i < 5; i++ )
+			results.add( limiter.submit( () -> {
+				val request = new CompletableFuture<Integer>();
+				started.add( request );
+				return request;
+			}) );
+
+		assertEquals( 2, started.size() );
+		assertEquals( 2, limiter.inFlightRequests() );
+
+		started.get( 0 ).complete( 0 );
+		assertEquals( 3, started.size() );
+		assertEquals( Integer.valueOf( 0 ), results.get( 0 ).join() );
+
+		for ( int i = 1; i < 5; i++ )
+			started.get( i ).complete( i );
+		assertEquals( 5, started.size() );
+		assertEquals( 0, limiter.inFlightRequests() );
+		assertEquals( Integer.valueOf( 4 ), results.get( 4 ).join() );
+	}
+
+	@DisplayName( "Will release the slot of requests that failed to start" )
+	@Test void submit1() {
+		val limiter = new AsyncRequestLimiter( 1 );
+		val failure = limiter.<Integer>submit( () -> { throw new IllegalStateException( "failed" ); } );
+		assertTrue( failure.isCompletedExceptionally() );
+		assertEquals( 0, limiter.inFlightRequests() );
+		assertEquals( Integer.valueOf( 1 ), limiter.submit( () -> CompletableFuture.completedFuture( 1 ) ).join() );
+	}
+}
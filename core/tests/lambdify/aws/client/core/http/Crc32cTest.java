@@ -0,0 +1,42 @@
+package lambdify.aws.client.core.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ *
+ */
+class Crc32cTest {
+
+	@DisplayName( "Can compute the CRC32C check value" )
+	@Test void getValue(){
+		val checksum = new Crc32c();
+		checksum.update( "123456789".getBytes( StandardCharsets.US_ASCII ) );
+		assertEquals( 0xE3069283L, checksum.getValue() );
+		assertEquals( "4waSgw==", checksum.toBase64() );
+	}
+
+	@DisplayName( "Will compute the same checksum regardless of how the data is split" )
+	@Test void update(){
+		val data = new byte[ 10_000 ];
+		new Random( 7 ).nextBytes( data );
+
+		val bytewise = new Crc32c();
+		for ( val b : data ) bytewise.update( b );
+
+		val whole = new Crc32c();
+		whole.update( data );
+
+		val direct = ByteBuffer.allocateDirect( data.length ).put( data );
+		direct.flip();
+		val buffered = new Crc32c();
+		buffered.update( direct );
+
+		assertEquals( bytewise.getValue(), whole.getValue() );
+		assertEquals( bytewise.getValue(), buffered.getValue() );
+	}
+}
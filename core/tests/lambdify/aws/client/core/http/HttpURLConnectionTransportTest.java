@@ -0,0 +1,71 @@
+package lambdify.aws.client.core.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import com.sun.net.httpserver.HttpServer;
+import lambdify.aws.client.core.http.HttpUtils.HttpRequest;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ *
+ */
+class HttpURLConnectionTransportTest {
+
+	HttpServer server;
+	String endpoint;
+
+	@BeforeEach void startServer() throws IOException {
+		server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+		server.createContext( "/echo", exchange -> {
+			val body = HttpUtils.readBytes( exchange.getRequestBody() );
+			exchange.getResponseHeaders().add( "x-method", exchange.getRequestMethod() );
+			exchange.sendResponseHeaders( 200, body.length == 0 ? -1 : body.length );
+			if ( body.length > 0 )
+				exchange.getResponseBody().write( body );
+			exchange.close();
+		});
+		server.start();
+		endpoint = "http://127.0.0.1:" + server.getAddress().getPort() + "/echo";
+	}
+
+	@AfterEach void stopServer(){
+		server.stop( 0 );
+	}
+
+	@DisplayName( "Can send requests with a byte array body" )
+	@Test void send(){
+		val response = new HttpURLConnectionTransport().send(
+			HttpRequest.create( "POST", endpoint ).body( "hello" ) );
+		assertEquals( 200, response.status() );
+		assertEquals( "hello", response.responseAsString() );
+		assertEquals( "POST", response.flatHeaders().get( "X-method" ) );
+	}
+
+	@DisplayName( "Can send requests with a streamed body" )
+	@Test void send1(){
+		val content = "streamed".getBytes( StandardCharsets.UTF_8 );
+		val response = new HttpURLConnectionTransport().send(
+			HttpRequest.create( "PUT", endpoint ).body( output -> output.write( content ), content.length ) );
+		assertEquals( "streamed", response.responseAsString() );
+	}
+
+	@DisplayName( "Can send requests without body" )
+	@Test void send2(){
+		val response = new HttpURLConnectionTransport().send( HttpRequest.create( "GET", endpoint ) );
+		assertEquals( 200, response.status() );
+		assertEquals( "GET", response.flatHeaders().get( "X-method" ) );
+		assertEquals( 0, response.response().length );
+	}
+
+	@DisplayName( "Can stream the response body" )
+	@Test void stream() throws IOException {
+		try ( val response = new HttpURLConnectionTransport().stream( HttpRequest.create( "POST", endpoint ).body( "streamed" ) ) ) {
+			assertEquals( 200, response.status() );
+			assertEquals( "POST", response.flatHeaders().get( "X-method" ) );
+			assertEquals( "streamed", new String( HttpUtils.readBytes( response.body() ), StandardCharsets.UTF_8 ) );
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package lambdify.aws.client.core.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.sun.net.httpserver.HttpServer;
+import lambdify.aws.client.core.http.HttpUtils.*;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ *
+ */
+class NioHttpTransportTest {
+
+	HttpServer server;
+	String endpoint;
+	final Set<InetSocketAddress> clientAddresses = ConcurrentHashMap.newKeySet();
+	final NioHttpTransport transport = new NioHttpTransport().selectorThreads( 1 );
+
+	@BeforeEach void startServer() throws IOException {
+		server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+		server.setExecutor( Executors.newFixedThreadPool( 8 ) );
+		server.createContext( "/echo", exchange -> {
+			clientAddresses.add( exchange.getRemoteAddress() );
+			val body = HttpUtils.readBytes( exchange.getRequestBody() );
+			exchange.getResponseHeaders().add( "x-method", exchange.getRequestMethod() );
+			exchange.sendResponseHeaders( 200, body.length == 0 ? -1 : body.length );
+			if ( body.length > 0 )
+				exchange.getResponseBody().write( body );
+			exchange.close();
+		});
+		server.createContext( "/chunked", exchange -> {
+			exchange.sendResponseHeaders( 200, 0 );
+			try ( val output = exchange.getResponseBody() ) {
+				for ( int i = 0; i < 3; i++ )
+					output.write( ("part" + i + ";").getBytes( StandardCharsets.UTF_8 ) );
+			}
+		});
+		server.createContext( "/close", exchange -> {
+			clientAddresses.add( exchange.getRemoteAddress() );
+			exchange.getResponseHeaders().add( "Connection", "close" );
+			exchange.sendResponseHeaders( 200, 2 );
+			exchange.getResponseBody().write( "ok".getBytes( StandardCharsets.UTF_8 ) );
+			exchange.close();
+		});
+		server.start();
+		endpoint = "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	@AfterEach void stopServer(){
+		transport.close();
+		server.stop( 0 );
+		((ExecutorService) server.getExecutor()).shutdownNow();
+	}
+
+	@DisplayName( "Will reuse the same connection for sequential requests" )
+	@Test void send(){
+		for ( int i = 0; i < 10; i++ ) {
+			val response = transport.send( HttpRequest.create( "POST", endpoint + "/echo" ).body( "hello " + i ) );
+			assertEquals( 200, response.status() );
+			assertEquals( "hello " + i, response.responseAsString() );
+			assertEquals( "POST", response.headers().get( "x-method" ).get( 0 ) );
+		}
+		assertEquals( 1, clientAddresses.size() );
+	}
+
+	@DisplayName( "Can read chunked responses, responses without body and large bodies" )
+	@Test void send1(){
+		val chunked = transport.send( HttpRequest.create( "GET", endpoint + "/chunked" ) );
+		assertEquals( "part0;part1;part2;", chunked.responseAsString() );
+
+		val head = transport.send( HttpRequest.create( "HEAD", endpoint + "/echo" ) );
+		assertEquals( 200, head.status() );
+		assertEquals( 0, head.response().length );
+
+		val large = new byte[ 1024 * 1024 ];
+		new Random( 42 ).nextBytes( large );
+		val echo = transport.send( HttpRequest.create( "PUT", endpoint + "/echo" ).body( large ) );
+		assertArrayEquals( large, echo.response() );
+	}
+
+	@DisplayName( "Will open a new connection when the server closes the previous one" )
+	@Test void send2(){
+		for ( int i = 0; i < 3; i++ )
+			assertEquals( "ok", transport.send( HttpRequest.create( "GET", endpoint + "/close" ) ).responseAsString() );
+		assertEquals( 3, clientAddresses.size() );
+	}
+
+	@DisplayName( "Will not open more connections per host than allowed" )
+	@Test void sendAsync(){
+		transport.maxConnectionsPerHost( 2 );
+		val futures = new ArrayList<CompletableFuture<HttpResponse>>();
+		for ( int i = 0; i < 200; i++ )
+			futures.add( transport.sendAsync( HttpRequest.create( "POST", endpoint + "/echo" ).body( "request " + i ), ForkJoinPool.commonPool() ) );
+		for ( int i = 0; i < 200; i++ )
+			assertEquals( "request " + i, futures.get( i ).join().responseAsString() );
+		assertTrue( clientAddresses.size() <= 2 );
+	}
+
+	@DisplayName( "Can pipeline requests through the same connection" )
+	@Test void sendAsync1(){
+		transport.maxConnectionsPerHost( 1 ).maxPipelinedRequests( 8 );
+		val futures = new ArrayList<CompletableFuture<HttpResponse>>();
+		for ( int i = 0; i < 50; i++ )
+			futures.add( transport.sendAsync( HttpRequest.create( "POST", endpoint + "/echo" ).body( "request " + i ), Runnable::run ) );
+		for ( int i = 0; i < 50; i++ )
+			assertEquals( "request " + i, futures.get( i ).join().responseAsString() );
+		assertEquals( 1, clientAddresses.size() );
+	}
+
+	@DisplayName( "Will not send pipelined non-idempotent requests again when their connection is lost" )
+	@Test void sendAsync2() throws Exception {
+		val received = new AtomicInteger();
+		try ( val dropping = new ServerSocket( 0, 50, InetAddress.getByName( "127.0.0.1" ) ) ) {
+			// answers a first GET, then reads two POSTs and closes the connection without answering them
+			val acceptor = new Thread( () -> {
+				while ( !dropping.isClosed() )
+					try ( val socket = dropping.accept() ) {
+						socket.setSoTimeout( 2000 );
+						val input = new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.US_ASCII ) );
+						int posts = 0;
+						boolean get = false;
+						String line;
+						while ( posts < 2 && (line = input.readLine()) != null ) {
+							if ( line.startsWith( "GET " ) )
+								get = true;
+							else if ( line.isEmpty() && get ) {
+								get = false;
+								socket.getOutputStream().write( "HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n".getBytes( StandardCharsets.US_ASCII ) );
+							} else if ( line.contains( "POST /" ) ) {
+								posts++;
+								received.incrementAndGet();
+							}
+						}
+					} catch ( IOException e ) {
+						// closed, or timed out waiting for requests
+					}
+			});
+			acceptor.setDaemon( true );
+			acceptor.start();
+
+			transport.maxConnectionsPerHost( 1 ).maxPipelinedRequests( 2 );
+			val url = "http://127.0.0.1:" + dropping.getLocalPort() + "/update";
+			assertEquals( 200, transport.send( HttpRequest.create( "GET", url ) ).status() );
+			val first = transport.sendAsync( HttpRequest.create( "POST", url ).body( "ADD counter 1" ), Runnable::run );
+			val second = transport.sendAsync( HttpRequest.create( "POST", url ).body( "ADD counter 2" ), Runnable::run );
+
+			assertThrows( CompletionException.class, first::join );
+			assertThrows( CompletionException.class, second::join );
+			assertEquals( 2, received.get() );
+		}
+	}
+
+	@DisplayName( "Will fail pending requests with the failure that stopped the selector thread" )
+	@Test void sendAsync3() throws Exception {
+		val arrived = new CountDownLatch( 1 );
+		val release = new CountDownLatch( 1 );
+		server.createContext( "/slow", exchange -> {
+			arrived.countDown();
+			try {
+				release.await( 5, TimeUnit.SECONDS );
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders( 200, -1 );
+			exchange.close();
+		});
+		try {
+			val response = transport.sendAsync( HttpRequest.create( "GET", endpoint + "/slow" ), Runnable::run );
+			assertTrue( arrived.await( 5, TimeUnit.SECONDS ) );
+			transport.nextEventLoop().execute( () -> { throw new IllegalStateException( "broken selector" ); } );
+
+			val failure = assertThrows( CompletionException.class, response::join );
+			Throwable cause = failure;
+			while ( cause.getCause() != null )
+				cause = cause.getCause();
+			assertEquals( "broken selector", cause.getMessage() );
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@DisplayName( "Will fail requests to hosts that refuse connections" )
+	@Test void send3(){
+		server.stop( 0 );
+		assertThrows( HttpException.class, () -> transport.send( HttpRequest.create( "GET", endpoint + "/echo" ) ) );
+	}
+}
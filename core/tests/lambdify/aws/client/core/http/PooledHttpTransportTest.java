@@ -0,0 +1,148 @@
+package lambdify.aws.client.core.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import com.sun.net.httpserver.HttpServer;
+import lambdify.aws.client.core.http.HttpUtils.HttpRequest;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ *
+ */
+class PooledHttpTransportTest {
+
+	HttpServer server;
+	String endpoint;
+	final Set<InetSocketAddress> clientAddresses = ConcurrentHashMap.newKeySet();
+	final PooledHttpTransport transport = new PooledHttpTransport();
+
+	@BeforeEach void startServer() throws IOException {
+		server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+		server.setExecutor( Executors.newFixedThreadPool( 8 ) );
+		server.createContext( "/echo", exchange -> {
+			clientAddresses.add( exchange.getRemoteAddress() );
+			val body = HttpUtils.readBytes( exchange.getRequestBody() );
+			exchange.getResponseHeaders().add( "x-method", exchange.getRequestMethod() );
+			exchange.sendResponseHeaders( 200, body.length == 0 ? -1 : body.length );
+			if ( body.length > 0 )
+				exchange.getResponseBody().write( body );
+			exchange.close();
+		});
+		server.createContext( "/chunked", exchange -> {
+			exchange.sendResponseHeaders( 200, 0 );
+			try ( val output = exchange.getResponseBody() ) {
+				for ( int i = 0; i < 3; i++ )
+					output.write( ("part" + i + ";").getBytes( StandardCharsets.UTF_8 ) );
+			}
+		});
+		server.start();
+		endpoint = "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	@AfterEach void stopServer(){
+		transport.close();
+		server.stop( 0 );
+		((ExecutorService) server.getExecutor()).shutdownNow();
+	}
+
+	@DisplayName( "Will reuse the same connection for sequential requests" )
+	@Test void send(){
+		for ( int i = 0; i < 10; i++ ) {
+			val response = transport.send( HttpRequest.create( "POST", endpoint + "/echo" ).body( "hello " + i ) );
+			assertEquals( 200, response.status() );
+			assertEquals( "hello " + i, response.responseAsString() );
+		}
+		assertEquals( 1, clientAddresses.size() );
+	}
+
+	@DisplayName( "Can send streamed bodies of unknown length and read chunked responses" )
+	@Test void send1(){
+		val content = "streamed".getBytes( StandardCharsets.UTF_8 );
+		val echo = transport.send( HttpRequest.create( "PUT", endpoint + "/echo" ).bodyWriter( output -> output.write( content ) ) );
+		assertEquals( "streamed", echo.responseAsString() );
+
+		val chunked = transport.send( HttpRequest.create( "GET", endpoint + "/chunked" ) );
+		assertEquals( "part0;part1;part2;", chunked.responseAsString() );
+	}
+
+	@DisplayName( "Will not open more connections per host than allowed" )
+	@Test void send2() throws Exception {
+		transport.pool().maxConnectionsPerHost( 2 );
+		val executor = Executors.newFixedThreadPool( 8 );
+		try {
+			val futures = new ArrayList<Future<String>>();
+			for ( int i = 0; i < 50; i++ ) {
+				val body = "request " + i;
+				futures.add( executor.submit( () -> transport.send( HttpRequest.create( "POST", endpoint + "/echo" ).body( body ) ).responseAsString() ) );
+			}
+			for ( int i = 0; i < 50; i++ )
+				assertEquals( "request " + i, futures.get( i ).get() );
+		} finally {
+			executor.shutdown();
+		}
+		assertTrue( clientAddresses.size() <= 2 );
+	}
+
+	@DisplayName( "Will give the connection back once streamed bodies are fully read, discarding it when closed early" )
+	@Test void stream() throws IOException {
+		try ( val chunked = transport.stream( HttpRequest.create( "GET", endpoint + "/chunked" ) ) ) {
+			assertEquals( 200, chunked.status() );
+			val body = chunked.body();
+			val first = new byte[4];
+			assertEquals( 4, body.read( first ) );
+			assertEquals( "part", new String( first, StandardCharsets.UTF_8 ) );
+			assertEquals( "0;part1;part2;", new String( HttpUtils.readBytes( body ), StandardCharsets.UTF_8 ) );
+			assertEquals( -1, body.read() );
+		}
+
+		try ( val echo = transport.stream( HttpRequest.create( "POST", endpoint + "/echo" ).body( "hello" ) ) ) {
+			assertEquals( "hello", new String( HttpUtils.readBytes( echo.body() ), StandardCharsets.UTF_8 ) );
+		}
+		assertEquals( 1, clientAddresses.size() );
+
+		try ( val echo = transport.stream( HttpRequest.create( "POST", endpoint + "/echo" ).body( "not read" ) ) ) {
+			assertEquals( 'n', echo.body().read() );
+		}
+		assertEquals( "again", transport.send( HttpRequest.create( "POST", endpoint + "/echo" ).body( "again" ) ).responseAsString() );
+		assertEquals( 2, clientAddresses.size() );
+	}
+
+	@DisplayName( "Will only resend idempotent requests already written to a connection closed by the server" )
+	@Test void send3() throws Exception {
+		val received = Collections.synchronizedList( new ArrayList<String>() );
+		try ( val dropping = new ServerSocket( 0, 50, InetAddress.getByName( "127.0.0.1" ) ) ) {
+			// answers the first request of every connection, then closes it on the next one
+			val acceptor = new Thread( () -> {
+				while ( !dropping.isClosed() )
+					try ( val socket = dropping.accept() ) {
+						socket.setSoTimeout( 2000 );
+						val input = new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.US_ASCII ) );
+						for ( int request = 0; request < 2; request++ ) {
+							String line = input.readLine();
+							received.add( line );
+							while ( line != null && !line.isEmpty() )
+								line = input.readLine();
+							if ( request == 0 )
+								socket.getOutputStream().write( "HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n".getBytes( StandardCharsets.US_ASCII ) );
+						}
+					} catch ( IOException e ) {
+						// closed, or timed out waiting for requests
+					}
+			});
+			acceptor.setDaemon( true );
+			acceptor.start();
+
+			val url = "http://127.0.0.1:" + dropping.getLocalPort() + "/update";
+			assertEquals( 200, transport.send( HttpRequest.create( "GET", url ) ).status() );
+			assertEquals( 200, transport.send( HttpRequest.create( "GET", url ) ).status() );
+			assertThrows( HttpException.class, () -> transport.send( HttpRequest.create( "POST", url ).body( "ADD counter 1" ) ) );
+
+			assertEquals( 1, received.stream().filter( line -> line != null && line.startsWith( "POST " ) ).count() );
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package lambdify.aws.client.core.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.*;
+import java.util.*;
+import lambdify.aws.client.core.http.HttpUtils.HttpResponse;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ *
+ */
+class ResponseBufferPoolTest {
+
+	final ResponseBufferPool pool = new ResponseBufferPool( 16 * 1024 );
+
+	@DisplayName( "Will hand out power-of-two sized arrays and reuse released ones" )
+	@Test void acquire() {
+		val buffer = pool.acquire( 5000 );
+		assertEquals( 8 * 1024, buffer.length );
+		pool.release( buffer );
+		assertSame( buffer, pool.acquire( 6000 ) );
+		assertEquals( ResponseBufferPool.MIN_BUFFER_SIZE, pool.acquire( 1 ).length );
+	}
+
+	@DisplayName( "Will not keep more idle arrays than allowed" )
+	@Test void release() {
+		val buffers = new ArrayList<byte[]>();
+		for ( int i = 0; i < 3; i++ )
+			buffers.add( pool.acquire( 8 * 1024 ) );
+		buffers.forEach( pool::release );
+
+		val reused = new ArrayList<byte[]>();
+		for ( int i = 0; i < 3; i++ )
+			reused.add( pool.acquire( 8 * 1024 ) );
+		assertSame( buffers.get( 0 ), reused.get( 0 ) );
+		assertSame( buffers.get( 1 ), reused.get( 1 ) );
+		assertNotSame( buffers.get( 2 ), reused.get( 2 ) );
+	}
+
+	@DisplayName( "Will read the body into a presized array when the content length is known" )
+	@Test void readResponse() throws IOException {
+		val body = new byte[ 10_000 ];
+		new Random( 1 ).nextBytes( body );
+
+		val response = pool.readResponse( 200, Collections.emptyMap(), new ByteArrayInputStream( body ), body.length );
+		assertEquals( 16 * 1024, response.buffer().length );
+		assertEquals( body.length, response.length() );
+		assertArrayEquals( body, response.response() );
+
+		val buffer = response.buffer();
+		response.release();
+		assertSame( buffer, pool.acquire( 10_000 ) );
+	}
+
+	@DisplayName( "Will give the array back to the pool only once" )
+	@Test void release1() throws IOException {
+		val response = pool.readResponse( 200, Collections.emptyMap(), new ByteArrayInputStream( new byte[ 100 ] ), 100 );
+		val buffer = response.buffer();
+		response.release();
+		response.release();
+
+		assertNull( response.buffer() );
+		assertSame( buffer, pool.acquire( 100 ) );
+		assertNotSame( buffer, pool.acquire( 100 ) );
+	}
+
+	@DisplayName( "Will copy bodies held by pooled arrays, even when they fill the array" )
+	@Test void response() {
+		val array = new byte[]{ 1, 2, 3 };
+		val pooled = new HttpResponse( 200, Collections.emptyMap(), array, array.length, pool );
+		val body = pooled.response();
+		pooled.release();
+
+		assertNotSame( array, body );
+		assertArrayEquals( new byte[]{ 1, 2, 3 }, body );
+		assertSame( array, new HttpResponse( 200, Collections.emptyMap(), array ).response() );
+	}
+
+	@DisplayName( "Will grow the array when the content length is unknown" )
+	@Test void readResponse1() throws IOException {
+		val body = new byte[ 100_000 ];
+		new Random( 2 ).nextBytes( body );
+
+		val response = pool.readResponse( 200, Collections.emptyMap(), new ByteArrayInputStream( body ), -1 );
+		assertEquals( body.length, response.length() );
+		assertArrayEquals( body, response.response() );
+	}
+}
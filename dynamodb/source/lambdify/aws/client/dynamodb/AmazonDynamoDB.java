@@ -1,10 +1,14 @@
 package lambdify.aws.client.dynamodb;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.*;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lambdify.aws.client.core.*;
 import lambdify.aws.client.core.http.*;
 import lambdify.aws.client.core.http.HttpUtils.*;
 import lambdify.aws.client.dynamodb.model.*;
+import lambdify.aws.events.dynamodb.AttributeValue;
 import lombok.*;
 import lombok.experimental.*;
 
@@ -21,7 +25,11 @@ public class AmazonDynamoDB extends AmazonClient {
 			OPERATION_DELETE_ITEM = "DynamoDB_20120810.DeleteItem",
 			OPERATION_UPDATE_ITEM = "DynamoDB_20120810.UpdateItem",
 			OPERATION_QUERY = "DynamoDB_20120810.Query",
-			OPERATION_SCAN = "DynamoDB_20120810.Scan"
+			OPERATION_SCAN = "DynamoDB_20120810.Scan",
+			OPERATION_BATCH_GET_ITEM = "DynamoDB_20120810.BatchGetItem",
+			OPERATION_BATCH_WRITE_ITEM = "DynamoDB_20120810.BatchWriteItem",
+			OPERATION_TRANSACT_WRITE_ITEMS = "DynamoDB_20120810.TransactWriteItems",
+			OPERATION_TRANSACT_GET_ITEMS = "DynamoDB_20120810.TransactGetItems"
 					;
 
 	public AmazonDynamoDB(
@@ -46,39 +54,202 @@ public class AmazonDynamoDB extends AmazonClient {
 		return executeOperation( request, OPERATION_UPDATE_ITEM, UpdateItemResult.class );
 	}
 
+	public UpdateItemResult updateItem( UpdateItemRequest request ) {
+		return executeOperation( request, OPERATION_UPDATE_ITEM, UpdateItemResult.class );
+	}
+
 	public QueryResult query( QueryRequest request ) {
 		return executeOperation( request, OPERATION_QUERY, QueryResult.class );
 	}
 
+	/**
+	 * Lazily retrieves every item matching the query, fetching the next page in
+	 * background while the current one is consumed.
+	 */
+	public Stream<Map<String, AttributeValue>> queryPaginated( QueryRequest request ) {
+		return queryPaginated( request, 1, Long.MAX_VALUE );
+	}
+
+	/**
+	 * Lazily retrieves the items matching the query, keeping up to {@code prefetch}
+	 * pages fetched ahead of the consumer. No more than {@code maxItems} items are
+	 * read, the {@code Limit} of the last pages being reduced accordingly.
+	 */
+	public Stream<Map<String, AttributeValue>> queryPaginated( QueryRequest request, int prefetch, long maxItems ) {
+		return queryPages( request, prefetch, maxItems ).flatMap( page -> page.getItems() != null ? page.getItems().stream() : Stream.empty() );
+	}
+
+	/**
+	 * Same as {@link #queryPaginated(QueryRequest, int, long)}, but hands over whole pages.
+	 * The given request is not modified.
+	 */
+	public Stream<QueryResult> queryPages( QueryRequest request, int prefetch, long maxItems ) {
+		val pageRequest = copyOf( request, QueryRequest.class );
+		val pageLimit = request.getLimit();
+		val pages = new PrefetchingPages<QueryResult>(
+			( startKey, remaining ) -> queryAsync( pageRequest.withExclusiveStartKey( startKey ).withLimit( limit( pageLimit, remaining ) ) ),
+			QueryResult::getLastEvaluatedKey, QueryResult::getCount, request.getExclusiveStartKey(), prefetch, maxItems );
+		return StreamSupport.stream( Spliterators.spliteratorUnknownSize( pages, Spliterator.ORDERED | Spliterator.NONNULL ), false );
+	}
+
 	public ScanResult scan( ScanRequest request ) {
 		return executeOperation( request, OPERATION_SCAN, ScanResult.class );
 	}
 
+	/**
+	 * Retrieves up to 100 items, from one or more tables. Keys DynamoDB could not
+	 * process are handed back as {@link BatchGetItemResult#getUnprocessedKeys()}.
+	 *
+	 * @see DynamoDBBatchGetter
+	 */
+	public BatchGetItemResult batchGetItem( BatchGetItemRequest request ) {
+		return executeOperation( request, OPERATION_BATCH_GET_ITEM, BatchGetItemResult.class );
+	}
+
+	/**
+	 * Puts or deletes up to 25 items, from one or more tables. Operations DynamoDB
+	 * could not perform are handed back as {@link BatchWriteItemResult#getUnprocessedItems()}.
+	 *
+	 * @see DynamoDBBulkWriter
+	 */
+	public BatchWriteItemResult batchWriteItem( BatchWriteItemRequest request ) {
+		return executeOperation( request, OPERATION_BATCH_WRITE_ITEM, BatchWriteItemResult.class );
+	}
+
+	/**
+	 * Performs up to 100 actions, on items of one or more tables, that either all
+	 * succeed or all fail. When the request has no {@code ClientRequestToken}, a
+	 * random one is assigned to it, thus sending the same request object again
+	 * won't perform its actions twice.
+	 *
+	 * @throws TransactionCanceledException when any action failed, telling why each one did.
+	 */
+	public TransactWriteItemsResult transactWriteItems( TransactWriteItemsRequest request ) {
+		return executeOperation( withClientRequestToken( request ), OPERATION_TRANSACT_WRITE_ITEMS, TransactWriteItemsResult.class );
+	}
+
+	/**
+	 * Retrieves up to 100 items, from one or more tables, as a consistent snapshot.
+	 *
+	 * @throws TransactionCanceledException when the items could not be read together.
+	 */
+	public TransactGetItemsResult transactGetItems( TransactGetItemsRequest request ) {
+		return executeOperation( request, OPERATION_TRANSACT_GET_ITEMS, TransactGetItemsResult.class );
+	}
+
+	public CompletableFuture<PutItemResult> putItemAsync( PutItemRequest request ) {
+		return executeOperationAsync( request, OPERATION_PUT_ITEM, PutItemResult.class );
+	}
+
+	public CompletableFuture<GetItemResult> getItemAsync( GetItemRequest request ) {
+		return executeOperationAsync( request, OPERATION_GET_ITEM, GetItemResult.class );
+	}
+
+	public CompletableFuture<DeleteItemResult> deleteItemAsync( DeleteItemRequest request ) {
+		return executeOperationAsync( request, OPERATION_DELETE_ITEM, DeleteItemResult.class );
+	}
+
+	public CompletableFuture<UpdateItemResult> updateItemAsync( UpdateItemRequest request ) {
+		return executeOperationAsync( request, OPERATION_UPDATE_ITEM, UpdateItemResult.class );
+	}
+
+	public CompletableFuture<QueryResult> queryAsync( QueryRequest request ) {
+		return executeOperationAsync( request, OPERATION_QUERY, QueryResult.class );
+	}
+
+	public CompletableFuture<ScanResult> scanAsync( ScanRequest request ) {
+		return executeOperationAsync( request, OPERATION_SCAN, ScanResult.class );
+	}
+
+	public CompletableFuture<BatchGetItemResult> batchGetItemAsync( BatchGetItemRequest request ) {
+		return executeOperationAsync( request, OPERATION_BATCH_GET_ITEM, BatchGetItemResult.class );
+	}
+
+	public CompletableFuture<BatchWriteItemResult> batchWriteItemAsync( BatchWriteItemRequest request ) {
+		return executeOperationAsync( request, OPERATION_BATCH_WRITE_ITEM, BatchWriteItemResult.class );
+	}
+
+	/**
+	 * Same as {@link #batchWriteItemAsync(BatchWriteItemRequest)}, for a request
+	 * whose JSON body was already serialized.
+	 */
+	CompletableFuture<BatchWriteItemResult> batchWriteItemAsync( byte[] serializedRequest ) {
+		return sendJsonRequestAndParseResponseAsync( BatchWriteItemResult.class, createRequest( serializedRequest, OPERATION_BATCH_WRITE_ITEM ) );
+	}
+
+	public CompletableFuture<TransactWriteItemsResult> transactWriteItemsAsync( TransactWriteItemsRequest request ) {
+		return executeOperationAsync( withClientRequestToken( request ), OPERATION_TRANSACT_WRITE_ITEMS, TransactWriteItemsResult.class );
+	}
+
+	public CompletableFuture<TransactGetItemsResult> transactGetItemsAsync( TransactGetItemsRequest request ) {
+		return executeOperationAsync( request, OPERATION_TRANSACT_GET_ITEMS, TransactGetItemsResult.class );
+	}
+
+	private static TransactWriteItemsRequest withClientRequestToken( TransactWriteItemsRequest request ) {
+		if ( request.getClientRequestToken() == null )
+			request.setClientRequestToken( UUID.randomUUID().toString() );
+		return request;
+	}
+
+	/**
+	 * @return the page size, reduced to the amount of items still wanted.
+	 */
+	static Integer limit( Integer pageLimit, long remainingItems ) {
+		if ( remainingItems >= Integer.MAX_VALUE )
+			return pageLimit;
+		return pageLimit == null ? (int) remainingItems : Math.min( pageLimit, (int) remainingItems );
+	}
+
+	/**
+	 * @return a deep copy of the request, which can be changed page after page.
+	 */
+	<T> T copyOf( T request, Class<T> type ) {
+		return getJsonSerializer().deserialize( getJsonSerializer().serialize( request ), type );
+	}
+
 	private <T> T executeOperation( Object cmd, String operation, Class<T> expectedResultType ){
-		val objectContent = getJsonSerializer().serialize( cmd );
+		return sendJsonRequestAndParseResponse( expectedResultType, createRequest( cmd, operation ) );
+	}
+
+	private <T> CompletableFuture<T> executeOperationAsync( Object cmd, String operation, Class<T> expectedResultType ){
+		return sendJsonRequestAndParseResponseAsync( expectedResultType, createRequest( cmd, operation ) );
+	}
+
+	private HttpRequest createRequest( Object cmd, String operation ){
+		return createRequest( getJsonSerializer().serializeAsBytes( cmd ), operation );
+	}
+
+	private HttpRequest createRequest( byte[] objectContent, String operation ){
 		val headers = HttpUtils.createDefaultAwsHeaders()
 				.put("X-Amz-Target", operation )
-				.put("content-length", String.valueOf( objectContent.length() ))
+				.put("content-length", String.valueOf( objectContent.length ))
 				.build();
 
-		return sendJsonRequestAndParseResponse( expectedResultType, new HttpUtils.HttpRequest()
+		return new HttpUtils.HttpRequest()
 				.endpoint( buildEndpoint() ).method( Methods.POST )
-				.headers( headers ).body( objectContent )
-		);
+				.headers( headers ).body( objectContent );
 	}
 
 	@Override
-	protected <T> T sendJsonRequestAndParseResponse(Class<T> expectedResponseType, HttpRequest httpRequest) {
+	protected <T> T parseJsonResponse(Class<T> expectedResponseType, HttpResponse response) {
 		try {
-			return super.sendJsonRequestAndParseResponse( expectedResponseType, httpRequest );
+			return super.parseJsonResponse( expectedResponseType, response );
 		} catch ( AmazonClientException cause ) {
-			val responseAsString = cause.getResponse().responseAsString();
-			val any = getJsonSerializer().deserialize( responseAsString, Map.class );
-			val type = any.get( "__type" ).toString().replaceFirst( "^.*#", "" );
-			val message = any.containsKey( "Message" )
-					? any.get( "Message" ).toString()
-					: any.get( "message" ).toString();
-			throw new AmazonDynamoDBExecutionFailure( type, message );
+			val errorResponse = cause.getResponse();
+			try {
+				val any = getJsonSerializer().deserialize( errorResponse.buffer(), 0, errorResponse.length(), Map.class );
+				val type = any.get( "__type" ).toString().replaceFirst( "^.*#", "" );
+				val message = any.containsKey( "Message" )
+						? any.get( "Message" ).toString()
+						: any.get( "message" ).toString();
+				if ( TransactionCanceledException.TYPE.equals( type ) ) {
+					val reasons = getJsonSerializer().deserialize( errorResponse.buffer(), 0, errorResponse.length(), CancellationReasons.class );
+					throw new TransactionCanceledException( message, reasons.getCancellationReasons() );
+				}
+				throw new AmazonDynamoDBExecutionFailure( type, message );
+			} finally {
+				errorResponse.release();
+			}
 		}
 	}
 
@@ -98,4 +269,35 @@ public class AmazonDynamoDB extends AmazonClient {
 			this.response = response;
 		}
 	}
+
+	/**
+	 * Thrown when a transaction was cancelled. Its reasons are listed in the
+	 * same order as the transaction actions, those that did not fail having
+	 * the {@code None} code.
+	 */
+	@Getter
+	public static class TransactionCanceledException extends AmazonDynamoDBExecutionFailure {
+
+		static final String TYPE = "TransactionCanceledException";
+
+		final List<CancellationReason> cancellationReasons;
+
+		public TransactionCanceledException(String response, List<CancellationReason> cancellationReasons) {
+			super(TYPE, response);
+			this.cancellationReasons = cancellationReasons != null ? cancellationReasons : Collections.emptyList();
+		}
+	}
+
+	/**
+	 * The body of a {@link TransactionCanceledException} response.
+	 */
+	public static class CancellationReasons {
+
+		@JsonProperty("CancellationReasons")
+		private List<CancellationReason> cancellationReasons;
+
+		public List<CancellationReason> getCancellationReasons() {
+			return cancellationReasons;
+		}
+	}
 }
@@ -0,0 +1,86 @@
+package lambdify.aws.client.dynamodb;
+
+import java.util.concurrent.*;
+import lambdify.aws.client.core.http.HttpException;
+import lambdify.aws.client.dynamodb.AmazonDynamoDB.AmazonDynamoDBExecutionFailure;
+import lombok.val;
+
+/**
+ * Retry delays for the operations DynamoDB may partially process or throttle.
+ * Delays follow the "full jitter" strategy: a random amount of time between zero
+ * and an exponentially growing ceiling, thus concurrent retries spread over time
+ * instead of hitting the table again all at once.
+ */
+final class Backoff {
+
+	private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor( runnable -> {
+		val thread = new Thread( runnable, "dynamodb-backoff" );
+		thread.setDaemon( true );
+		return thread;
+	});
+
+	private Backoff(){}
+
+	/**
+	 * @return a random delay, in milliseconds, to wait before the given retry attempt (starting at 1).
+	 */
+	static long fullJitter( long baseMillis, long maxMillis, int attempt ) {
+		val ceiling = Math.min( maxMillis, baseMillis << Math.min( attempt - 1, 30 ) );
+		return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong( ceiling + 1 );
+	}
+
+	/**
+	 * @return a future completed on the given executor once the delay has elapsed.
+	 */
+	static CompletableFuture<Void> delay( long millis, Executor executor ) {
+		val delayed = new CompletableFuture<Void>();
+		SCHEDULER.schedule( () -> executor.execute( () -> delayed.complete( null ) ), millis, TimeUnit.MILLISECONDS );
+		return delayed;
+	}
+
+	/**
+	 * @return {@code true} when the failure only means the request should be sent again later.
+	 */
+	static boolean isThrottling( Throwable failure ) {
+		if ( !(failure instanceof AmazonDynamoDBExecutionFailure) )
+			return false;
+		String type = ((AmazonDynamoDBExecutionFailure) failure).type();
+		return "ProvisionedThroughputExceededException".equals( type )
+			|| "ThrottlingException".equals( type )
+			|| "RequestLimitExceeded".equals( type );
+	}
+
+	/**
+	 * @return {@code true} when the request failed on its way or within DynamoDB, thus may succeed if sent again.
+	 */
+	static boolean isTransient( Throwable failure ) {
+		if ( failure instanceof HttpException )
+			return true;
+		if ( !(failure instanceof AmazonDynamoDBExecutionFailure) )
+			return false;
+		String type = ((AmazonDynamoDBExecutionFailure) failure).type();
+		return "InternalServerError".equals( type )
+			|| "InternalFailure".equals( type )
+			|| "ServiceUnavailable".equals( type );
+	}
+
+	static Throwable unwrap( Throwable failure ) {
+		while ( (failure instanceof CompletionException || failure instanceof ExecutionException) && failure.getCause() != null )
+			failure = failure.getCause();
+		return failure;
+	}
+
+	/**
+	 * Waits for the future, throwing its failure as it was originally thrown.
+	 */
+	static <T> T join( CompletableFuture<T> future ) {
+		try {
+			return future.join();
+		} catch ( CompletionException e ) {
+			val cause = unwrap( e );
+			if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+			if ( cause instanceof Error ) throw (Error) cause;
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package lambdify.aws.client.dynamodb;
+
+import java.util.*;
+import java.util.concurrent.*;
+import lambdify.aws.client.dynamodb.model.*;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * Retrieves any amount of items through {@code BatchGetItem}. Keys are split
+ * into requests of at most 100 keys, which are sent concurrently, and the keys
+ * DynamoDB leaves unprocessed are requested again after a jittered exponential
+ * backoff, as are the requests rejected by throttling.
+ *
+ * Requests are sent through the client, thus the amount of them actually in
+ * flight at the same time is bounded by its in-flight request limit.
+ */
+@Getter @Setter
+@Accessors(fluent = true)
+@RequiredArgsConstructor
+public class DynamoDBBatchGetter {
+
+	static final int MAX_KEYS_PER_REQUEST = 100;
+
+	@NonNull private final AmazonDynamoDB dynamoDB;
+
+	/**
+	 * Times each key is requested before being reported as unprocessed.
+	 */
+	private int maxAttempts = 10;
+
+	/**
+	 * Ceiling of the first retry delay, doubled on every following attempt.
+	 */
+	private long baseBackoffMillis = 50;
+
+	private long maxBackoffMillis = 5_000;
+
+	/**
+	 * Forwarded to every request. The consumed capacity is summed by table in the result.
+	 */
+	private ReturnConsumedCapacity returnConsumedCapacity;
+
+	/**
+	 * Runs the retries once their backoff has elapsed. Defaults to the client's async executor.
+	 */
+	private Executor executor;
+
+	public Executor executor() {
+		return executor != null ? executor : dynamoDB.getAsyncExecutor();
+	}
+
+	public BatchGetItemResult getAll( String table, Collection<Map<String, AttributeValue>> keys ) {
+		return Backoff.join( getAllAsync( table, keys ) );
+	}
+
+	/**
+	 * Retrieves every requested item. Keys still unprocessed or throttled after
+	 * {@link #maxAttempts} are reported as {@link BatchGetItemResult#getUnprocessedKeys()},
+	 * which is empty when every item was retrieved.
+	 */
+	public BatchGetItemResult getAll( Map<String, KeysAndAttributes> requestItems ) {
+		return Backoff.join( getAllAsync( requestItems ) );
+	}
+
+	public CompletableFuture<BatchGetItemResult> getAllAsync( String table, Collection<Map<String, AttributeValue>> keys ) {
+		return getAllAsync( Collections.singletonMap( table, new KeysAndAttributes().withKeys( keys ) ) );
+	}
+
+	public CompletableFuture<BatchGetItemResult> getAllAsync( Map<String, KeysAndAttributes> requestItems ) {
+		if ( maxAttempts <= 0 || baseBackoffMillis < 0 || maxBackoffMillis < 0 )
+			throw new IllegalStateException( "maxAttempts should be positive, and the backoff delays can't be negative" );
+
+		val merged = new MergedResult();
+		val requests = new ArrayList<CompletableFuture<Void>>();
+		for ( val chunk : split( requestItems ) )
+			requests.add( fetch( chunk, 1, merged ) );
+		return CompletableFuture.allOf( requests.toArray( new CompletableFuture<?>[0] ) ).thenApply( v -> merged.toResult() );
+	}
+
+	/**
+	 * @return the request items, grouped into maps of at most {@link #MAX_KEYS_PER_REQUEST} keys.
+	 */
+	static List<Map<String, KeysAndAttributes>> split( Map<String, KeysAndAttributes> requestItems ) {
+		val chunks = new ArrayList<Map<String, KeysAndAttributes>>();
+		Map<String, KeysAndAttributes> chunk = new LinkedHashMap<>();
+		int keysInChunk = 0;
+		for ( val entry : requestItems.entrySet() ) {
+			val keys = entry.getValue().getKeys();
+			if ( keys == null )
+				continue;
+			int from = 0;
+			while ( from < keys.size() ) {
+				if ( keysInChunk == MAX_KEYS_PER_REQUEST ) {
+					chunks.add( chunk );
+					chunk = new LinkedHashMap<>();
+					keysInChunk = 0;
+				}
+				val to = Math.min( keys.size(), from + MAX_KEYS_PER_REQUEST - keysInChunk );
+				chunk.put( entry.getKey(), entry.getValue().withSameAttributes( keys.subList( from, to ) ) );
+				keysInChunk += to - from;
+				from = to;
+			}
+		}
+		if ( keysInChunk > 0 )
+			chunks.add( chunk );
+		return chunks;
+	}
+
+	private CompletableFuture<Void> fetch( Map<String, KeysAndAttributes> items, int attempt, MergedResult merged ) {
+		val request = new BatchGetItemRequest().withRequestItems( items );
+		if ( returnConsumedCapacity != null )
+			request.withReturnConsumedCapacity( returnConsumedCapacity );
+
+		return dynamoDB.batchGetItemAsync( request ).handle( ( result, failure ) -> {
+			if ( failure != null ) {
+				val cause = Backoff.unwrap( failure );
+				if ( !Backoff.isThrottling( cause ) )
+					throw failure instanceof CompletionException ? (CompletionException) failure : new CompletionException( cause );
+				if ( attempt >= maxAttempts ) {
+					// left for the caller to resume, as the other requests may have succeeded
+					merged.addUnprocessed( items );
+					return CompletableFuture.<Void>completedFuture( null );
+				}
+				return retry( items, attempt, merged );
+			}
+
+			merged.add( result );
+			val unprocessed = result.getUnprocessedKeys();
+			if ( unprocessed == null || unprocessed.isEmpty() )
+				return CompletableFuture.<Void>completedFuture( null );
+			if ( attempt >= maxAttempts ) {
+				merged.addUnprocessed( unprocessed );
+				return CompletableFuture.<Void>completedFuture( null );
+			}
+			return retry( unprocessed, attempt, merged );
+		}).thenCompose( next -> next );
+	}
+
+	private CompletableFuture<Void> retry( Map<String, KeysAndAttributes> items, int attempt, MergedResult merged ) {
+		val delay = Backoff.fullJitter( baseBackoffMillis, maxBackoffMillis, attempt );
+		return Backoff.delay( delay, executor() ).thenCompose( v -> fetch( items, attempt + 1, merged ) );
+	}
+
+	/**
+	 * Gathers the responses of every request of a {@link #getAll(Map)} call.
+	 */
+	static class MergedResult {
+
+		final Map<String, List<Map<String, AttributeValue>>> responses = new LinkedHashMap<>();
+		final Map<String, KeysAndAttributes> unprocessedKeys = new LinkedHashMap<>();
+		final Map<String, ConsumedCapacity> consumedCapacity = new LinkedHashMap<>();
+
+		synchronized void add( BatchGetItemResult result ) {
+			if ( result.getResponses() != null )
+				result.getResponses().forEach( ( table, items ) ->
+					responses.computeIfAbsent( table, t -> new ArrayList<>() ).addAll( items ) );
+			if ( result.getConsumedCapacity() != null )
+				for ( val capacity : result.getConsumedCapacity() ) {
+					val sum = consumedCapacity.computeIfAbsent( capacity.getTableName(),
+						t -> new ConsumedCapacity().withTableName( t ).withCapacityUnits( 0d ) );
+					if ( capacity.getCapacityUnits() != null )
+						sum.setCapacityUnits( sum.getCapacityUnits() + capacity.getCapacityUnits() );
+				}
+		}
+
+		synchronized void addUnprocessed( Map<String, KeysAndAttributes> unprocessed ) {
+			unprocessed.forEach( ( table, keys ) -> {
+				val previous = unprocessedKeys.get( table );
+				if ( previous == null )
+					unprocessedKeys.put( table, keys.withSameAttributes( keys.getKeys() ) );
+				else
+					previous.getKeys().addAll( keys.getKeys() );
+			});
+		}
+
+		synchronized BatchGetItemResult toResult() {
+			return new BatchGetItemResult()
+				.withResponses( responses )
+				.withUnprocessedKeys( unprocessedKeys )
+				.withConsumedCapacity( consumedCapacity.isEmpty() ? null : consumedCapacity.values() );
+		}
+	}
+}
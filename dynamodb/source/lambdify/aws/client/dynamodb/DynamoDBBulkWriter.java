@@ -0,0 +1,247 @@
+package lambdify.aws.client.dynamodb;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lambdify.aws.client.dynamodb.model.*;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * Writes any amount of items into a table through {@code BatchWriteItem}. The
+ * operations are packed into batches of at most 25 items and 16 MB, of which up
+ * to {@link #concurrency} are sent at the same time. Operations DynamoDB leaves
+ * unprocessed are sent again after a jittered exponential backoff, as are the
+ * batches rejected by throttling.
+ *
+ * The operations are pulled by the caller thread, which blocks while
+ * {@link #concurrency} batches are in flight, thus memory usage stays bounded
+ * no matter how many items the source holds. Each operation is serialized
+ * only once, as it is packed into its batch.
+ */
+@Getter @Setter
+@Accessors(fluent = true)
+@RequiredArgsConstructor
+public class DynamoDBBulkWriter {
+
+	static final int MAX_ITEMS_PER_BATCH = 25;
+	static final int MAX_BATCH_SIZE = 16 * 1024 * 1024;
+
+	@NonNull private final AmazonDynamoDB dynamoDB;
+
+	/**
+	 * Amount of batches in flight at the same time.
+	 */
+	private int concurrency = 8;
+
+	/**
+	 * Times each operation is sent before being reported as unprocessed.
+	 */
+	private int maxAttempts = 10;
+
+	/**
+	 * Ceiling of the first retry delay, doubled on every following attempt.
+	 */
+	private long baseBackoffMillis = 50;
+
+	private long maxBackoffMillis = 5_000;
+
+	/**
+	 * Forwarded to every request. The consumed capacity is summed by table in the result.
+	 */
+	private ReturnConsumedCapacity returnConsumedCapacity;
+
+	/**
+	 * Runs the retries once their backoff has elapsed. Defaults to the client's async executor.
+	 */
+	private Executor executor;
+
+	public Executor executor() {
+		return executor != null ? executor : dynamoDB.getAsyncExecutor();
+	}
+
+	public BatchWriteItemResult write( String table, Stream<WriteRequest> operations ) {
+		return write( table, operations.iterator() );
+	}
+
+	/**
+	 * Performs every operation, stopping at the first batch that fails. Operations
+	 * still unprocessed or throttled after {@link #maxAttempts} are reported as
+	 * {@link BatchWriteItemResult#getUnprocessedItems()}, which is empty when
+	 * every one was performed.
+	 */
+	public BatchWriteItemResult write( String table, Iterator<WriteRequest> operations ) {
+		if ( concurrency <= 0 || maxAttempts <= 0 || baseBackoffMillis < 0 || maxBackoffMillis < 0 )
+			throw new IllegalStateException( "concurrency and maxAttempts should be positive, and the backoff delays can't be negative" );
+
+		val bulk = new BulkWrite( table );
+		val batch = bulk.newBatch();
+		while ( operations.hasNext() && bulk.failure.get() == null ) {
+			val operation = dynamoDB.getJsonSerializer().serializeAsBytes( operations.next() );
+			if ( batch.size == MAX_ITEMS_PER_BATCH || batch.size > 0 && !batch.fits( operation ) )
+				bulk.send( batch );
+			batch.add( operation );
+		}
+		if ( batch.size > 0 && bulk.failure.get() == null )
+			bulk.send( batch );
+		return bulk.finish();
+	}
+
+	/**
+	 * The batches of a {@link #write(String, Iterator)} call.
+	 */
+	class BulkWrite {
+
+		final String table;
+		final byte[] prefix;
+		final byte[] suffix;
+		final Semaphore permits = new Semaphore( concurrency );
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		final Map<String, List<WriteRequest>> unprocessedItems = new LinkedHashMap<>();
+		final Map<String, ConsumedCapacity> consumedCapacity = new LinkedHashMap<>();
+
+		BulkWrite( String table ) {
+			this.table = table;
+			val json = dynamoDB.getJsonSerializer();
+			this.prefix = ("{\"RequestItems\":{" + json.serialize( table ) + ":[").getBytes( StandardCharsets.UTF_8 );
+			this.suffix = ("]}" + (returnConsumedCapacity == null ? "" : ",\"ReturnConsumedCapacity\":\"" + returnConsumedCapacity + "\"") + "}")
+				.getBytes( StandardCharsets.UTF_8 );
+		}
+
+		Batch newBatch() {
+			val batch = new Batch( new ByteArrayOutputStream( 64 * 1024 ) );
+			batch.clear();
+			return batch;
+		}
+
+		/**
+		 * Sends the batch in background, blocking while {@link #concurrency} batches
+		 * are in flight, then empties it for the following operations.
+		 */
+		void send( Batch batch ) {
+			permits.acquireUninterruptibly();
+			val body = batch.toRequestBody();
+			batch.clear();
+			send( () -> dynamoDB.batchWriteItemAsync( body ), () -> operationsOf( body ), 1 ).whenComplete( ( v, cause ) -> {
+				if ( cause != null )
+					failure.compareAndSet( null, Backoff.unwrap( cause ) );
+				permits.release();
+			});
+		}
+
+		/**
+		 * @param operations the operations of the request, only read when they end up unprocessed.
+		 */
+		private CompletableFuture<Void> send( Supplier<CompletableFuture<BatchWriteItemResult>> request,
+				Supplier<Map<String, List<WriteRequest>>> operations, int attempt ) {
+			return request.get().handle( ( result, cause ) -> {
+				if ( cause != null ) {
+					if ( !Backoff.isThrottling( Backoff.unwrap( cause ) ) )
+						throw cause instanceof CompletionException ? (CompletionException) cause : new CompletionException( cause );
+					if ( attempt >= maxAttempts || failure.get() != null ) {
+						// left for the caller to resume, as the other batches may have been written
+						addUnprocessed( operations.get() );
+						return CompletableFuture.<Void>completedFuture( null );
+					}
+					return retry( request, operations, attempt );
+				}
+
+				addConsumedCapacity( result.getConsumedCapacity() );
+				val unprocessed = result.getUnprocessedItems();
+				if ( unprocessed == null || unprocessed.isEmpty() )
+					return CompletableFuture.<Void>completedFuture( null );
+				if ( attempt >= maxAttempts || failure.get() != null ) {
+					addUnprocessed( unprocessed );
+					return CompletableFuture.<Void>completedFuture( null );
+				}
+				val next = new BatchWriteItemRequest().withRequestItems( unprocessed );
+				if ( returnConsumedCapacity != null )
+					next.withReturnConsumedCapacity( returnConsumedCapacity );
+				return retry( () -> dynamoDB.batchWriteItemAsync( next ), () -> unprocessed, attempt );
+			}).thenCompose( next -> next );
+		}
+
+		private CompletableFuture<Void> retry( Supplier<CompletableFuture<BatchWriteItemResult>> request,
+				Supplier<Map<String, List<WriteRequest>>> operations, int attempt ) {
+			val delay = Backoff.fullJitter( baseBackoffMillis, maxBackoffMillis, attempt );
+			return Backoff.delay( delay, executor() ).thenCompose( v -> send( request, operations, attempt + 1 ) );
+		}
+
+		/**
+		 * @return the operations of a serialized batch.
+		 */
+		private Map<String, List<WriteRequest>> operationsOf( byte[] body ) {
+			return dynamoDB.getJsonSerializer().deserialize( body, 0, body.length, BatchWriteItemRequest.class ).getRequestItems();
+		}
+
+		synchronized void addConsumedCapacity( List<ConsumedCapacity> capacities ) {
+			if ( capacities != null )
+				for ( val capacity : capacities ) {
+					val sum = consumedCapacity.computeIfAbsent( capacity.getTableName(),
+						t -> new ConsumedCapacity().withTableName( t ).withCapacityUnits( 0d ) );
+					if ( capacity.getCapacityUnits() != null )
+						sum.setCapacityUnits( sum.getCapacityUnits() + capacity.getCapacityUnits() );
+				}
+		}
+
+		synchronized void addUnprocessed( Map<String, List<WriteRequest>> unprocessed ) {
+			unprocessed.forEach( ( table, items ) ->
+				unprocessedItems.computeIfAbsent( table, t -> new ArrayList<>() ).addAll( items ) );
+		}
+
+		/**
+		 * Waits for every batch in flight.
+		 */
+		BatchWriteItemResult finish() {
+			permits.acquireUninterruptibly( concurrency );
+			permits.release( concurrency );
+
+			val cause = failure.get();
+			if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+			if ( cause instanceof Error ) throw (Error) cause;
+			if ( cause != null ) throw new CompletionException( cause );
+
+			synchronized ( this ) {
+				return new BatchWriteItemResult()
+					.withUnprocessedItems( unprocessedItems )
+					.withConsumedCapacity( consumedCapacity.isEmpty() ? null : consumedCapacity.values() );
+			}
+		}
+
+		/**
+		 * The request body of the batch being packed, whose operations are
+		 * appended as they are serialized.
+		 */
+		@RequiredArgsConstructor
+		class Batch {
+
+			final ByteArrayOutputStream body;
+			int size;
+
+			boolean fits( byte[] operation ) {
+				return body.size() + 1 + operation.length + suffix.length <= MAX_BATCH_SIZE;
+			}
+
+			void add( byte[] operation ) {
+				if ( size++ > 0 )
+					body.write( ',' );
+				body.write( operation, 0, operation.length );
+			}
+
+			byte[] toRequestBody() {
+				body.write( suffix, 0, suffix.length );
+				return body.toByteArray();
+			}
+
+			void clear() {
+				body.reset();
+				body.write( prefix, 0, prefix.length );
+				size = 0;
+			}
+		}
+	}
+}
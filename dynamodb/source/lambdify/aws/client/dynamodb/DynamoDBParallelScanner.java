@@ -0,0 +1,235 @@
+package lambdify.aws.client.dynamodb;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.*;
+import lambdify.aws.client.dynamodb.model.*;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * Scans a whole table in parallel, splitting it into {@link #totalSegments}
+ * segments that are scanned at the same time, each one page after page until
+ * its end. A failed page is requested again, resuming the segment from the last
+ * key it read, up to {@link #maxAttemptsPerPage} times, when it was throttled or
+ * failed on its way or within DynamoDB. Any other failure stops the scan at once.
+ *
+ * Each segment runs on its own task of the {@link #executor}, thus the scan
+ * scales with the amount of threads it offers, as long as the client's
+ * transport allows as many connections.
+ */
+@Getter @Setter
+@Accessors(fluent = true)
+@RequiredArgsConstructor
+public class DynamoDBParallelScanner {
+
+	private static final long PAGE_TIMEOUT_MILLIS = 100;
+
+	@NonNull private final AmazonDynamoDB dynamoDB;
+
+	/**
+	 * Amount of segments the table is split into, all of them scanned at the same time.
+	 */
+	private int totalSegments = 8;
+
+	private int maxAttemptsPerPage = 3;
+
+	/**
+	 * Ceiling of the first retry delay of a page, doubled on every following attempt.
+	 */
+	private long baseBackoffMillis = 50;
+
+	private long maxBackoffMillis = 5_000;
+
+	/**
+	 * Runs the segments. Defaults to the client's async executor.
+	 */
+	private Executor executor;
+
+	public Executor executor() {
+		return executor != null ? executor : dynamoDB.getAsyncExecutor();
+	}
+
+	/**
+	 * Scans the table, handing every page to the consumer as it arrives. The
+	 * consumer is called from several threads at the same time, but the pages
+	 * of a segment are handed over one at a time, in order.
+	 */
+	public void scan( ScanRequest request, SegmentConsumer consumer ) {
+		Backoff.join( scanAsync( request, consumer ) );
+	}
+
+	/**
+	 * Scans the table, handing every item to the consumer, which is called from several threads at the same time.
+	 */
+	public void scanItems( ScanRequest request, Consumer<Map<String, AttributeValue>> consumer ) {
+		scan( request, ( segment, items ) -> items.forEach( consumer ) );
+	}
+
+	/**
+	 * Same as {@link #scan(ScanRequest, SegmentConsumer)}, but doesn't wait for the scan to finish.
+	 */
+	public CompletableFuture<Void> scanAsync( ScanRequest request, SegmentConsumer consumer ) {
+		return new ParallelScan( request, consumer ).start();
+	}
+
+	/**
+	 * Lazily scans the table, merging the items of every segment as they arrive,
+	 * in no particular order. At most two pages per segment wait for the caller:
+	 * segments are paused while the stream isn't consumed, and stopped once it
+	 * is closed.
+	 */
+	public Stream<Map<String, AttributeValue>> stream( ScanRequest request ) {
+		val pages = new MergedPages( 2 * totalSegments );
+		val scan = new ParallelScan( request, ( segment, items ) -> pages.put( items ) );
+		pages.scan = scan;
+		scan.start().whenComplete( ( v, cause ) -> pages.finish() );
+		return StreamSupport.stream( Spliterators.spliteratorUnknownSize( pages, Spliterator.NONNULL ), false )
+			.onClose( scan::cancel )
+			.flatMap( List::stream );
+	}
+
+	/**
+	 * Receives the pages of a parallel scan.
+	 */
+	public interface SegmentConsumer {
+		void accept( int segment, List<Map<String, AttributeValue>> items ) throws InterruptedException;
+	}
+
+	@RequiredArgsConstructor
+	class ParallelScan {
+
+		final ScanRequest request;
+		final SegmentConsumer consumer;
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		volatile boolean cancelled;
+
+		CompletableFuture<Void> start() {
+			if ( totalSegments <= 0 || maxAttemptsPerPage <= 0 || baseBackoffMillis < 0 || maxBackoffMillis < 0 )
+				throw new IllegalStateException( "totalSegments and maxAttemptsPerPage should be positive, and the backoff delays can't be negative" );
+
+			val segments = new ArrayList<CompletableFuture<Void>>();
+			for ( int i = 0; i < totalSegments; i++ ) {
+				val segment = i;
+				segments.add( CompletableFuture.runAsync( () -> scanSegment( segment ), executor() ) );
+			}
+			return CompletableFuture.allOf( segments.toArray( new CompletableFuture<?>[0] ) ).handle( ( v, cause ) -> {
+				val firstFailure = failure.get();
+				if ( firstFailure != null )
+					throw firstFailure instanceof CompletionException ? (CompletionException) firstFailure : new CompletionException( firstFailure );
+				return null;
+			});
+		}
+
+		void cancel() {
+			cancelled = true;
+		}
+
+		void scanSegment( int segment ) {
+			try {
+				val pageRequest = dynamoDB.copyOf( request, ScanRequest.class ).withSegment( segment ).withTotalSegments( totalSegments );
+				int failedAttempts = 0;
+				while ( !cancelled ) {
+					final ScanResult page;
+					try {
+						page = dynamoDB.scan( pageRequest );
+						failedAttempts = 0;
+					} catch ( RuntimeException e ) {
+						if ( !Backoff.isThrottling( e ) && !Backoff.isTransient( e ) || ++failedAttempts >= maxAttemptsPerPage )
+							throw e;
+						// resumes from the last key read
+						Thread.sleep( Backoff.fullJitter( baseBackoffMillis, maxBackoffMillis, failedAttempts ) );
+						continue;
+					}
+
+					consumer.accept( segment, page.getItems() != null ? page.getItems() : Collections.emptyList() );
+					val lastKey = page.getLastEvaluatedKey();
+					if ( lastKey == null || lastKey.isEmpty() )
+						break;
+					pageRequest.setExclusiveStartKey( lastKey );
+				}
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				fail( new IllegalStateException( "Segment " + segment + " interrupted", e ) );
+			} catch ( Throwable cause ) {
+				fail( cause );
+			}
+		}
+
+		/**
+		 * Stops every other segment, as the scan can't be completed anymore.
+		 */
+		void fail( Throwable cause ) {
+			failure.compareAndSet( null, cause );
+			cancel();
+		}
+	}
+
+	/**
+	 * The pages of every segment, waiting to be consumed by a {@link #stream(ScanRequest)}.
+	 */
+	class MergedPages implements Iterator<List<Map<String, AttributeValue>>> {
+
+		final BlockingQueue<List<Map<String, AttributeValue>>> pages;
+		ParallelScan scan;
+		volatile boolean finished;
+		List<Map<String, AttributeValue>> next;
+
+		MergedPages( int capacity ) {
+			this.pages = new ArrayBlockingQueue<>( capacity );
+		}
+
+		/**
+		 * Blocks the segment while the queue is full, unless the scan was cancelled.
+		 */
+		void put( List<Map<String, AttributeValue>> page ) throws InterruptedException {
+			while ( !scan.cancelled )
+				if ( pages.offer( page, PAGE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS ) )
+					return;
+		}
+
+		void finish() {
+			finished = true;
+		}
+
+		@Override
+		public boolean hasNext() {
+			try {
+				while ( next == null ) {
+					if ( finished ) {
+						// every page was queued before the scan finished
+						next = pages.poll();
+						if ( next == null )
+							return failIfNeeded();
+					} else
+						next = pages.poll( PAGE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS );
+				}
+				return true;
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				scan.cancel();
+				throw new IllegalStateException( "Scan interrupted", e );
+			}
+		}
+
+		private boolean failIfNeeded() {
+			val cause = scan.failure.get();
+			if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+			if ( cause instanceof Error ) throw (Error) cause;
+			if ( cause != null ) throw new CompletionException( cause );
+			return false;
+		}
+
+		@Override
+		public List<Map<String, AttributeValue>> next() {
+			if ( !hasNext() )
+				throw new NoSuchElementException();
+			val page = next;
+			next = null;
+			return page;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package lambdify.aws.client.dynamodb;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.val;
+
+/**
+ * Iterates over the pages of a Query or Scan, fetching the following pages in
+ * background while the previous ones are consumed. Up to {@code prefetch} pages
+ * are kept ahead of the caller: as DynamoDB only tells where a page starts along
+ * with the previous one, they are still fetched one after the other, but as soon
+ * as the previous page arrives instead of when the caller asks for it.
+ */
+class PrefetchingPages<T> implements Iterator<T> {
+
+	interface PageFetcher<T> {
+		/**
+		 * @param maxItems the amount of items still wanted, or {@link Long#MAX_VALUE} when uncapped.
+		 */
+		CompletableFuture<T> fetch( Map<String, AttributeValue> exclusiveStartKey, long maxItems );
+	}
+
+	private final PageFetcher<T> fetcher;
+	private final Function<T, Map<String, AttributeValue>> lastEvaluatedKey;
+	private final Function<T, Integer> itemCount;
+	private final int prefetch;
+	private final ArrayDeque<CompletableFuture<T>> pages = new ArrayDeque<>();
+	private Map<String, AttributeValue> startKey;
+	private long remainingItems;
+	private boolean started, fetching, exhausted;
+
+	PrefetchingPages(
+			PageFetcher<T> fetcher, Function<T, Map<String, AttributeValue>> lastEvaluatedKey, Function<T, Integer> itemCount,
+			Map<String, AttributeValue> startKey, int prefetch, long maxItems )
+	{
+		if ( prefetch <= 0 || maxItems <= 0 )
+			throw new IllegalArgumentException( "prefetch and maxItems should be positive" );
+		this.fetcher = fetcher;
+		this.lastEvaluatedKey = lastEvaluatedKey;
+		this.itemCount = itemCount;
+		this.startKey = startKey;
+		this.prefetch = prefetch;
+		this.remainingItems = maxItems;
+	}
+
+	@Override
+	public synchronized boolean hasNext() {
+		if ( !started ) {
+			started = true;
+			fetchMore();
+		}
+		return !pages.isEmpty();
+	}
+
+	@Override
+	public T next() {
+		final CompletableFuture<T> next;
+		synchronized ( this ) {
+			if ( !hasNext() )
+				throw new NoSuchElementException();
+			next = pages.poll();
+			fetchMore();
+		}
+		return Backoff.join( next );
+	}
+
+	/**
+	 * Requests the following page, unless one is already on its way, enough
+	 * pages are waiting for the caller, or there are no more pages.
+	 */
+	private synchronized void fetchMore() {
+		if ( fetching || exhausted || pages.size() >= prefetch )
+			return;
+		fetching = true;
+		// handed over once the following page was requested, thus the caller never
+		// finds the queue empty while more pages are on their way
+		val page = new CompletableFuture<T>();
+		pages.offer( page );
+		fetcher.fetch( startKey, remainingItems ).whenComplete( ( result, failure ) -> {
+			onPage( result, failure );
+			if ( failure != null )
+				page.completeExceptionally( failure );
+			else
+				page.complete( result );
+		});
+	}
+
+	private synchronized void onPage( T page, Throwable failure ) {
+		fetching = false;
+		if ( failure != null ) {
+			// the failure is thrown once the caller reaches this page
+			exhausted = true;
+			return;
+		}
+		startKey = lastEvaluatedKey.apply( page );
+		val count = itemCount.apply( page );
+		if ( remainingItems != Long.MAX_VALUE && count != null )
+			remainingItems -= count;
+		exhausted = startKey == null || startKey.isEmpty() || remainingItems <= 0;
+		fetchMore();
+	}
+}
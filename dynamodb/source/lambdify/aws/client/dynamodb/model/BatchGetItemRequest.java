@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+/**
+ * <br>
+ * Represents the input of a <code>BatchGetItem</code> operation: up to 100 items, from one or more tables.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/BatchGetItem" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class BatchGetItemRequest implements Serializable {
+
+    /**
+     * The keys to retrieve, by table name.
+     */
+    @JsonProperty("RequestItems")
+    private java.util.Map<String, KeysAndAttributes> requestItems;
+
+    @JsonProperty("ReturnConsumedCapacity")
+    private String returnConsumedCapacity;
+
+
+    public java.util.Map<String, KeysAndAttributes> getRequestItems() {
+        return requestItems;
+    }
+
+
+    public void setRequestItems(java.util.Map<String, KeysAndAttributes> requestItems) {
+        this.requestItems = requestItems;
+    }
+
+
+    public BatchGetItemRequest withRequestItems(java.util.Map<String, KeysAndAttributes> requestItems) {
+        setRequestItems(requestItems);
+        return this;
+    }
+
+
+    public BatchGetItemRequest addRequestItemsEntry(String key, KeysAndAttributes value) {
+        if (null == this.requestItems) {
+            this.requestItems = new java.util.LinkedHashMap<String, KeysAndAttributes>();
+        }
+        if (this.requestItems.containsKey(key))
+            throw new IllegalArgumentException("Duplicated keys (" + key.toString() + ") are provided.");
+        this.requestItems.put(key, value);
+        return this;
+    }
+
+
+    public void setReturnConsumedCapacity(String returnConsumedCapacity) {
+        this.returnConsumedCapacity = returnConsumedCapacity;
+    }
+
+
+    public String getReturnConsumedCapacity() {
+        return this.returnConsumedCapacity;
+    }
+
+
+    public BatchGetItemRequest withReturnConsumedCapacity(String returnConsumedCapacity) {
+        setReturnConsumedCapacity(returnConsumedCapacity);
+        return this;
+    }
+
+
+    public BatchGetItemRequest withReturnConsumedCapacity(ReturnConsumedCapacity returnConsumedCapacity) {
+        this.returnConsumedCapacity = returnConsumedCapacity.toString();
+        return this;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.*;
+
+/**
+ * <br>
+ * Represents the output of a <code>BatchGetItem</code> operation.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/BatchGetItem" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class BatchGetItemResult implements Serializable {
+
+    /**
+     * The retrieved items, by table name. Items are returned in no particular order.
+     */
+    @JsonProperty("Responses")
+    private java.util.Map<String, java.util.List<java.util.Map<String, AttributeValue>>> responses;
+
+    /**
+     * The keys that were not processed, due to throughput or response size limits,
+     * to be requested again.
+     */
+    @JsonProperty("UnprocessedKeys")
+    private java.util.Map<String, KeysAndAttributes> unprocessedKeys;
+
+    @JsonProperty("ConsumedCapacity")
+    private java.util.List<ConsumedCapacity> consumedCapacity;
+
+
+    public java.util.Map<String, java.util.List<java.util.Map<String, AttributeValue>>> getResponses() {
+        return responses;
+    }
+
+
+    public void setResponses(java.util.Map<String, java.util.List<java.util.Map<String, AttributeValue>>> responses) {
+        this.responses = responses;
+    }
+
+
+    public BatchGetItemResult withResponses(java.util.Map<String, java.util.List<java.util.Map<String, AttributeValue>>> responses) {
+        setResponses(responses);
+        return this;
+    }
+
+
+    public java.util.Map<String, KeysAndAttributes> getUnprocessedKeys() {
+        return unprocessedKeys;
+    }
+
+
+    public void setUnprocessedKeys(java.util.Map<String, KeysAndAttributes> unprocessedKeys) {
+        this.unprocessedKeys = unprocessedKeys;
+    }
+
+
+    public BatchGetItemResult withUnprocessedKeys(java.util.Map<String, KeysAndAttributes> unprocessedKeys) {
+        setUnprocessedKeys(unprocessedKeys);
+        return this;
+    }
+
+
+    public java.util.List<ConsumedCapacity> getConsumedCapacity() {
+        return consumedCapacity;
+    }
+
+
+    public void setConsumedCapacity(java.util.Collection<ConsumedCapacity> consumedCapacity) {
+        if (consumedCapacity == null) {
+            this.consumedCapacity = null;
+            return;
+        }
+
+        this.consumedCapacity = new java.util.ArrayList<ConsumedCapacity>(consumedCapacity);
+    }
+
+
+    public BatchGetItemResult withConsumedCapacity(java.util.Collection<ConsumedCapacity> consumedCapacity) {
+        setConsumedCapacity(consumedCapacity);
+        return this;
+    }
+}
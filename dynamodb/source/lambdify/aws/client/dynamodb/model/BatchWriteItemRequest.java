@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+/**
+ * <br>
+ * Represents the input of a <code>BatchWriteItem</code> operation: up to 25 put or delete requests, on one or more
+ * tables, whose total size can't exceed 16 MB.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/BatchWriteItem" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class BatchWriteItemRequest implements Serializable {
+
+    /**
+     * The operations to perform, by table name.
+     */
+    @JsonProperty("RequestItems")
+    private java.util.Map<String, java.util.List<WriteRequest>> requestItems;
+
+    @JsonProperty("ReturnConsumedCapacity")
+    private String returnConsumedCapacity;
+
+
+    public java.util.Map<String, java.util.List<WriteRequest>> getRequestItems() {
+        return requestItems;
+    }
+
+
+    public void setRequestItems(java.util.Map<String, java.util.List<WriteRequest>> requestItems) {
+        this.requestItems = requestItems;
+    }
+
+
+    public BatchWriteItemRequest withRequestItems(java.util.Map<String, java.util.List<WriteRequest>> requestItems) {
+        setRequestItems(requestItems);
+        return this;
+    }
+
+
+    public BatchWriteItemRequest addRequestItemsEntry(String key, java.util.List<WriteRequest> value) {
+        if (null == this.requestItems) {
+            this.requestItems = new java.util.LinkedHashMap<String, java.util.List<WriteRequest>>();
+        }
+        if (this.requestItems.containsKey(key))
+            throw new IllegalArgumentException("Duplicated keys (" + key.toString() + ") are provided.");
+        this.requestItems.put(key, value);
+        return this;
+    }
+
+
+    public void setReturnConsumedCapacity(String returnConsumedCapacity) {
+        this.returnConsumedCapacity = returnConsumedCapacity;
+    }
+
+
+    public String getReturnConsumedCapacity() {
+        return this.returnConsumedCapacity;
+    }
+
+
+    public BatchWriteItemRequest withReturnConsumedCapacity(String returnConsumedCapacity) {
+        setReturnConsumedCapacity(returnConsumedCapacity);
+        return this;
+    }
+
+
+    public BatchWriteItemRequest withReturnConsumedCapacity(ReturnConsumedCapacity returnConsumedCapacity) {
+        this.returnConsumedCapacity = returnConsumedCapacity.toString();
+        return this;
+    }
+}
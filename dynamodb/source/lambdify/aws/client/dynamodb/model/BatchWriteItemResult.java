@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+/**
+ * <br>
+ * Represents the output of a <code>BatchWriteItem</code> operation.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/BatchWriteItem" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class BatchWriteItemResult implements Serializable {
+
+    /**
+     * The operations that were not performed, due to throughput limits, to be sent again.
+     */
+    @JsonProperty("UnprocessedItems")
+    private java.util.Map<String, java.util.List<WriteRequest>> unprocessedItems;
+
+    @JsonProperty("ConsumedCapacity")
+    private java.util.List<ConsumedCapacity> consumedCapacity;
+
+
+    public java.util.Map<String, java.util.List<WriteRequest>> getUnprocessedItems() {
+        return unprocessedItems;
+    }
+
+
+    public void setUnprocessedItems(java.util.Map<String, java.util.List<WriteRequest>> unprocessedItems) {
+        this.unprocessedItems = unprocessedItems;
+    }
+
+
+    public BatchWriteItemResult withUnprocessedItems(java.util.Map<String, java.util.List<WriteRequest>> unprocessedItems) {
+        setUnprocessedItems(unprocessedItems);
+        return this;
+    }
+
+
+    public java.util.List<ConsumedCapacity> getConsumedCapacity() {
+        return consumedCapacity;
+    }
+
+
+    public void setConsumedCapacity(java.util.Collection<ConsumedCapacity> consumedCapacity) {
+        if (consumedCapacity == null) {
+            this.consumedCapacity = null;
+            return;
+        }
+
+        this.consumedCapacity = new java.util.ArrayList<ConsumedCapacity>(consumedCapacity);
+    }
+
+
+    public BatchWriteItemResult withConsumedCapacity(java.util.Collection<ConsumedCapacity> consumedCapacity) {
+        setConsumedCapacity(consumedCapacity);
+        return this;
+    }
+}
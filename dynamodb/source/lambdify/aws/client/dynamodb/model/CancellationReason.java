@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.*;
+
+/**
+ * <br>
+ * Why a single action of a cancelled transaction failed. Actions that did not fail have the
+ * <code>None</code> code.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/CancellationReason" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class CancellationReason implements Serializable {
+
+    /**
+     * The item attributes, when <code>ReturnValuesOnConditionCheckFailure</code> was <code>ALL_OLD</code>.
+     */
+    @JsonProperty("Item")
+    private java.util.Map<String, AttributeValue> item;
+
+    /**
+     * Such as <code>None</code>, <code>ConditionalCheckFailed</code>, <code>ItemCollectionSizeLimitExceeded</code>,
+     * <code>TransactionConflict</code>, <code>ProvisionedThroughputExceeded</code>, <code>ThrottlingError</code> or
+     * <code>ValidationError</code>.
+     */
+    @JsonProperty("Code")
+    private String code;
+
+    @JsonProperty("Message")
+    private String message;
+
+
+    public java.util.Map<String, AttributeValue> getItem() {
+        return item;
+    }
+
+
+    public void setItem(java.util.Map<String, AttributeValue> item) {
+        this.item = item;
+    }
+
+
+    public CancellationReason withItem(java.util.Map<String, AttributeValue> item) {
+        setItem(item);
+        return this;
+    }
+
+
+    public String getCode() {
+        return code;
+    }
+
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+
+    public CancellationReason withCode(String code) {
+        setCode(code);
+        return this;
+    }
+
+
+    public String getMessage() {
+        return message;
+    }
+
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+
+    public CancellationReason withMessage(String message) {
+        setMessage(message);
+        return this;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.*;
+
+/**
+ * <br>
+ * Represents a request to delete an item, identified by its primary key, as part of a <code>BatchWriteItem</code> operation.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/DeleteRequest" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+@NoArgsConstructor
+public class DeleteRequest implements Serializable {
+
+    @JsonProperty("Key")
+    private java.util.Map<String, AttributeValue> key;
+
+
+    public DeleteRequest(java.util.Map<String, AttributeValue> key) {
+        setKey(key);
+    }
+
+
+    public java.util.Map<String, AttributeValue> getKey() {
+        return key;
+    }
+
+
+    public void setKey(java.util.Map<String, AttributeValue> key) {
+        this.key = key;
+    }
+
+
+    public DeleteRequest withKey(java.util.Map<String, AttributeValue> key) {
+        setKey(key);
+        return this;
+    }
+}
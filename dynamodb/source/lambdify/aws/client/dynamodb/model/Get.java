@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.*;
+
+/**
+ * <br>
+ * Identifies an item to retrieve, as part of a <code>TransactGetItems</code> operation.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/Get" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class Get implements Serializable {
+
+    /**
+     * The primary key of the item.
+     */
+    @JsonProperty("Key")
+    private java.util.Map<String, AttributeValue> key;
+
+    @JsonProperty("TableName")
+    private String tableName;
+
+    @JsonProperty("ProjectionExpression")
+    private String projectionExpression;
+
+    @JsonProperty("ExpressionAttributeNames")
+    private java.util.Map<String, String> expressionAttributeNames;
+
+
+    public java.util.Map<String, AttributeValue> getKey() {
+        return key;
+    }
+
+
+    public void setKey(java.util.Map<String, AttributeValue> key) {
+        this.key = key;
+    }
+
+
+    public Get withKey(java.util.Map<String, AttributeValue> key) {
+        setKey(key);
+        return this;
+    }
+
+
+    public String getTableName() {
+        return tableName;
+    }
+
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+
+    public Get withTableName(String tableName) {
+        setTableName(tableName);
+        return this;
+    }
+
+
+    public String getProjectionExpression() {
+        return projectionExpression;
+    }
+
+
+    public void setProjectionExpression(String projectionExpression) {
+        this.projectionExpression = projectionExpression;
+    }
+
+
+    public Get withProjectionExpression(String projectionExpression) {
+        setProjectionExpression(projectionExpression);
+        return this;
+    }
+
+
+    public java.util.Map<String, String> getExpressionAttributeNames() {
+        return expressionAttributeNames;
+    }
+
+
+    public void setExpressionAttributeNames(java.util.Map<String, String> expressionAttributeNames) {
+        this.expressionAttributeNames = expressionAttributeNames;
+    }
+
+
+    public Get withExpressionAttributeNames(java.util.Map<String, String> expressionAttributeNames) {
+        setExpressionAttributeNames(expressionAttributeNames);
+        return this;
+    }
+}
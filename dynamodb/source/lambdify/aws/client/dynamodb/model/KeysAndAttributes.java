@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.*;
+
+/**
+ * <br>
+ * Represents a set of primary keys and, for each key, the attributes to retrieve from the table.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/KeysAndAttributes" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class KeysAndAttributes implements Serializable {
+
+    /**
+     * The primary keys of the items to retrieve, from 1 to 100 per request.
+     */
+    @JsonProperty("Keys")
+    private java.util.List<java.util.Map<String, AttributeValue>> keys;
+
+    @JsonProperty("AttributesToGet")
+    private java.util.List<String> attributesToGet;
+
+    /**
+     * Whether strongly consistent reads should be used, instead of eventually consistent ones.
+     */
+    @JsonProperty("ConsistentRead")
+    private Boolean consistentRead;
+
+    @JsonProperty("ProjectionExpression")
+    private String projectionExpression;
+
+    @JsonProperty("ExpressionAttributeNames")
+    private java.util.Map<String, String> expressionAttributeNames;
+
+
+    public java.util.List<java.util.Map<String, AttributeValue>> getKeys() {
+        return keys;
+    }
+
+
+    public void setKeys(java.util.Collection<java.util.Map<String, AttributeValue>> keys) {
+        if (keys == null) {
+            this.keys = null;
+            return;
+        }
+
+        this.keys = new java.util.ArrayList<java.util.Map<String, AttributeValue>>(keys);
+    }
+
+
+    public KeysAndAttributes withKeys(java.util.Map<String, AttributeValue>... keys) {
+        if (this.keys == null) {
+            setKeys(new java.util.ArrayList<java.util.Map<String, AttributeValue>>(keys.length));
+        }
+        for (java.util.Map<String, AttributeValue> ele : keys) {
+            this.keys.add(ele);
+        }
+        return this;
+    }
+
+
+    public KeysAndAttributes withKeys(java.util.Collection<java.util.Map<String, AttributeValue>> keys) {
+        setKeys(keys);
+        return this;
+    }
+
+
+    public java.util.List<String> getAttributesToGet() {
+        return attributesToGet;
+    }
+
+
+    public void setAttributesToGet(java.util.Collection<String> attributesToGet) {
+        if (attributesToGet == null) {
+            this.attributesToGet = null;
+            return;
+        }
+
+        this.attributesToGet = new java.util.ArrayList<String>(attributesToGet);
+    }
+
+
+    public KeysAndAttributes withAttributesToGet(java.util.Collection<String> attributesToGet) {
+        setAttributesToGet(attributesToGet);
+        return this;
+    }
+
+
+    public void setConsistentRead(Boolean consistentRead) {
+        this.consistentRead = consistentRead;
+    }
+
+
+    public Boolean getConsistentRead() {
+        return this.consistentRead;
+    }
+
+
+    public KeysAndAttributes withConsistentRead(Boolean consistentRead) {
+        setConsistentRead(consistentRead);
+        return this;
+    }
+
+
+    public void setProjectionExpression(String projectionExpression) {
+        this.projectionExpression = projectionExpression;
+    }
+
+
+    public String getProjectionExpression() {
+        return this.projectionExpression;
+    }
+
+
+    public KeysAndAttributes withProjectionExpression(String projectionExpression) {
+        setProjectionExpression(projectionExpression);
+        return this;
+    }
+
+
+    public java.util.Map<String, String> getExpressionAttributeNames() {
+        return expressionAttributeNames;
+    }
+
+
+    public void setExpressionAttributeNames(java.util.Map<String, String> expressionAttributeNames) {
+        this.expressionAttributeNames = expressionAttributeNames;
+    }
+
+
+    public KeysAndAttributes withExpressionAttributeNames(java.util.Map<String, String> expressionAttributeNames) {
+        setExpressionAttributeNames(expressionAttributeNames);
+        return this;
+    }
+
+    /**
+     * @return a copy of these settings, with the given keys instead.
+     */
+    public KeysAndAttributes withSameAttributes(java.util.Collection<java.util.Map<String, AttributeValue>> keys) {
+        return new KeysAndAttributes().withKeys(keys).withAttributesToGet(attributesToGet)
+                .withConsistentRead(consistentRead).withProjectionExpression(projectionExpression)
+                .withExpressionAttributeNames(expressionAttributeNames);
+    }
+}
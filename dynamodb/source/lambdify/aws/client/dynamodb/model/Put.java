@@ -0,0 +1,151 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.*;
+
+/**
+ * <br>
+ * Represents a request to put an item, as part of a <code>TransactWriteItems</code> operation.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/Put" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class Put implements Serializable {
+
+    @JsonProperty("Item")
+    private java.util.Map<String, AttributeValue> item;
+
+    @JsonProperty("TableName")
+    private String tableName;
+
+    /**
+     * A condition that must be satisfied for the operation to succeed.
+     */
+    @JsonProperty("ConditionExpression")
+    private String conditionExpression;
+
+    @JsonProperty("ExpressionAttributeNames")
+    private java.util.Map<String, String> expressionAttributeNames;
+
+    @JsonProperty("ExpressionAttributeValues")
+    private java.util.Map<String, AttributeValue> expressionAttributeValues;
+
+    /**
+     * Whether the item attributes are returned, as <code>ALL_OLD</code>, in the
+     * cancellation reason of the condition that failed.
+     */
+    @JsonProperty("ReturnValuesOnConditionCheckFailure")
+    private String returnValuesOnConditionCheckFailure;
+
+
+    public java.util.Map<String, AttributeValue> getItem() {
+        return item;
+    }
+
+
+    public void setItem(java.util.Map<String, AttributeValue> item) {
+        this.item = item;
+    }
+
+
+    public Put withItem(java.util.Map<String, AttributeValue> item) {
+        setItem(item);
+        return this;
+    }
+
+
+    public String getTableName() {
+        return tableName;
+    }
+
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+
+    public Put withTableName(String tableName) {
+        setTableName(tableName);
+        return this;
+    }
+
+
+    public String getConditionExpression() {
+        return conditionExpression;
+    }
+
+
+    public void setConditionExpression(String conditionExpression) {
+        this.conditionExpression = conditionExpression;
+    }
+
+
+    public Put withConditionExpression(String conditionExpression) {
+        setConditionExpression(conditionExpression);
+        return this;
+    }
+
+
+    public java.util.Map<String, String> getExpressionAttributeNames() {
+        return expressionAttributeNames;
+    }
+
+
+    public void setExpressionAttributeNames(java.util.Map<String, String> expressionAttributeNames) {
+        this.expressionAttributeNames = expressionAttributeNames;
+    }
+
+
+    public Put withExpressionAttributeNames(java.util.Map<String, String> expressionAttributeNames) {
+        setExpressionAttributeNames(expressionAttributeNames);
+        return this;
+    }
+
+
+    public java.util.Map<String, AttributeValue> getExpressionAttributeValues() {
+        return expressionAttributeValues;
+    }
+
+
+    public void setExpressionAttributeValues(java.util.Map<String, AttributeValue> expressionAttributeValues) {
+        this.expressionAttributeValues = expressionAttributeValues;
+    }
+
+
+    public Put withExpressionAttributeValues(java.util.Map<String, AttributeValue> expressionAttributeValues) {
+        setExpressionAttributeValues(expressionAttributeValues);
+        return this;
+    }
+
+
+    public String getReturnValuesOnConditionCheckFailure() {
+        return returnValuesOnConditionCheckFailure;
+    }
+
+
+    public void setReturnValuesOnConditionCheckFailure(String returnValuesOnConditionCheckFailure) {
+        this.returnValuesOnConditionCheckFailure = returnValuesOnConditionCheckFailure;
+    }
+
+
+    public Put withReturnValuesOnConditionCheckFailure(String returnValuesOnConditionCheckFailure) {
+        setReturnValuesOnConditionCheckFailure(returnValuesOnConditionCheckFailure);
+        return this;
+    }
+}
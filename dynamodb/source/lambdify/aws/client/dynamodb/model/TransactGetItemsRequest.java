@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+/**
+ * <br>
+ * Represents the input of a <code>TransactGetItems</code> operation: up to 100 items, from one or more tables, read
+ * as a consistent snapshot.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/TransactGetItems" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class TransactGetItemsRequest implements Serializable {
+
+    @JsonProperty("TransactItems")
+    private java.util.List<TransactGetItem> transactItems;
+
+    @JsonProperty("ReturnConsumedCapacity")
+    private String returnConsumedCapacity;
+
+
+    public java.util.List<TransactGetItem> getTransactItems() {
+        return transactItems;
+    }
+
+
+    public void setTransactItems(java.util.Collection<TransactGetItem> transactItems) {
+        if (transactItems == null) {
+            this.transactItems = null;
+            return;
+        }
+
+        this.transactItems = new java.util.ArrayList<TransactGetItem>(transactItems);
+    }
+
+
+    public TransactGetItemsRequest withTransactItems(TransactGetItem... transactItems) {
+        if (this.transactItems == null) {
+            this.transactItems = new java.util.ArrayList<TransactGetItem>(transactItems.length);
+        }
+        for (TransactGetItem ele : transactItems) {
+            this.transactItems.add(ele);
+        }
+        return this;
+    }
+
+
+    public TransactGetItemsRequest withTransactItems(java.util.Collection<TransactGetItem> transactItems) {
+        setTransactItems(transactItems);
+        return this;
+    }
+
+
+    public String getReturnConsumedCapacity() {
+        return returnConsumedCapacity;
+    }
+
+
+    public void setReturnConsumedCapacity(String returnConsumedCapacity) {
+        this.returnConsumedCapacity = returnConsumedCapacity;
+    }
+
+
+    public TransactGetItemsRequest withReturnConsumedCapacity(String returnConsumedCapacity) {
+        setReturnConsumedCapacity(returnConsumedCapacity);
+        return this;
+    }
+
+
+    public TransactGetItemsRequest withReturnConsumedCapacity(ReturnConsumedCapacity returnConsumedCapacity) {
+        this.returnConsumedCapacity = returnConsumedCapacity.toString();
+        return this;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+/**
+ * <br>
+ * Represents the output of a <code>TransactGetItems</code> operation.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/TransactGetItems" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class TransactGetItemsResult implements Serializable {
+
+    /**
+     * The retrieved items, in the same order as the requested ones.
+     */
+    @JsonProperty("Responses")
+    private java.util.List<ItemResponse> responses;
+
+    @JsonProperty("ConsumedCapacity")
+    private java.util.List<ConsumedCapacity> consumedCapacity;
+
+
+    public java.util.List<ItemResponse> getResponses() {
+        return responses;
+    }
+
+
+    public void setResponses(java.util.Collection<ItemResponse> responses) {
+        if (responses == null) {
+            this.responses = null;
+            return;
+        }
+
+        this.responses = new java.util.ArrayList<ItemResponse>(responses);
+    }
+
+
+    public TransactGetItemsResult withResponses(ItemResponse... responses) {
+        if (this.responses == null) {
+            this.responses = new java.util.ArrayList<ItemResponse>(responses.length);
+        }
+        for (ItemResponse ele : responses) {
+            this.responses.add(ele);
+        }
+        return this;
+    }
+
+
+    public TransactGetItemsResult withResponses(java.util.Collection<ItemResponse> responses) {
+        setResponses(responses);
+        return this;
+    }
+
+
+    public java.util.List<ConsumedCapacity> getConsumedCapacity() {
+        return consumedCapacity;
+    }
+
+
+    public void setConsumedCapacity(java.util.Collection<ConsumedCapacity> consumedCapacity) {
+        if (consumedCapacity == null) {
+            this.consumedCapacity = null;
+            return;
+        }
+
+        this.consumedCapacity = new java.util.ArrayList<ConsumedCapacity>(consumedCapacity);
+    }
+
+
+    public TransactGetItemsResult withConsumedCapacity(ConsumedCapacity... consumedCapacity) {
+        if (this.consumedCapacity == null) {
+            this.consumedCapacity = new java.util.ArrayList<ConsumedCapacity>(consumedCapacity.length);
+        }
+        for (ConsumedCapacity ele : consumedCapacity) {
+            this.consumedCapacity.add(ele);
+        }
+        return this;
+    }
+
+
+    public TransactGetItemsResult withConsumedCapacity(java.util.Collection<ConsumedCapacity> consumedCapacity) {
+        setConsumedCapacity(consumedCapacity);
+        return this;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+/**
+ * <br>
+ * A single action of a <code>TransactWriteItems</code> operation. Only one of its operations can be defined.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/TransactWriteItem" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class TransactWriteItem implements Serializable {
+
+    @JsonProperty("ConditionCheck")
+    private ConditionCheck conditionCheck;
+
+    @JsonProperty("Put")
+    private Put put;
+
+    @JsonProperty("Delete")
+    private Delete delete;
+
+    @JsonProperty("Update")
+    private Update update;
+
+
+    public ConditionCheck getConditionCheck() {
+        return conditionCheck;
+    }
+
+
+    public void setConditionCheck(ConditionCheck conditionCheck) {
+        this.conditionCheck = conditionCheck;
+    }
+
+
+    public TransactWriteItem withConditionCheck(ConditionCheck conditionCheck) {
+        setConditionCheck(conditionCheck);
+        return this;
+    }
+
+
+    public Put getPut() {
+        return put;
+    }
+
+
+    public void setPut(Put put) {
+        this.put = put;
+    }
+
+
+    public TransactWriteItem withPut(Put put) {
+        setPut(put);
+        return this;
+    }
+
+
+    public Delete getDelete() {
+        return delete;
+    }
+
+
+    public void setDelete(Delete delete) {
+        this.delete = delete;
+    }
+
+
+    public TransactWriteItem withDelete(Delete delete) {
+        setDelete(delete);
+        return this;
+    }
+
+
+    public Update getUpdate() {
+        return update;
+    }
+
+
+    public void setUpdate(Update update) {
+        this.update = update;
+    }
+
+
+    public TransactWriteItem withUpdate(Update update) {
+        setUpdate(update);
+        return this;
+    }
+}
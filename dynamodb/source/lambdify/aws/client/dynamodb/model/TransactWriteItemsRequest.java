@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+/**
+ * <br>
+ * Represents the input of a <code>TransactWriteItems</code> operation: up to 100 actions, on items of one or more
+ * tables, that either all succeed or all fail.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/TransactWriteItems" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+public class TransactWriteItemsRequest implements Serializable {
+
+    @JsonProperty("TransactItems")
+    private java.util.List<TransactWriteItem> transactItems;
+
+    /**
+     * Makes the call idempotent: sending again a request with the same token, within 10 minutes of
+     * the first one, will not perform its actions twice.
+     */
+    @JsonProperty("ClientRequestToken")
+    private String clientRequestToken;
+
+    @JsonProperty("ReturnConsumedCapacity")
+    private String returnConsumedCapacity;
+
+    @JsonProperty("ReturnItemCollectionMetrics")
+    private String returnItemCollectionMetrics;
+
+
+    public java.util.List<TransactWriteItem> getTransactItems() {
+        return transactItems;
+    }
+
+
+    public void setTransactItems(java.util.Collection<TransactWriteItem> transactItems) {
+        if (transactItems == null) {
+            this.transactItems = null;
+            return;
+        }
+
+        this.transactItems = new java.util.ArrayList<TransactWriteItem>(transactItems);
+    }
+
+
+    public TransactWriteItemsRequest withTransactItems(TransactWriteItem... transactItems) {
+        if (this.transactItems == null) {
+            this.transactItems = new java.util.ArrayList<TransactWriteItem>(transactItems.length);
+        }
+        for (TransactWriteItem ele : transactItems) {
+            this.transactItems.add(ele);
+        }
+        return this;
+    }
+
+
+    public TransactWriteItemsRequest withTransactItems(java.util.Collection<TransactWriteItem> transactItems) {
+        setTransactItems(transactItems);
+        return this;
+    }
+
+
+    public String getClientRequestToken() {
+        return clientRequestToken;
+    }
+
+
+    public void setClientRequestToken(String clientRequestToken) {
+        this.clientRequestToken = clientRequestToken;
+    }
+
+
+    public TransactWriteItemsRequest withClientRequestToken(String clientRequestToken) {
+        setClientRequestToken(clientRequestToken);
+        return this;
+    }
+
+
+    public String getReturnConsumedCapacity() {
+        return returnConsumedCapacity;
+    }
+
+
+    public void setReturnConsumedCapacity(String returnConsumedCapacity) {
+        this.returnConsumedCapacity = returnConsumedCapacity;
+    }
+
+
+    public TransactWriteItemsRequest withReturnConsumedCapacity(String returnConsumedCapacity) {
+        setReturnConsumedCapacity(returnConsumedCapacity);
+        return this;
+    }
+
+
+    public TransactWriteItemsRequest withReturnConsumedCapacity(ReturnConsumedCapacity returnConsumedCapacity) {
+        this.returnConsumedCapacity = returnConsumedCapacity.toString();
+        return this;
+    }
+
+
+    public String getReturnItemCollectionMetrics() {
+        return returnItemCollectionMetrics;
+    }
+
+
+    public void setReturnItemCollectionMetrics(String returnItemCollectionMetrics) {
+        this.returnItemCollectionMetrics = returnItemCollectionMetrics;
+    }
+
+
+    public TransactWriteItemsRequest withReturnItemCollectionMetrics(String returnItemCollectionMetrics) {
+        setReturnItemCollectionMetrics(returnItemCollectionMetrics);
+        return this;
+    }
+}
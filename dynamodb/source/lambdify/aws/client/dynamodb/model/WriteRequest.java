@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012-2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ * 
+ * http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package lambdify.aws.client.dynamodb.model;
+
+import java.io.Serializable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.*;
+
+/**
+ * <br>
+ * Represents an operation to perform, either <code>DeleteItem</code> or <code>PutItem</code>. Only one of them can be
+ * defined per request.
+ * <br>
+ *
+ * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/dynamodb-2012-08-10/WriteRequest" target="_top">AWS API
+ *      Documentation</a>
+ */
+@EqualsAndHashCode @ToString
+@NoArgsConstructor
+public class WriteRequest implements Serializable {
+
+    @JsonProperty("PutRequest")
+    private PutRequest putRequest;
+
+    @JsonProperty("DeleteRequest")
+    private DeleteRequest deleteRequest;
+
+
+    public WriteRequest(PutRequest putRequest) {
+        setPutRequest(putRequest);
+    }
+
+
+    public WriteRequest(DeleteRequest deleteRequest) {
+        setDeleteRequest(deleteRequest);
+    }
+
+
+    public PutRequest getPutRequest() {
+        return putRequest;
+    }
+
+
+    public void setPutRequest(PutRequest putRequest) {
+        this.putRequest = putRequest;
+    }
+
+
+    public WriteRequest withPutRequest(PutRequest putRequest) {
+        setPutRequest(putRequest);
+        return this;
+    }
+
+
+    public DeleteRequest getDeleteRequest() {
+        return deleteRequest;
+    }
+
+
+    public void setDeleteRequest(DeleteRequest deleteRequest) {
+        this.deleteRequest = deleteRequest;
+    }
+
+
+    public WriteRequest withDeleteRequest(DeleteRequest deleteRequest) {
+        setDeleteRequest(deleteRequest);
+        return this;
+    }
+
+    /**
+     * @return a request to put the given item.
+     */
+    public static WriteRequest put(java.util.Map<String, AttributeValue> item) {
+        return new WriteRequest(new PutRequest(item));
+    }
+
+    /**
+     * @return a request to delete the item identified by the given key.
+     */
+    public static WriteRequest delete(java.util.Map<String, AttributeValue> key) {
+        return new WriteRequest(new DeleteRequest(key));
+    }
+}
@@ -0,0 +1,91 @@
+package lambdify.aws.client.dynamodb;
+
+import static lambdify.aws.client.dynamodb.FakeDynamoDB.respond;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import lambdify.aws.client.core.http.HttpUtils.HttpResponse;
+import lambdify.aws.client.dynamodb.AmazonDynamoDB.TransactionCanceledException;
+import lambdify.aws.client.dynamodb.model.*;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ * Checks the transactional operations of {@link AmazonDynamoDB} against canned responses.
+ */
+class AmazonDynamoDBTransactionsTest {
+
+	static final Map<String, AttributeValue> KEY = Collections.singletonMap( "id", AttributeValue.create().withS( "1" ) );
+
+	final FakeDynamoDB fake = new FakeDynamoDB();
+	final AmazonDynamoDB dynamoDB = fake.client;
+
+	@Test
+	void sendsEveryActionInASingleRequest() {
+		val request = new TransactWriteItemsRequest().withTransactItems(
+			new TransactWriteItem().withConditionCheck( new ConditionCheck().withTableName( "Accounts" ).withKey( KEY ).withConditionExpression( "attribute_exists(id)" ) ),
+			new TransactWriteItem().withPut( new Put().withTableName( "Orders" ).withItem( KEY ) ),
+			new TransactWriteItem().withUpdate( new Update().withTableName( "Stock" ).withKey( KEY ).withUpdateExpression( "SET amount = amount - :one" ) )
+		);
+
+		dynamoDB.transactWriteItems( request );
+
+		assertEquals( 1, fake.requests.size() );
+		assertEquals( "DynamoDB_20120810.TransactWriteItems", fake.requests.get( 0 ).headers().get( "X-Amz-Target" ) );
+		val sent = sent( 0, TransactWriteItemsRequest.class );
+		assertEquals( 3, sent.getTransactItems().size() );
+		assertEquals( "SET amount = amount - :one", sent.getTransactItems().get( 2 ).getUpdate().getUpdateExpression() );
+	}
+
+	@Test
+	void keepsTheClientRequestTokenAcrossRetries() {
+		val request = new TransactWriteItemsRequest().withTransactItems(
+			new TransactWriteItem().withDelete( new Delete().withTableName( "Orders" ).withKey( KEY ) ) );
+
+		dynamoDB.transactWriteItems( request );
+		dynamoDB.transactWriteItems( request );
+
+		val token = sent( 0, TransactWriteItemsRequest.class ).getClientRequestToken();
+		assertNotNull( token );
+		assertEquals( token, sent( 1, TransactWriteItemsRequest.class ).getClientRequestToken() );
+
+		dynamoDB.transactWriteItems( request.withClientRequestToken( "mine" ) );
+		assertEquals( "mine", sent( 2, TransactWriteItemsRequest.class ).getClientRequestToken() );
+	}
+
+	@Test
+	void parsesTheCancellationReasons() {
+		val body = "{\"__type\":\"com.amazonaws.dynamodb.v20120810#TransactionCanceledException\","
+			+ "\"Message\":\"Transaction cancelled, please refer cancellation reasons for specific reasons [None, ConditionalCheckFailed]\","
+			+ "\"CancellationReasons\":[{\"Code\":\"None\"},{\"Code\":\"ConditionalCheckFailed\",\"Message\":\"The conditional request failed\"}]}";
+		fake.handler = request -> new HttpResponse( 400, new HashMap<>(), body.getBytes( StandardCharsets.UTF_8 ) );
+
+		val failure = assertThrows( TransactionCanceledException.class,
+			() -> dynamoDB.transactWriteItems( new TransactWriteItemsRequest() ) );
+
+		assertEquals( "TransactionCanceledException", failure.type() );
+		val reasons = failure.cancellationReasons();
+		assertEquals( 2, reasons.size() );
+		assertEquals( "None", reasons.get( 0 ).getCode() );
+		assertEquals( "ConditionalCheckFailed", reasons.get( 1 ).getCode() );
+		assertEquals( "The conditional request failed", reasons.get( 1 ).getMessage() );
+	}
+
+	@Test
+	void retrievesItemsInTheRequestedOrder() {
+		fake.handler = request -> respond( "{\"Responses\":[{\"Item\":{\"id\":{\"s\":\"1\"}}},{}]}" );
+
+		val result = dynamoDB.transactGetItems( new TransactGetItemsRequest().withTransactItems(
+			new TransactGetItem().withGet( new Get().withTableName( "Orders" ).withKey( KEY ) ),
+			new TransactGetItem().withGet( new Get().withTableName( "Orders" ).withKey( KEY ) ) ) );
+
+		assertEquals( "DynamoDB_20120810.TransactGetItems", fake.requests.get( 0 ).headers().get( "X-Amz-Target" ) );
+		assertEquals( "1", result.getResponses().get( 0 ).getItem().get( "id" ).getS() );
+		assertNull( result.getResponses().get( 1 ).getItem() );
+	}
+
+	<T> T sent( int index, Class<T> type ) {
+		return fake.read( fake.requests.get( index ), type );
+	}
+}
@@ -0,0 +1,144 @@
+package lambdify.aws.client.dynamodb;
+
+import static lambdify.aws.client.dynamodb.FakeDynamoDB.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.*;
+import lambdify.aws.client.core.http.HttpUtils.*;
+import lambdify.aws.client.dynamodb.AmazonDynamoDB.AmazonDynamoDBExecutionFailure;
+import lambdify.aws.client.dynamodb.model.*;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+class DynamoDBBatchGetterTest {
+
+	final FakeDynamoDB dynamoDB = new FakeDynamoDB().answer( BatchGetItemRequest.class, this::respondWithEveryItem );
+	final DynamoDBBatchGetter getter = new DynamoDBBatchGetter( dynamoDB.client ).baseBackoffMillis( 1 ).maxBackoffMillis( 5 );
+
+	@Test
+	void splitsKeysIntoRequestsOfAtMost100Keys() {
+		val result = getter.getAll( "Users", keys( 250 ) );
+
+		assertEquals( 3, requests().size() );
+		for ( val request : requests() )
+			assertTrue( request.getRequestItems().get( "Users" ).getKeys().size() <= 100 );
+		assertEquals( ids( keys( 250 ) ), ids( result.getResponses().get( "Users" ) ) );
+		assertTrue( result.getUnprocessedKeys().isEmpty() );
+	}
+
+	@Test
+	void splitsKeysOfSeveralTablesAcrossRequests() {
+		val requestItems = new LinkedHashMap<String, KeysAndAttributes>();
+		requestItems.put( "Users", new KeysAndAttributes().withKeys( keys( 60 ) ).withConsistentRead( true ) );
+		requestItems.put( "Orders", new KeysAndAttributes().withKeys( keys( 60 ) ) );
+
+		val chunks = DynamoDBBatchGetter.split( requestItems );
+
+		assertEquals( 2, chunks.size() );
+		assertEquals( 60, chunks.get( 0 ).get( "Users" ).getKeys().size() );
+		assertTrue( chunks.get( 0 ).get( "Users" ).getConsistentRead() );
+		assertEquals( 40, chunks.get( 0 ).get( "Orders" ).getKeys().size() );
+		assertEquals( 20, chunks.get( 1 ).get( "Orders" ).getKeys().size() );
+	}
+
+	@Test
+	void retriesUnprocessedKeys() {
+		val calls = new AtomicInteger();
+		dynamoDB.answer( BatchGetItemRequest.class, request -> {
+			val keys = request.getRequestItems().get( "Users" ).getKeys();
+			if ( calls.incrementAndGet() > 2 || keys.size() == 1 )
+				return respondWithEveryItem( request );
+			// processes only the first key
+			return respond( "{\"Responses\":{\"Users\":" + dynamoDB.json.serialize( keys.subList( 0, 1 ) ) + "},"
+				+ "\"UnprocessedKeys\":{\"Users\":{\"Keys\":" + dynamoDB.json.serialize( keys.subList( 1, keys.size() ) ) + "}}}" );
+		});
+
+		val result = getter.getAll( "Users", keys( 5 ) );
+
+		assertEquals( 3, requests().size() );
+		assertEquals( 4, requests().get( 1 ).getRequestItems().get( "Users" ).getKeys().size() );
+		assertEquals( ids( keys( 5 ) ), ids( result.getResponses().get( "Users" ) ) );
+		assertTrue( result.getUnprocessedKeys().isEmpty() );
+	}
+
+	@Test
+	void reportsKeysStillUnprocessedAfterTheLastAttempt() {
+		dynamoDB.answer( BatchGetItemRequest.class, request ->
+			respond( "{\"Responses\":{},\"UnprocessedKeys\":" + dynamoDB.json.serialize( request.getRequestItems() ) + "}" ) );
+
+		val result = getter.maxAttempts( 3 ).getAll( "Users", keys( 5 ) );
+
+		assertEquals( 3, requests().size() );
+		assertEquals( 5, result.getUnprocessedKeys().get( "Users" ).getKeys().size() );
+	}
+
+	@Test
+	void retriesThrottledRequests() {
+		val calls = new AtomicInteger();
+		dynamoDB.answer( BatchGetItemRequest.class, request -> calls.incrementAndGet() == 1
+			? failWith( "ProvisionedThroughputExceededException" )
+			: respondWithEveryItem( request ) );
+
+		val result = getter.getAll( "Users", keys( 3 ) );
+
+		assertEquals( 2, requests().size() );
+		assertEquals( 3, result.getResponses().get( "Users" ).size() );
+	}
+
+	@Test
+	void reportsKeysStillThrottledAfterTheLastAttempt() {
+		// the first 100 keys are always throttled, the last 50 are retrieved
+		dynamoDB.answer( BatchGetItemRequest.class, request -> request.getRequestItems().get( "Users" ).getKeys().size() == 100
+			? failWith( "ProvisionedThroughputExceededException" )
+			: respondWithEveryItem( request ) );
+
+		val result = getter.maxAttempts( 2 ).getAll( "Users", keys( 150 ) );
+
+		assertEquals( 3, requests().size() );
+		assertEquals( 50, result.getResponses().get( "Users" ).size() );
+		assertEquals( ids( keys( 100 ) ), ids( result.getUnprocessedKeys().get( "Users" ).getKeys() ) );
+	}
+
+	@Test
+	void failsOnOtherErrors() {
+		dynamoDB.answer( BatchGetItemRequest.class, request -> failWith( "ResourceNotFoundException" ) );
+
+		val failure = assertThrows( AmazonDynamoDBExecutionFailure.class, () -> getter.getAll( "Users", keys( 3 ) ) );
+		assertEquals( "ResourceNotFoundException", failure.type() );
+		assertEquals( 1, requests().size() );
+	}
+
+	@Test
+	void sumsTheConsumedCapacityByTable() {
+		dynamoDB.answer( BatchGetItemRequest.class, request ->
+			respond( "{\"Responses\":{},\"ConsumedCapacity\":[{\"TableName\":\"Users\",\"CapacityUnits\":1.5}]}" ) );
+
+		val result = getter.returnConsumedCapacity( ReturnConsumedCapacity.TOTAL ).getAll( "Users", keys( 150 ) );
+
+		assertEquals( "TOTAL", requests().get( 0 ).getReturnConsumedCapacity() );
+		assertEquals( 1, result.getConsumedCapacity().size() );
+		assertEquals( 3.0, result.getConsumedCapacity().get( 0 ).getCapacityUnits() );
+	}
+
+	HttpResponse respondWithEveryItem( BatchGetItemRequest request ) {
+		val responses = new LinkedHashMap<String, Object>();
+		request.getRequestItems().forEach( ( table, keys ) -> responses.put( table, keys.getKeys() ) );
+		return respond( "{\"Responses\":" + dynamoDB.json.serialize( responses ) + "}" );
+	}
+
+	List<BatchGetItemRequest> requests() {
+		return dynamoDB.sent( BatchGetItemRequest.class );
+	}
+
+	static List<Map<String, AttributeValue>> keys( int amount ) {
+		return IntStream.range( 0, amount )
+			.mapToObj( i -> Collections.singletonMap( "id", AttributeValue.create().withN( String.valueOf( i ) ) ) )
+			.collect( Collectors.toList() );
+	}
+
+	static Set<String> ids( List<Map<String, AttributeValue>> items ) {
+		return items.stream().map( item -> item.get( "id" ).getN() ).collect( Collectors.toSet() );
+	}
+}
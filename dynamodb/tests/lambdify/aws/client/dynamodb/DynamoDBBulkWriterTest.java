@@ -0,0 +1,126 @@
+package lambdify.aws.client.dynamodb;
+
+import static lambdify.aws.client.dynamodb.FakeDynamoDB.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.*;
+import lambdify.aws.client.dynamodb.AmazonDynamoDB.AmazonDynamoDBExecutionFailure;
+import lambdify.aws.client.dynamodb.model.*;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+class DynamoDBBulkWriterTest {
+
+	final FakeDynamoDB dynamoDB = new FakeDynamoDB().latency( 10 );
+	final DynamoDBBulkWriter writer = new DynamoDBBulkWriter( dynamoDB.client ).baseBackoffMillis( 1 ).maxBackoffMillis( 5 );
+
+	@Test
+	void packsOperationsIntoBatchesOf25Items() {
+		val result = writer.write( "Users", puts( 60 ) );
+
+		assertEquals( 3, requests().size() );
+		val sizes = requests().stream().map( r -> r.getRequestItems().get( "Users" ).size() ).sorted().collect( Collectors.toList() );
+		assertEquals( Arrays.asList( 10, 25, 25 ), sizes );
+		assertEquals( ids( puts( 60 ) ), ids( requests().stream().flatMap( r -> r.getRequestItems().get( "Users" ).stream() ) ) );
+		assertTrue( result.getUnprocessedItems().isEmpty() );
+	}
+
+	@Test
+	void keepsAtMostTheConfiguredAmountOfBatchesInFlight() {
+		writer.concurrency( 2 ).write( "Users", puts( 500 ) );
+
+		assertEquals( 20, requests().size() );
+		assertTrue( dynamoDB.maxInFlight.get() <= 2, "in flight: " + dynamoDB.maxInFlight.get() );
+	}
+
+	@Test
+	void resendsUnprocessedItems() {
+		val calls = new AtomicInteger();
+		dynamoDB.answer( BatchWriteItemRequest.class, request -> {
+			val items = request.getRequestItems().get( "Users" );
+			if ( calls.incrementAndGet() > 1 )
+				return respond( "{}" );
+			return respond( "{\"UnprocessedItems\":{\"Users\":" + dynamoDB.json.serialize( items.subList( 20, items.size() ) ) + "}}" );
+		});
+
+		val result = writer.write( "Users", puts( 25 ) );
+
+		assertEquals( 2, requests().size() );
+		assertEquals( ids( puts( 25 ).skip( 20 ) ), ids( requests().get( 1 ).getRequestItems().get( "Users" ).stream() ) );
+		assertTrue( result.getUnprocessedItems().isEmpty() );
+	}
+
+	@Test
+	void reportsItemsStillUnprocessedAfterTheLastAttempt() {
+		dynamoDB.answer( BatchWriteItemRequest.class, request ->
+			respond( "{\"UnprocessedItems\":" + dynamoDB.json.serialize( request.getRequestItems() ) + "}" ) );
+
+		val result = writer.maxAttempts( 2 ).write( "Users", puts( 5 ) );
+
+		assertEquals( 2, requests().size() );
+		assertEquals( 5, result.getUnprocessedItems().get( "Users" ).size() );
+	}
+
+	@Test
+	void retriesThrottledBatches() {
+		val calls = new AtomicInteger();
+		dynamoDB.answer( BatchWriteItemRequest.class, request -> calls.incrementAndGet() == 1
+			? failWith( "ThrottlingException" )
+			: respond( "{}" ) );
+
+		writer.write( "Users", puts( 3 ) );
+
+		assertEquals( 2, requests().size() );
+		assertEquals( ids( puts( 3 ) ), ids( requests().get( 1 ).getRequestItems().get( "Users" ).stream() ) );
+	}
+
+	@Test
+	void reportsBatchesStillThrottledAfterTheLastAttempt() {
+		// the first batch, of 25 items, is always throttled
+		dynamoDB.answer( BatchWriteItemRequest.class, request -> request.getRequestItems().get( "Users" ).size() == 25
+			? failWith( "ThrottlingException" )
+			: respond( "{}" ) );
+
+		val result = writer.maxAttempts( 2 ).write( "Users", puts( 30 ) );
+
+		assertEquals( 3, requests().size() );
+		assertEquals( ids( puts( 25 ) ), ids( result.getUnprocessedItems().get( "Users" ).stream() ) );
+	}
+
+	@Test
+	void stopsAtTheFirstFailedBatch() {
+		dynamoDB.handler = request -> failWith( "ValidationException" );
+		val pulled = new AtomicInteger();
+
+		val failure = assertThrows( AmazonDynamoDBExecutionFailure.class,
+			() -> writer.concurrency( 1 ).write( "Users", puts( 1000 ).peek( p -> pulled.incrementAndGet() ) ) );
+
+		assertEquals( "ValidationException", failure.type() );
+		assertTrue( pulled.get() < 1000 );
+	}
+
+	@Test
+	void sendsDeletes() {
+		writer.returnConsumedCapacity( ReturnConsumedCapacity.TOTAL )
+			.write( "Users", Stream.of( WriteRequest.delete( Collections.singletonMap( "id", AttributeValue.create().withN( "1" ) ) ) ) );
+
+		val sent = requests().get( 0 );
+		assertEquals( "TOTAL", sent.getReturnConsumedCapacity() );
+		assertEquals( "1", sent.getRequestItems().get( "Users" ).get( 0 ).getDeleteRequest().getKey().get( "id" ).getN() );
+	}
+
+	static Stream<WriteRequest> puts( int amount ) {
+		return IntStream.range( 0, amount )
+			.mapToObj( i -> WriteRequest.put( Collections.singletonMap( "id", AttributeValue.create().withN( String.valueOf( i ) ) ) ) );
+	}
+
+	static Set<String> ids( Stream<WriteRequest> operations ) {
+		return operations.map( o -> o.getPutRequest().getItem().get( "id" ).getN() ).collect( Collectors.toSet() );
+	}
+
+	List<BatchWriteItemRequest> requests() {
+		return dynamoDB.sent( BatchWriteItemRequest.class );
+	}
+}
@@ -0,0 +1,139 @@
+package lambdify.aws.client.dynamodb;
+
+import static lambdify.aws.client.dynamodb.FakeDynamoDB.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+import lambdify.aws.client.core.http.HttpUtils.HttpResponse;
+import lambdify.aws.client.dynamodb.AmazonDynamoDB.AmazonDynamoDBExecutionFailure;
+import lambdify.aws.client.dynamodb.model.*;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ * Scans a fake table of {@link #TABLE_SIZE} items, whose segments hold the items
+ * with {@code id % totalSegments == segment}, served 3 at a time.
+ */
+class DynamoDBParallelScannerTest {
+
+	static final int TABLE_SIZE = 100;
+
+	final FakeDynamoDB dynamoDB = new FakeDynamoDB().latency( 5 ).answer( ScanRequest.class, this::answer );
+	final List<ScanRequest> requests = Collections.synchronizedList( new ArrayList<>() );
+	final Set<String> failingStartKeys = ConcurrentHashMap.newKeySet();
+	String failure = "InternalServerError";
+
+	final DynamoDBParallelScanner scanner = new DynamoDBParallelScanner( dynamoDB.client ).totalSegments( 4 ).baseBackoffMillis( 1 ).maxBackoffMillis( 5 );
+
+	@Test
+	void scansEverySegmentConcurrently() {
+		val items = ConcurrentHashMap.<String>newKeySet();
+		scanner.scanItems( new ScanRequest().withTableName( "Events" ), item -> items.add( item.get( "id" ).getN() ) );
+
+		assertEquals( allIds(), items );
+		assertTrue( dynamoDB.maxInFlight.get() > 1 );
+		for ( val request : requests )
+			assertEquals( 4, (int) request.getTotalSegments() );
+	}
+
+	@Test
+	void handsEachSegmentItsOwnPagesInOrder() {
+		val segments = new ConcurrentHashMap<Integer, List<Integer>>();
+		scanner.scan( new ScanRequest().withTableName( "Events" ), ( segment, items ) ->
+			segments.computeIfAbsent( segment, s -> new ArrayList<>() ).addAll(
+				items.stream().map( item -> Integer.parseInt( item.get( "id" ).getN() ) ).collect( Collectors.toList() ) ) );
+
+		assertEquals( 4, segments.size() );
+		segments.forEach( ( segment, ids ) -> {
+			assertEquals( IntStream.range( 0, TABLE_SIZE ).filter( id -> id % 4 == segment ).boxed().collect( Collectors.toList() ), ids );
+		});
+	}
+
+	@Test
+	void mergesEverySegmentIntoAStream() {
+		try ( val items = scanner.stream( new ScanRequest().withTableName( "Events" ) ) ) {
+			assertEquals( allIds(), items.map( item -> item.get( "id" ).getN() ).collect( Collectors.toSet() ) );
+		}
+	}
+
+	@Test
+	void resumesFailedSegmentsFromTheirLastKey() {
+		failingStartKeys.add( "9" );
+		val items = ConcurrentHashMap.<String>newKeySet();
+
+		scanner.scanItems( new ScanRequest().withTableName( "Events" ), item -> items.add( item.get( "id" ).getN() ) );
+
+		assertEquals( allIds(), items );
+		val resumed = requests.stream().filter( r -> "9".equals( startKeyOf( r ) ) ).count();
+		assertEquals( 2, resumed );
+	}
+
+	@Test
+	void failsOnceAPageFailedEveryAttempt() {
+		failingStartKeys.add( "9" );
+		scanner.maxAttemptsPerPage( 1 );
+
+		assertThrows( AmazonDynamoDBExecutionFailure.class,
+			() -> scanner.stream( new ScanRequest().withTableName( "Events" ) ).count() );
+	}
+
+	@Test
+	void failsAtOnceOnErrorsThatCanNotBeRetried() {
+		failingStartKeys.add( "9" );
+		failure = "ValidationException";
+
+		val thrown = assertThrows( AmazonDynamoDBExecutionFailure.class,
+			() -> scanner.scanItems( new ScanRequest().withTableName( "Events" ), item -> {} ) );
+
+		assertEquals( "ValidationException", thrown.type() );
+		assertEquals( 1, requests.stream().filter( r -> "9".equals( startKeyOf( r ) ) ).count() );
+	}
+
+	@Test
+	void stopsScanningOnceTheStreamIsClosed() throws InterruptedException {
+		val segmentFinished = new CountDownLatch( 1 );
+		scanner.totalSegments( 1 ).executor( task -> new Thread( () -> {
+			try {
+				task.run();
+			} finally {
+				segmentFinished.countDown();
+			}
+		}).start() );
+
+		try ( val items = scanner.stream( new ScanRequest().withTableName( "Events" ) ) ) {
+			assertEquals( 2, items.limit( 2 ).count() );
+		}
+
+		assertTrue( segmentFinished.await( 5, TimeUnit.SECONDS ) );
+		assertTrue( requests.size() < TABLE_SIZE / 3 );
+	}
+
+	HttpResponse answer( ScanRequest scan ) {
+		requests.add( scan );
+		if ( startKeyOf( scan ) != null && failingStartKeys.remove( startKeyOf( scan ) ) )
+			return failWith( failure );
+		return respond( dynamoDB.json.serialize( page( scan ) ) );
+	}
+
+	static ScanResult page( ScanRequest request ) {
+		val segments = request.getTotalSegments();
+		val startKey = startKeyOf( request );
+		int id = startKey == null ? request.getSegment() : Integer.parseInt( startKey ) + segments;
+		val items = new ArrayList<Map<String, AttributeValue>>();
+		for ( ; id < TABLE_SIZE && items.size() < 3; id += segments )
+			items.add( Collections.singletonMap( "id", AttributeValue.create().withN( String.valueOf( id ) ) ) );
+		val result = new ScanResult().withItems( items ).withCount( items.size() );
+		return id < TABLE_SIZE ? result.withLastEvaluatedKey( items.get( items.size() - 1 ) ) : result;
+	}
+
+	static String startKeyOf( ScanRequest request ) {
+		val startKey = request.getExclusiveStartKey();
+		return startKey == null ? null : startKey.get( "id" ).getN();
+	}
+
+	static Set<String> allIds() {
+		return IntStream.range( 0, TABLE_SIZE ).mapToObj( String::valueOf ).collect( Collectors.toSet() );
+	}
+}
@@ -0,0 +1,85 @@
+package lambdify.aws.client.dynamodb;
+
+import static lambdify.aws.client.core.AwsCredentialsProvider.staticCredentials;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lambdify.aws.client.core.http.HttpUtils.*;
+import lombok.*;
+
+/**
+ * Stands for the DynamoDB endpoint of {@link #client}: every request is recorded,
+ * then answered by {@link #handler}, which the tests replace as they need.
+ */
+class FakeDynamoDB {
+
+	final JacksonSerializer json = new JacksonSerializer();
+	final List<HttpRequest> requests = Collections.synchronizedList( new ArrayList<>() );
+	final AtomicInteger inFlight = new AtomicInteger(), maxInFlight = new AtomicInteger();
+	volatile Function<HttpRequest, HttpResponse> handler = request -> respond( "{}" );
+
+	/**
+	 * Time each request takes to be answered.
+	 */
+	volatile long latencyMillis;
+
+	final AmazonDynamoDB client = AmazonDynamoDB.builder()
+		.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+		.setJsonSerializer( json )
+		.setHttpTransport( this::send )
+		.build();
+
+	FakeDynamoDB latency( long millis ) {
+		this.latencyMillis = millis;
+		return this;
+	}
+
+	/**
+	 * Answers every request through the given handler, which receives it deserialized.
+	 */
+	<T> FakeDynamoDB answer( Class<T> type, Function<T, HttpResponse> handler ) {
+		this.handler = request -> handler.apply( read( request, type ) );
+		return this;
+	}
+
+	/**
+	 * @return every request sent so far, deserialized.
+	 */
+	<T> List<T> sent( Class<T> type ) {
+		synchronized ( requests ) {
+			return requests.stream().map( request -> read( request, type ) ).collect( Collectors.toList() );
+		}
+	}
+
+	<T> T read( HttpRequest request, Class<T> type ) {
+		return json.deserialize( new String( request.body(), StandardCharsets.UTF_8 ), type );
+	}
+
+	private HttpResponse send( HttpRequest request ) {
+		requests.add( request );
+		maxInFlight.accumulateAndGet( inFlight.incrementAndGet(), Math::max );
+		try {
+			if ( latencyMillis > 0 )
+				sleep( latencyMillis );
+			return handler.apply( request );
+		} finally {
+			inFlight.decrementAndGet();
+		}
+	}
+
+	static HttpResponse respond( String body ) {
+		return new HttpResponse( 200, new HashMap<>(), body.getBytes( StandardCharsets.UTF_8 ) );
+	}
+
+	static HttpResponse failWith( String type ) {
+		val body = "{\"__type\":\"com.amazonaws.dynamodb.v20120810#" + type + "\",\"message\":\"failed\"}";
+		return new HttpResponse( 400, new HashMap<>(), body.getBytes( StandardCharsets.UTF_8 ) );
+	}
+
+	@SneakyThrows
+	static void sleep( long millis ) {
+		Thread.sleep( millis );
+	}
+}
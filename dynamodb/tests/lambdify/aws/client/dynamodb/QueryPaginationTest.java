@@ -0,0 +1,135 @@
+package lambdify.aws.client.dynamodb;
+
+import static lambdify.aws.client.dynamodb.FakeDynamoDB.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+import lambdify.aws.client.core.http.HttpUtils.HttpResponse;
+import lambdify.aws.client.dynamodb.AmazonDynamoDB.AmazonDynamoDBExecutionFailure;
+import lambdify.aws.client.dynamodb.model.*;
+import lambdify.aws.events.dynamodb.AttributeValue;
+import lombok.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Checks {@link AmazonDynamoDB#queryPaginated(QueryRequest, int, long)} against
+ * a partition of {@link #PARTITION_SIZE} items, served 3 at a time by default.
+ */
+class QueryPaginationTest {
+
+	static final int PARTITION_SIZE = 10;
+
+	final FakeDynamoDB fake = new FakeDynamoDB().answer( QueryRequest.class, this::answer );
+	final AmazonDynamoDB dynamoDB = fake.client;
+	final List<QueryRequest> requests = Collections.synchronizedList( new ArrayList<>() );
+	int failingPage = -1;
+
+	@Test
+	void readsEveryPage() {
+		val request = new QueryRequest().withTableName( "Events" );
+
+		val ids = dynamoDB.queryPaginated( request ).map( item -> item.get( "id" ).getN() ).collect( Collectors.toList() );
+
+		assertEquals( IntStream.range( 0, PARTITION_SIZE ).mapToObj( String::valueOf ).collect( Collectors.toList() ), ids );
+		assertEquals( 4, requests.size() );
+		assertNull( requests.get( 0 ).getExclusiveStartKey() );
+		assertEquals( "2", requests.get( 1 ).getExclusiveStartKey().get( "id" ).getN() );
+		assertEquals( "8", requests.get( 3 ).getExclusiveStartKey().get( "id" ).getN() );
+		assertNull( request.getExclusiveStartKey() );
+	}
+
+	@Test
+	void stopsAtTheItemCap() {
+		val items = dynamoDB.queryPaginated( new QueryRequest().withTableName( "Events" ).withLimit( 3 ), 1, 5 ).count();
+
+		assertEquals( 5, items );
+		assertEquals( 2, requests.size() );
+		assertEquals( 3, (int) requests.get( 0 ).getLimit() );
+		assertEquals( 2, (int) requests.get( 1 ).getLimit() );
+	}
+
+	@Test
+	void prefetchesPagesAheadOfTheConsumer() throws InterruptedException {
+		val items = dynamoDB.queryPaginated( new QueryRequest().withTableName( "Events" ).withLimit( 2 ), 2, Long.MAX_VALUE ).iterator();
+
+		assertEquals( "0", items.next().get( "id" ).getN() );
+		// the first page was taken, thus two more are fetched ahead
+		waitForRequests( 3 );
+		Thread.sleep( 50 );
+		assertEquals( 3, requests.size() );
+
+		int consumed = 1;
+		while ( items.hasNext() ) {
+			items.next();
+			consumed++;
+		}
+		assertEquals( PARTITION_SIZE, consumed );
+		assertEquals( 5, requests.size() );
+	}
+
+	@Test
+	void readsEveryPageCompletedOnAnotherThread() {
+		val executor = Executors.newSingleThreadExecutor();
+		try {
+			for ( int i = 0; i < 2000; i++ ) {
+				val pages = new PrefetchingPages<QueryResult>(
+					( startKey, remaining ) -> CompletableFuture.supplyAsync( () -> page( new QueryRequest().withExclusiveStartKey( startKey ) ), executor ),
+					QueryResult::getLastEvaluatedKey, QueryResult::getCount, null, 1, Long.MAX_VALUE );
+				int items = 0;
+				while ( pages.hasNext() )
+					items += pages.next().getCount();
+				assertEquals( PARTITION_SIZE, items, "iteration " + i );
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void failsWhenReachingAFailedPage() {
+		failingPage = 1;
+		val items = dynamoDB.queryPaginated( new QueryRequest().withTableName( "Events" ) ).iterator();
+
+		for ( int i = 0; i < 3; i++ )
+			items.next();
+		assertThrows( AmazonDynamoDBExecutionFailure.class, items::next );
+	}
+
+	@Test
+	void countsWithoutReadingItems() {
+		val request = new QueryRequest().withTableName( "Events" ).withSelect( "COUNT" );
+
+		assertEquals( 0, dynamoDB.queryPaginated( request ).count() );
+		assertEquals( 4, requests.size() );
+		val counted = dynamoDB.queryPages( request, 1, Long.MAX_VALUE ).mapToInt( QueryResult::getCount ).sum();
+		assertEquals( PARTITION_SIZE, counted );
+	}
+
+	HttpResponse answer( QueryRequest query ) {
+		requests.add( query );
+		if ( requests.size() - 1 == failingPage )
+			return failWith( "InternalServerError" );
+		return respond( fake.json.serialize( page( query ) ) );
+	}
+
+	static QueryResult page( QueryRequest request ) {
+		val startKey = request.getExclusiveStartKey();
+		val from = startKey == null ? 0 : Integer.parseInt( startKey.get( "id" ).getN() ) + 1;
+		val limit = request.getLimit() != null ? request.getLimit() : 3;
+		val to = Math.min( PARTITION_SIZE, from + limit );
+		val items = IntStream.range( from, to ).mapToObj( QueryPaginationTest::item ).collect( Collectors.toList() );
+		val result = new QueryResult().withItems( "COUNT".equals( request.getSelect() ) ? null : items ).withCount( items.size() );
+		return to < PARTITION_SIZE ? result.withLastEvaluatedKey( item( to - 1 ) ) : result;
+	}
+
+	static Map<String, AttributeValue> item( int id ) {
+		return Collections.singletonMap( "id", AttributeValue.create().withN( String.valueOf( id ) ) );
+	}
+
+	@SneakyThrows
+	void waitForRequests( int amount ) {
+		for ( int i = 0; i < 200 && requests.size() < amount; i++ )
+			Thread.sleep( 5 );
+	}
+}
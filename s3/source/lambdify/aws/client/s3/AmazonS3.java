@@ -2,6 +2,15 @@ package lambdify.aws.client.s3;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.*;
+import java.util.concurrent.*;
 import lambdify.aws.client.core.*;
 import lambdify.aws.client.core.http.*;
 import lambdify.aws.client.core.http.HttpUtils.*;
@@ -16,28 +25,159 @@ import lombok.experimental.*;
 @Getter @Accessors(fluent = true)
 public class AmazonS3 extends AmazonClient {
 
+	static final String CHECKSUM_CRC32C_HEADER = AwsChunkedTrailerPayload.CHECKSUM_CRC32C_HEADER;
+	static final long MAX_MAPPED_REGION_SIZE = Integer.MAX_VALUE;
+	static final int MAX_KEYS_PER_DELETE = 1000;
+
+	boolean crc32cChecksum;
+
 	public AmazonS3(
 			AwsClientJsonSerializer jsonSerializer, AwsCredentialsProvider provider,
 			AuthorizationHeaderAWS4Signer signer, String host) {
+		this( jsonSerializer, provider, signer, host, false );
+	}
+
+	public AmazonS3(
+			AwsClientJsonSerializer jsonSerializer, AwsCredentialsProvider provider,
+			AuthorizationHeaderAWS4Signer signer, String host, boolean crc32cChecksum) {
 		super( jsonSerializer, provider, signer, host );
+		this.crc32cChecksum = crc32cChecksum;
 	}
 
+	/**
+	 * Retrieves the object. Its content is read straight from the connection as
+	 * the caller consumes it, thus the returned object should always be closed.
+	 */
 	public S3Object getObject( String bucket, String key ) {
+		val request = new HttpUtils.HttpRequest().endpoint( buildEndpoint( bucket, key ) ).method( Methods.GET );
+		val response = sendStreamingRequest( request );
+		return toS3Object( bucket, key, response );
+	}
 
+	public CompletableFuture<S3Object> getObjectAsync( String bucket, String key ) {
 		val request = new HttpUtils.HttpRequest().endpoint( buildEndpoint( bucket, key ) ).method( Methods.GET );
-		val response = sendRequest( request );
+		return sendStreamingRequestAsync( request ).thenApply( response -> toS3Object( bucket, key, response ) );
+	}
+
+	/**
+	 * Retrieves the bytes from {@code fromByte} to {@code toByte} (both inclusive)
+	 * of the object. The returned range, and the whole object size, are available
+	 * through {@link ObjectMetadata#getContentRange()} and {@link ObjectMetadata#getInstanceLength()}.
+	 */
+	public S3Object getObject( String bucket, String key, long fromByte, long toByte ) {
+		return toS3Object( bucket, key, sendStreamingRequest( createRangedGetRequest( bucket, key, range( fromByte, toByte ) ) ) );
+	}
+
+	public CompletableFuture<S3Object> getObjectAsync( String bucket, String key, long fromByte, long toByte ) {
+		return sendStreamingRequestAsync( createRangedGetRequest( bucket, key, range( fromByte, toByte ) ) )
+			.thenApply( response -> toS3Object( bucket, key, response ) );
+	}
+
+	/**
+	 * Retrieves the last {@code length} bytes of the object, like footers and
+	 * indexes, without knowing its size beforehand.
+	 */
+	public S3Object getObjectSuffix( String bucket, String key, long length ) {
+		return toS3Object( bucket, key, sendStreamingRequest( createRangedGetRequest( bucket, key, suffixRange( length ) ) ) );
+	}
+
+	public CompletableFuture<S3Object> getObjectSuffixAsync( String bucket, String key, long length ) {
+		return sendStreamingRequestAsync( createRangedGetRequest( bucket, key, suffixRange( length ) ) )
+			.thenApply( response -> toS3Object( bucket, key, response ) );
+	}
+
+	HttpRequest createRangedGetRequest( String bucket, String key, String range ) {
+		return new HttpUtils.HttpRequest().endpoint( buildEndpoint( bucket, key ) ).method( Methods.GET )
+			.putHeader( "Range", range );
+	}
+
+	static String range( long fromByte, long toByte ) {
+		if ( fromByte < 0 || toByte < fromByte )
+			throw new IllegalArgumentException( "Invalid range: " + fromByte + "-" + toByte );
+		return "bytes=" + fromByte + "-" + toByte;
+	}
+
+	static String suffixRange( long length ) {
+		if ( length <= 0 )
+			throw new IllegalArgumentException( "Invalid suffix length: " + length );
+		return "bytes=-" + length;
+	}
+
+	static S3Object toS3Object( String bucket, String key, StreamingHttpResponse response ) {
 		val headers = response.flatHeaders();
 		return new S3Object().setKey( key ).setBucketName( bucket )
 				.setMetadata( new ObjectMetadata().setMetadata( headers ) )
-				.setObjectContent( new ByteArrayInputStream( response.response() ) );
+				.setObjectContent( response.body() );
 	}
 
 	public void putObject(String bucket, String key, byte[] bytes ) {
+		sendRequest( createPutObjectRequest( bucket, key, bytes ) ).release();
+	}
+
+	public CompletableFuture<Void> putObjectAsync(String bucket, String key, byte[] bytes ) {
+		return sendRequestAsync( createPutObjectRequest( bucket, key, bytes ) ).thenAccept( HttpResponse::release );
+	}
+
+	private HttpRequest createPutObjectRequest(String bucket, String key, byte[] bytes ) {
 		val request = new HttpUtils.HttpRequest().endpoint( buildEndpoint( bucket, key ) )
 				.method( Methods.PUT )
 				.putHeader( "Content-Length", String.valueOf( bytes.length ) )
 				.body( bytes );
-		sendRequest( request );
+		if ( crc32cChecksum ) {
+			val checksum = new Crc32c();
+			checksum.update( bytes );
+			request.putHeader( CHECKSUM_CRC32C_HEADER, checksum.toBase64() );
+		}
+		return request;
+	}
+
+	/**
+	 * Uploads the file content. See {@link #putObject(String, String, Path)}.
+	 *
+	 * @param bucket
+	 * @param key
+	 * @param file
+	 */
+	public void putObject(String bucket, String key, File file ) {
+		putObject( bucket, key, file.toPath() );
+	}
+
+	/**
+	 * Uploads the file content. The file is memory-mapped, thus it is hashed and
+	 * sent straight from the page cache: the heap used doesn't depend on the file size.
+	 *
+	 * @param bucket
+	 * @param key
+	 * @param file
+	 */
+	public void putObject(String bucket, String key, Path file ) {
+		try ( val channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+			val size = channel.size();
+			val regions = map( channel, 0, size );
+			val endpoint = buildEndpoint( bucket, key );
+			val request = new HttpUtils.HttpRequest().endpoint( endpoint )
+					.method( Methods.PUT )
+					.body( output -> write( regions, output ), size );
+			if ( getSigner().isPayloadSigned( endpoint ) )
+				request.contentSha256( getSigner().hashPayload( regions ) );
+			if ( crc32cChecksum )
+				request.putHeader( CHECKSUM_CRC32C_HEADER, checksumOf( regions ) );
+			sendRequest( request ).release();
+		} catch ( IOException e ) {
+			throw new HttpException( "Unable to read " + file + ". " + e.getMessage(), e );
+		}
+	}
+
+	/**
+	 * Maps the file region, split in as many buffers as needed as each one
+	 * can't be larger than 2GB. Mappings remain valid once the channel is closed.
+	 */
+	static List<ByteBuffer> map( FileChannel channel, long position, long length ) throws IOException {
+		val regions = new ArrayList<ByteBuffer>();
+		val end = position + length;
+		for ( long start = position; start < end; start += MAX_MAPPED_REGION_SIZE )
+			regions.add( channel.map( FileChannel.MapMode.READ_ONLY, start, Math.min( MAX_MAPPED_REGION_SIZE, end - start ) ) );
+		return regions;
 	}
 
 	public void putObject(String bucket, String key, Object object ) {
@@ -45,13 +185,470 @@ public class AmazonS3 extends AmazonClient {
 		putObject( bucket, key, bytes );
 	}
 
+	/**
+	 * Uploads the stream content, reading it as it is sent. When the payload is
+	 * signed it is sent with the aws-chunked encoding, each chunk being signed as
+	 * it is read, so memory usage stays constant regardless of the object size.
+	 *
+	 * S3 requires the content length of the object to be known up front, even
+	 * for aws-chunked uploads. Content of unknown length should be uploaded
+	 * in parts instead.
+	 *
+	 * When the CRC32C checksum is enabled and the payload is not signed, the
+	 * checksum is computed while the stream is sent, and sent as an aws-chunked
+	 * trailer. Signed payloads don't carry it, as every chunk is already signed.
+	 *
+	 * @param bucket
+	 * @param key
+	 * @param content
+	 * @param contentLength
+	 */
+	public void putObject(String bucket, String key, InputStream content, long contentLength ) {
+		val endpoint = buildEndpoint( bucket, key );
+		val request = new HttpUtils.HttpRequest().endpoint( endpoint ).method( Methods.PUT );
+		if ( getSigner().isPayloadSigned( endpoint ) )
+			request.bodyWriter( new AwsChunkedPayload( content, contentLength ) );
+		else if ( crc32cChecksum )
+			new AwsChunkedTrailerPayload( content, contentLength ).applyTo( request );
+		else
+			request.body( output -> copy( content, output ), contentLength );
+		sendRequest( request ).release();
+	}
+
+	private static void copy( InputStream input, OutputStream output ) throws IOException {
+		val buffer = new byte[ 64 * 1024 ];
+		int read;
+		while ( (read = input.read( buffer )) != -1 )
+			output.write( buffer, 0, read );
+	}
+
+	private static String checksumOf( List<ByteBuffer> regions ) {
+		val checksum = new Crc32c();
+		for ( val region : regions )
+			checksum.update( region.duplicate() );
+		return checksum.toBase64();
+	}
+
+	/**
+	 * Lists the objects of a bucket, a page at a time.
+	 *
+	 * @param request
+	 * @return a page with up to {@link ListObjectsV2Request#getMaxKeys()} objects.
+	 */
+	public ListObjectsV2Result listObjectsV2( ListObjectsV2Request request ) {
+		return parseListObjectsV2Result( sendRequest( createListObjectsV2Request( request ) ) );
+	}
+
+	public ListObjectsV2Result listObjectsV2( String bucket, String prefix ) {
+		return listObjectsV2( new ListObjectsV2Request().setBucketName( bucket ).setPrefix( prefix ) );
+	}
+
+	public CompletableFuture<ListObjectsV2Result> listObjectsV2Async( ListObjectsV2Request request ) {
+		return sendRequestAsync( createListObjectsV2Request( request ) ).thenApply( AmazonS3::parseListObjectsV2Result );
+	}
+
+	/**
+	 * Lazily lists every page, following the continuation tokens. The next page
+	 * is requested as soon as the previous one is handed to the caller, thus it
+	 * is retrieved while the caller consumes the current one.
+	 *
+	 * @param request the first page request, which is left untouched.
+	 * @return
+	 */
+	public Stream<ListObjectsV2Result> listObjectsV2Pages( ListObjectsV2Request request ) {
+		val pages = new ListObjectsV2Pages( this, request );
+		return StreamSupport.stream( Spliterators.spliteratorUnknownSize( pages, Spliterator.ORDERED | Spliterator.NONNULL ), false );
+	}
+
+	/**
+	 * Lazily lists every object, prefetching the pages as {@link #listObjectsV2Pages(ListObjectsV2Request)} does.
+	 */
+	public Stream<S3ObjectSummary> listAllObjectsV2( ListObjectsV2Request request ) {
+		return listObjectsV2Pages( request ).flatMap( page -> page.getObjectSummaries().stream() );
+	}
+
+	private HttpRequest createListObjectsV2Request( ListObjectsV2Request request ) {
+		// keys are URL encoded by S3, as XML 1.0 can't represent every character they may contain
+		val query = new StringBuilder( "list-type=2&encoding-type=url" );
+		appendParameter( query, "prefix", request.getPrefix() );
+		appendParameter( query, "delimiter", request.getDelimiter() );
+		appendParameter( query, "max-keys", request.getMaxKeys() );
+		appendParameter( query, "continuation-token", request.getContinuationToken() );
+		appendParameter( query, "start-after", request.getStartAfter() );
+		return new HttpUtils.HttpRequest().method( Methods.GET )
+				.endpoint( buildEndpoint( request.getBucketName(), "/", query.toString() ) );
+	}
+
+	private static void appendParameter( StringBuilder query, String name, Object value ) {
+		if ( value != null )
+			query.append( '&' ).append( name ).append( '=' ).append( HttpUtils.urlEncode( value.toString() ) );
+	}
+
+	static ListObjectsV2Result parseListObjectsV2Result( HttpResponse response ) {
+		final String xml;
+		try {
+			xml = response.responseAsString();
+		} finally {
+			response.release();
+		}
+
+		val encoded = "url".equals( Xml.text( xml, "EncodingType" ) );
+		val commonPrefixesStart = xml.indexOf( "<CommonPrefixes" );
+		val head = commonPrefixesStart < 0 ? xml : xml.substring( 0, commonPrefixesStart );
+		val result = new ListObjectsV2Result()
+				.setBucketName( Xml.text( xml, "Name" ) )
+				.setPrefix( decodeKey( Xml.text( head, "Prefix" ), encoded ) )
+				.setDelimiter( decodeKey( Xml.text( xml, "Delimiter" ), encoded ) )
+				.setKeyCount( parseInt( Xml.text( xml, "KeyCount" ) ) )
+				.setTruncated( "true".equals( Xml.text( xml, "IsTruncated" ) ) )
+				.setContinuationToken( Xml.text( xml, "ContinuationToken" ) )
+				.setNextContinuationToken( Xml.text( xml, "NextContinuationToken" ) );
+
+		for ( val contents : Xml.elements( xml, "Contents" ) ) {
+			val size = Xml.text( contents, "Size" );
+			result.getObjectSummaries().add( new S3ObjectSummary()
+					.setBucketName( result.getBucketName() )
+					.setKey( decodeKey( Xml.text( contents, "Key" ), encoded ) )
+					.setETag( Xml.text( contents, "ETag" ) )
+					.setSize( size == null ? 0 : Long.parseLong( size ) )
+					.setLastModified( Xml.text( contents, "LastModified" ) )
+					.setStorageClass( Xml.text( contents, "StorageClass" ) ) );
+		}
+		for ( val commonPrefix : Xml.elements( xml, "CommonPrefixes" ) )
+			result.getCommonPrefixes().add( decodeKey( Xml.text( commonPrefix, "Prefix" ), encoded ) );
+		return result;
+	}
+
+	private static int parseInt( String value ) {
+		return value == null ? 0 : Integer.parseInt( value );
+	}
+
+	private static String decodeKey( String key, boolean encoded ) {
+		if ( key == null || !encoded )
+			return key;
+		try {
+			return URLDecoder.decode( key, "UTF-8" );
+		} catch ( UnsupportedEncodingException e ) {
+			throw new IllegalStateException( e );
+		}
+	}
+
+	public void deleteObject( String bucket, String key ) {
+		sendRequest( new HttpUtils.HttpRequest().endpoint( buildEndpoint( bucket, key ) ).method( Methods.DELETE ) ).release();
+	}
+
+	/**
+	 * Deletes the objects through Multi-Object Delete requests of up to 1000 keys,
+	 * sent concurrently (up to the client's max in-flight requests). Each request
+	 * body is only built once it can be sent, thus any amount of keys can be deleted.
+	 *
+	 * Keys that can't be deleted are reported along with the reason, including
+	 * the keys of requests that failed as a whole.
+	 *
+	 * @param bucket
+	 * @param keys object keys, with or without a leading slash as in {@link #deleteObject(String, String)}.
+	 * @return
+	 */
+	public DeleteObjectsResult deleteObjects( String bucket, Collection<String> keys ) {
+		return deleteObjectsAsync( bucket, keys ).join();
+	}
+
+	public CompletableFuture<DeleteObjectsResult> deleteObjectsAsync( String bucket, Collection<String> keys ) {
+		val batches = new ArrayList<CompletableFuture<DeleteObjectsResult>>();
+		val iterator = keys.iterator();
+		while ( iterator.hasNext() ) {
+			val batch = new ArrayList<String>( Math.min( MAX_KEYS_PER_DELETE, keys.size() ) );
+			while ( iterator.hasNext() && batch.size() < MAX_KEYS_PER_DELETE ) {
+				val key = iterator.next();
+				batch.add( key.startsWith( "/" ) ? key.substring( 1 ) : key );
+			}
+			batches.add( sendRequestAsync( () -> createDeleteObjectsRequest( bucket, batch ) )
+					.thenApply( response -> parseDeleteObjectsResult( response, batch ) )
+					.exceptionally( cause -> failedDeletion( batch, cause ) ) );
+		}
+
+		return CompletableFuture.allOf( batches.toArray( new CompletableFuture<?>[0] ) ).thenApply( done -> {
+			val result = new DeleteObjectsResult();
+			for ( val batch : batches ) {
+				result.getDeletedKeys().addAll( batch.join().getDeletedKeys() );
+				result.getErrors().addAll( batch.join().getErrors() );
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * Builds the request in quiet mode, thus S3 only answers with the keys it
+	 * failed to delete. The Content-MD5 S3 requires is computed as the body is written.
+	 */
+	private HttpRequest createDeleteObjectsRequest( String bucket, List<String> keys ) {
+		val md5 = newMd5();
+		val body = new ByteArrayOutputStream( 64 + keys.size() * 64 );
+		try ( val writer = new OutputStreamWriter( new DigestOutputStream( body, md5 ), StandardCharsets.UTF_8 ) ) {
+			writer.write( "<Delete><Quiet>true</Quiet>" );
+			for ( val key : keys )
+				writer.append( "<Object><Key>" ).append( Xml.escape( key ) ).append( "</Key></Object>" );
+			writer.write( "</Delete>" );
+		} catch ( IOException e ) {
+			throw new IllegalStateException( e );
+		}
+		return new HttpUtils.HttpRequest().method( Methods.POST )
+				.endpoint( buildEndpoint( bucket, "/", "delete" ) )
+				.putHeader( "Content-MD5", Base64.getEncoder().encodeToString( md5.digest() ) )
+				.body( body.toByteArray() );
+	}
+
+	private static MessageDigest newMd5() {
+		try {
+			return MessageDigest.getInstance( "MD5" );
+		} catch ( NoSuchAlgorithmException e ) {
+			throw new IllegalStateException( "MD5 is not available", e );
+		}
+	}
+
+	private static DeleteObjectsResult parseDeleteObjectsResult( HttpResponse response, List<String> keys ) {
+		final String xml;
+		try {
+			xml = response.responseAsString();
+		} finally {
+			response.release();
+		}
+		if ( response.status() > 299 )
+			throw new AmazonS3ExecutionFailure( xml );
+
+		val result = new DeleteObjectsResult();
+		val failed = new HashSet<String>();
+		for ( val error : Xml.elements( xml, "Error" ) ) {
+			val key = Xml.text( error, "Key" );
+			failed.add( key );
+			result.getErrors().add( new DeleteObjectsResult.DeleteError( key, Xml.text( error, "Code" ), Xml.text( error, "Message" ) ) );
+		}
+		for ( val key : keys )
+			if ( !failed.contains( key ) )
+				result.getDeletedKeys().add( key );
+		return result;
+	}
+
+	private static DeleteObjectsResult failedDeletion( List<String> keys, Throwable cause ) {
+		val reason = cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+		val result = new DeleteObjectsResult();
+		for ( val key : keys )
+			result.getErrors().add( new DeleteObjectsResult.DeleteError( key, "RequestFailed", reason.getMessage() ) );
+		return result;
+	}
+
+	/**
+	 * Starts a multipart upload, whose parts are then sent through the
+	 * {@code uploadPart} methods.
+	 *
+	 * @param bucket
+	 * @param key
+	 * @return the upload id.
+	 */
+	public String createMultipartUpload(String bucket, String key ) {
+		val request = new HttpUtils.HttpRequest().endpoint( buildEndpoint( bucket, key, "uploads" ) ).method( Methods.POST );
+		return Xml.text( bodyOf( sendRequest( request ) ), "UploadId" );
+	}
+
+	/**
+	 * Uploads a part of a multipart upload. Every part but the last one should
+	 * have at least 5MB.
+	 *
+	 * @return the part ETag, required to complete the upload.
+	 */
+	public String uploadPart(String bucket, String key, String uploadId, int partNumber, byte[] bytes ) {
+		val request = createUploadPartRequest( bucket, key, uploadId, partNumber ).body( bytes );
+		return eTagOf( sendRequest( request ) );
+	}
+
+	/**
+	 * Uploads the remaining bytes of the buffer (heap or direct) as a part of a
+	 * multipart upload, without changing the buffer position.
+	 *
+	 * @return the part ETag, required to complete the upload.
+	 */
+	public String uploadPart(String bucket, String key, String uploadId, int partNumber, ByteBuffer buffer ) {
+		val request = createUploadPartRequest( bucket, key, uploadId, partNumber )
+				.body( output -> write( buffer.duplicate(), output ), buffer.remaining() );
+		if ( getSigner().isPayloadSigned( request.endpoint() ) )
+			request.contentSha256( getSigner().hashPayload( buffer ) );
+		return eTagOf( sendRequest( request ) );
+	}
+
+	/**
+	 * Uploads a region of the file as a part of a multipart upload. The region
+	 * is read with positional reads, as it is sent, thus it is never fully loaded
+	 * in memory.
+	 *
+	 * @return the part ETag, required to complete the upload.
+	 */
+	public String uploadPart(String bucket, String key, String uploadId, int partNumber, Path file, long position, long length ) {
+		try ( val channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+			if ( position + length > channel.size() )
+				throw new EOFException( file + " ends before the part end (" + (position + length) + ")" );
+			val regions = map( channel, position, length );
+			val request = createUploadPartRequest( bucket, key, uploadId, partNumber )
+					.body( output -> write( regions, output ), length );
+			if ( getSigner().isPayloadSigned( request.endpoint() ) )
+				request.contentSha256( getSigner().hashPayload( regions ) );
+			return eTagOf( sendRequest( request ) );
+		} catch ( IOException e ) {
+			throw new HttpException( "Unable to read " + file + ". " + e.getMessage(), e );
+		}
+	}
+
+	private HttpRequest createUploadPartRequest(String bucket, String key, String uploadId, int partNumber ) {
+		if ( partNumber < 1 || partNumber > 10_000 )
+			throw new IllegalArgumentException( "Part numbers should be between 1 and 10000: " + partNumber );
+		val query = "partNumber=" + partNumber + "&uploadId=" + HttpUtils.urlEncode( uploadId );
+		return new HttpUtils.HttpRequest().endpoint( buildEndpoint( bucket, key, query ) ).method( Methods.PUT );
+	}
+
+	/**
+	 * Assembles the uploaded parts into the final object.
+	 *
+	 * @param bucket
+	 * @param key
+	 * @param uploadId
+	 * @param parts the uploaded parts, in any order.
+	 */
+	public void completeMultipartUpload(String bucket, String key, String uploadId, List<PartETag> parts ) {
+		val sorted = new ArrayList<PartETag>( parts );
+		sorted.sort( Comparator.comparingInt( PartETag::getPartNumber ) );
+		val body = new StringBuilder( 64 + sorted.size() * 96 ).append( "<CompleteMultipartUpload>" );
+		for ( val part : sorted )
+			body.append( "<Part><PartNumber>" ).append( part.getPartNumber() ).append( "</PartNumber><ETag>" )
+				.append( Xml.escape( part.getETag() ) ).append( "</ETag></Part>" );
+		body.append( "</CompleteMultipartUpload>" );
+
+		val request = new HttpUtils.HttpRequest()
+				.endpoint( buildEndpoint( bucket, key, "uploadId=" + HttpUtils.urlEncode( uploadId ) ) )
+				.method( Methods.POST ).body( body.toString() );
+		// S3 may report failures after it started answering, within a successful response
+		val response = bodyOf( sendRequest( request ) );
+		val errors = Xml.elements( response, "Error" );
+		if ( !errors.isEmpty() && Xml.text( errors.get( 0 ), "Code" ) != null )
+			throw new AmazonS3ExecutionFailure( "Code: " + Xml.text( errors.get( 0 ), "Code" )
+				+ "; Message: " + Xml.text( errors.get( 0 ), "Message" ) );
+	}
+
+	/**
+	 * Aborts the multipart upload, freeing the storage used by its parts.
+	 */
+	public void abortMultipartUpload(String bucket, String key, String uploadId ) {
+		val request = new HttpUtils.HttpRequest()
+				.endpoint( buildEndpoint( bucket, key, "uploadId=" + HttpUtils.urlEncode( uploadId ) ) )
+				.method( Methods.DELETE );
+		sendRequest( request ).release();
+	}
+
+	/**
+	 * @return the response body, releasing the response.
+	 */
+	private static String bodyOf( HttpResponse response ) {
+		try {
+			return response.responseAsString();
+		} finally {
+			response.release();
+		}
+	}
+
+	private static String eTagOf( HttpResponse response ) {
+		try {
+			return response.flatHeaders().get( "ETag" );
+		} finally {
+			response.release();
+		}
+	}
+
+	private static void write( ByteBuffer buffer, OutputStream output ) throws IOException {
+		if ( buffer.hasArray() ) {
+			output.write( buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining() );
+			return;
+		}
+		val chunk = new byte[ Math.min( buffer.remaining(), 64 * 1024 ) ];
+		while ( buffer.hasRemaining() ) {
+			val length = Math.min( chunk.length, buffer.remaining() );
+			buffer.get( chunk, 0, length );
+			output.write( chunk, 0, length );
+		}
+	}
+
+	private static void write( List<ByteBuffer> regions, OutputStream output ) throws IOException {
+		for ( val region : regions )
+			write( region.duplicate(), output );
+	}
+
+	/**
+	 * Generates a presigned URL that allows anyone holding it to download
+	 * the object straight from S3 until it expires.
+	 *
+	 * @param bucket
+	 * @param key
+	 * @param expiration up to 7 days
+	 * @return
+	 */
+	public URL generatePresignedGetUrl( String bucket, String key, Duration expiration ) {
+		return generatePresignedUrl( Methods.GET, bucket, key, expiration );
+	}
+
+	/**
+	 * Generates a presigned URL that allows anyone holding it to upload
+	 * the object straight to S3 until it expires.
+	 *
+	 * @param bucket
+	 * @param key
+	 * @param expiration up to 7 days
+	 * @return
+	 */
+	public URL generatePresignedPutUrl( String bucket, String key, Duration expiration ) {
+		return generatePresignedUrl( Methods.PUT, bucket, key, expiration );
+	}
+
+	public URL generatePresignedUrl( String method, String bucket, String key, Duration expiration ) {
+		return getSigner().presign( method, buildEndpoint( bucket, key ),
+				getProvider().getCredentials(), expiration.getSeconds() );
+	}
+
 	protected HttpResponse sendRequest(HttpRequest request) {
-		val response = super.sendRequest( request );
+		return ensureSuccessful( super.sendRequest( request ) );
+	}
+
+	@Override
+	protected CompletableFuture<HttpResponse> sendRequestAsync(HttpRequest request) {
+		return super.sendRequestAsync( request ).thenApply( AmazonS3::ensureSuccessful );
+	}
+
+	@Override
+	protected StreamingHttpResponse sendStreamingRequest(HttpRequest request) {
+		return ensureSuccessful( super.sendStreamingRequest( request ) );
+	}
+
+	@Override
+	protected CompletableFuture<StreamingHttpResponse> sendStreamingRequestAsync(HttpRequest request) {
+		return super.sendStreamingRequestAsync( request ).thenApply( AmazonS3::ensureSuccessful );
+	}
+
+	private static StreamingHttpResponse ensureSuccessful(StreamingHttpResponse response) {
+		if ( response.status() > 299 )
+			ensureSuccessful( response.readFully() );
+		return response;
+	}
+
+	private static HttpResponse ensureSuccessful(HttpResponse response) {
 		if ( response.status() > 299 )
-			throw new AmazonS3ExecutionFailure( response.responseAsString() );
+			throw new AmazonS3ExecutionFailure( bodyOf( response ) );
 		return response;
 	}
 
+	private URL buildEndpoint(String bucket, String key, String query) {
+		try {
+			return new URL( buildEndpoint( bucket, key ) + "?" + query );
+		} catch ( MalformedURLException e ) {
+			throw new HttpException( e );
+		}
+	}
+
 	private URL buildEndpoint(String bucket, String key) {
 		if ( key.charAt( 0 ) != '/' )
 			key = "/" + key;
@@ -12,6 +12,18 @@ public class AmazonS3Builder extends AmazonClientBuilder<AmazonS3Builder, Amazon
 
 	private static final String REGION_NORTH_VIRGINIA = "us-east-1";
 
+	/**
+	 * Signs uploads with UNSIGNED-PAYLOAD instead of hashing their content with SHA-256.
+	 * Only applies to HTTPS requests, as TLS already protects the payload integrity.
+	 */
+	private boolean unsignedPayload = false;
+
+	/**
+	 * Sends a CRC32C checksum (x-amz-checksum-crc32c) along with uploads, so S3
+	 * can still verify their integrity when the payload is not signed.
+	 */
+	private boolean crc32cChecksum = false;
+
 	public AmazonS3Builder(){
 		setService( "s3" );
 	}
@@ -21,7 +33,12 @@ public class AmazonS3Builder extends AmazonClientBuilder<AmazonS3Builder, Amazon
 			AwsClientJsonSerializer jsonSerializer, AwsCredentialsProvider credentialsProvider,
 			AuthorizationHeaderAWS4Signer signer, String host)
 	{
-		return new AmazonS3( jsonSerializer, credentialsProvider, signer, host );
+		return new AmazonS3( jsonSerializer, credentialsProvider, signer, host, crc32cChecksum );
+	}
+
+	@Override
+	protected AuthorizationHeaderAWS4Signer createSigner() {
+		return super.createSigner().unsignedPayload( unsignedPayload );
 	}
 
 	@Override
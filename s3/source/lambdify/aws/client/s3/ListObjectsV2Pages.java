@@ -0,0 +1,57 @@
+package lambdify.aws.client.s3;
+
+import java.util.*;
+import java.util.concurrent.*;
+import lambdify.aws.client.s3.model.*;
+import lombok.val;
+
+/**
+ * Iterates over the pages of a listing, requesting each page as soon as the
+ * previous one is handed to the caller.
+ */
+class ListObjectsV2Pages implements Iterator<ListObjectsV2Result> {
+
+	private final AmazonS3 s3;
+	private final ListObjectsV2Request request;
+	private CompletableFuture<ListObjectsV2Result> next;
+	private boolean started;
+
+	ListObjectsV2Pages( AmazonS3 s3, ListObjectsV2Request request ) {
+		this.s3 = s3;
+		this.request = new ListObjectsV2Request()
+			.setBucketName( request.getBucketName() ).setPrefix( request.getPrefix() )
+			.setDelimiter( request.getDelimiter() ).setMaxKeys( request.getMaxKeys() )
+			.setContinuationToken( request.getContinuationToken() ).setStartAfter( request.getStartAfter() );
+	}
+
+	@Override
+	public boolean hasNext() {
+		if ( !started ) {
+			started = true;
+			next = s3.listObjectsV2Async( request );
+		}
+		return next != null;
+	}
+
+	@Override
+	public ListObjectsV2Result next() {
+		if ( !hasNext() )
+			throw new NoSuchElementException();
+
+		final ListObjectsV2Result page;
+		try {
+			page = next.join();
+		} catch ( CompletionException e ) {
+			next = null;
+			if ( e.getCause() instanceof RuntimeException )
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+
+		val token = page.getNextContinuationToken();
+		next = page.isTruncated() && token != null
+			? s3.listObjectsV2Async( request.setContinuationToken( token ) )
+			: null;
+		return page;
+	}
+}
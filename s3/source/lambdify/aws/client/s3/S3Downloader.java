@@ -0,0 +1,199 @@
+package lambdify.aws.client.s3;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import lambdify.aws.client.core.http.*;
+import lambdify.aws.client.core.http.HttpUtils.HttpRequest;
+import lambdify.aws.client.s3.model.S3Object;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * Downloads large objects straight to a file, splitting them into byte ranges
+ * that are fetched concurrently, each one through its own connection. Every
+ * part is written at its position of the (preallocated) file as it arrives,
+ * thus the object is never reassembled in memory.
+ *
+ * The first part also tells the object size. The following ones are only
+ * accepted while the object keeps the same ETag, so a download never mixes
+ * two versions of the object. Failed parts are resumed from the last byte
+ * written, up to {@link #maxAttemptsPerPart} times.
+ *
+ * Parts are fetched through the client's transport, thus the amount of parts
+ * actually downloaded at the same time is also bounded by its connection limits.
+ */
+@Getter @Setter
+@Accessors(fluent = true)
+@RequiredArgsConstructor
+public class S3Downloader {
+
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	@NonNull private final AmazonS3 s3;
+
+	/**
+	 * Size, in bytes, of each range requested to S3.
+	 */
+	private long partSize = 8 * 1024 * 1024;
+
+	/**
+	 * Amount of parts downloaded at the same time.
+	 */
+	private int concurrency = 8;
+
+	private int maxAttemptsPerPart = 3;
+
+	/**
+	 * Runs the parts downloaded in background. Defaults to the client's async executor.
+	 */
+	private Executor executor;
+
+	/**
+	 * Downloads the object into the target file, replacing its content.
+	 *
+	 * @return the object size.
+	 */
+	public long download( String bucket, String key, Path target ) {
+		if ( partSize <= 0 || concurrency <= 0 || maxAttemptsPerPart <= 0 )
+			throw new IllegalStateException( "partSize, concurrency and maxAttemptsPerPart should be positive" );
+
+		try ( val channel = FileChannel.open( target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ) ) {
+			new Download( bucket, key, channel ).run();
+			return channel.size();
+		} catch ( IOException e ) {
+			throw new HttpException( "Download failed. " + e.getMessage(), e );
+		}
+	}
+
+	public CompletableFuture<Long> downloadAsync( String bucket, String key, Path target ) {
+		return CompletableFuture.supplyAsync( () -> download( bucket, key, target ), executor() );
+	}
+
+	public Executor executor() {
+		return executor != null ? executor : s3.getAsyncExecutor();
+	}
+
+	@RequiredArgsConstructor
+	class Download {
+
+		final String bucket;
+		final String key;
+		final FileChannel channel;
+		final AtomicInteger nextPart = new AtomicInteger( 1 );
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		long size;
+		int parts;
+		String etag;
+
+		void run() throws IOException {
+			val workers = new ArrayList<CompletableFuture<Void>>();
+			// the first part tells the object size and version
+			try ( val first = fetchFirstPart() ) {
+				val metadata = first.getMetadata();
+				val ranged = metadata.getContentRange() != null;
+				size = Math.max( 0, metadata.getInstanceLength() );
+				etag = (String) metadata.getMetadata().get( "ETag" );
+				parts = ranged ? (int) Math.max( 1, (size + partSize - 1) / partSize ) : 1;
+				if ( size > 0 )
+					channel.write( ByteBuffer.allocate( 1 ), size - 1 );
+
+				for ( int i = 1; i < Math.min( concurrency, parts ); i++ )
+					workers.add( CompletableFuture.runAsync( this::downloadParts, executor() ) );
+				val firstPart = new Part( 0, ranged ? Math.min( size, partSize ) - 1 : -1 );
+				try {
+					firstPart.write( first );
+				} catch ( IOException | RuntimeException e ) {
+					if ( !ranged || maxAttemptsPerPart == 1 ) throw e;
+					downloadPart( firstPart, 2 );
+				}
+				downloadParts();
+			} catch ( IOException | RuntimeException e ) {
+				failure.compareAndSet( null, e );
+			} finally {
+				// workers stop after their current part once a failure is known, and write into the channel until then
+				CompletableFuture.allOf( workers.toArray( new CompletableFuture<?>[0] ) ).handle( ( v, e ) -> null ).join();
+			}
+
+			val cause = failure.get();
+			if ( cause instanceof IOException ) throw (IOException) cause;
+			if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+			if ( cause != null ) throw new IOException( cause );
+		}
+
+		/**
+		 * S3 refuses ranges of empty objects, which are then retrieved whole.
+		 */
+		S3Object fetchFirstPart() {
+			try {
+				return fetch( 0, partSize - 1, null );
+			} catch ( AmazonS3.AmazonS3ExecutionFailure e ) {
+				if ( e.getMessage() == null || !e.getMessage().contains( "InvalidRange" ) )
+					throw e;
+				return s3.getObject( bucket, key );
+			}
+		}
+
+		/**
+		 * Takes the next parts, until every one was downloaded or one failed.
+		 */
+		void downloadParts() {
+			int index;
+			while ( failure.get() == null && (index = nextPart.getAndIncrement()) < parts )
+				try {
+					downloadPart( new Part( index * partSize, Math.min( size, (index + 1) * partSize ) - 1 ), 1 );
+				} catch ( IOException | RuntimeException e ) {
+					failure.compareAndSet( null, e );
+				}
+		}
+
+		void downloadPart( Part part, int firstAttempt ) throws IOException {
+			for ( int attempt = firstAttempt; ; attempt++ ) {
+				try ( val object = fetch( part.start + part.written, part.end, etag ) ) {
+					part.write( object );
+					return;
+				} catch ( IOException | RuntimeException e ) {
+					if ( attempt >= maxAttemptsPerPart || failure.get() != null )
+						throw e;
+				}
+			}
+		}
+
+		S3Object fetch( long from, long to, String ifMatch ) {
+			HttpRequest request = s3.createRangedGetRequest( bucket, key, AmazonS3.range( from, to ) );
+			if ( ifMatch != null )
+				request.putHeader( "If-Match", ifMatch );
+			return AmazonS3.toS3Object( bucket, key, s3.sendStreamingRequest( request ) );
+		}
+
+		/**
+		 * A range of the object, which remembers how much of it was already
+		 * written, thus retries only request what is missing.
+		 */
+		@RequiredArgsConstructor
+		class Part {
+			final long start;
+			/** The last byte of the part, or {@code -1} when the whole object is being read. */
+			final long end;
+			long written;
+
+			void write( S3Object object ) throws IOException {
+				val buffer = ByteBuffer.allocate( COPY_BUFFER_SIZE );
+				val content = object.getObjectContent();
+				int read;
+				while ( (read = content.read( buffer.array(), 0, buffer.capacity() )) != -1 ) {
+					buffer.limit( read ).position( 0 );
+					while ( buffer.hasRemaining() )
+						written += channel.write( buffer, start + written );
+					buffer.clear();
+				}
+				if ( end >= 0 && start + written != end + 1 )
+					throw new EOFException( "Part at " + start + " ended after " + written + " of " + (end - start + 1) + " bytes" );
+			}
+		}
+	}
+}
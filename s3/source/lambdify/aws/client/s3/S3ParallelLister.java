@@ -0,0 +1,175 @@
+package lambdify.aws.client.s3;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+import java.util.function.Consumer;
+import lambdify.aws.client.s3.model.*;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * Lists several prefixes of a bucket at the same time. Each prefix is listed
+ * page after page, as S3 only hands the next page token along with the previous
+ * page, but up to {@link #concurrency} prefixes are listed in parallel.
+ *
+ * When a {@link #delimiter} is defined, every common prefix found is listed as
+ * well, thus a whole bucket can be listed in parallel by starting at its root,
+ * as long as its keys are spread across a hierarchy of prefixes.
+ */
+@Getter @Setter
+@Accessors(fluent = true)
+@RequiredArgsConstructor
+public class S3ParallelLister {
+
+	@NonNull private final AmazonS3 s3;
+
+	/**
+	 * Amount of prefixes listed at the same time.
+	 */
+	private int concurrency = 8;
+
+	/**
+	 * Splits the listed prefixes into sub-prefixes, which are then listed in
+	 * parallel. Set it to {@code null} to list only the given prefixes.
+	 */
+	private String delimiter = "/";
+
+	/**
+	 * Runs the listings in background. Defaults to the client's async executor.
+	 */
+	private Executor executor;
+
+	public Executor executor() {
+		return executor != null ? executor : s3.getAsyncExecutor();
+	}
+
+	/**
+	 * Lists every object under the given prefixes, handing them to the consumer
+	 * as their pages arrive. The consumer is called from several threads at
+	 * the same time, and objects come in no particular order.
+	 */
+	public void list( String bucket, Collection<String> prefixes, Consumer<S3ObjectSummary> consumer ) {
+		if ( concurrency <= 0 )
+			throw new IllegalStateException( "concurrency should be positive" );
+
+		val listing = new Listing( bucket, consumer );
+		for ( val prefix : prefixes )
+			listing.add( prefix );
+
+		val workers = new ArrayList<CompletableFuture<Void>>();
+		for ( int i = 1; i < concurrency; i++ )
+			workers.add( CompletableFuture.runAsync( listing::work, executor() ) );
+		listing.work();
+		for ( val worker : workers )
+			worker.join();
+
+		if ( listing.failure != null )
+			throw listing.failure;
+	}
+
+	public void list( String bucket, String prefix, Consumer<S3ObjectSummary> consumer ) {
+		list( bucket, Collections.singletonList( prefix ), consumer );
+	}
+
+	/**
+	 * Lists every object under the given prefixes into a list.
+	 */
+	public List<S3ObjectSummary> listAll( String bucket, Collection<String> prefixes ) {
+		val objects = new ConcurrentLinkedQueue<S3ObjectSummary>();
+		list( bucket, prefixes, objects::add );
+		return new ArrayList<>( objects );
+	}
+
+	/**
+	 * The prefixes waiting to be listed, shared by every worker. Workers wait
+	 * on a lock condition rather than a monitor, which would pin them to their
+	 * carrier thread when they are virtual threads.
+	 */
+	@RequiredArgsConstructor
+	class Listing {
+
+		final String bucket;
+		final Consumer<S3ObjectSummary> consumer;
+		final ArrayDeque<String> prefixes = new ArrayDeque<>();
+		final ReentrantLock lock = new ReentrantLock();
+		final Condition changed = lock.newCondition();
+		int unfinished;
+		volatile RuntimeException failure;
+
+		void add( String prefix ) {
+			lock.lock();
+			try {
+				prefixes.offer( prefix == null ? "" : prefix );
+				unfinished++;
+				changed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * @return the next prefix to be listed, or {@code null} once every one was listed.
+		 */
+		String take() {
+			lock.lock();
+			try {
+				while ( prefixes.isEmpty() && unfinished > 0 && failure == null )
+					try {
+						changed.await();
+					} catch ( InterruptedException e ) {
+						Thread.currentThread().interrupt();
+						fail( new IllegalStateException( "Listing interrupted", e ) );
+					}
+				return failure == null ? prefixes.poll() : null;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void finished() {
+			lock.lock();
+			try {
+				if ( --unfinished == 0 )
+					changed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void fail( RuntimeException cause ) {
+			lock.lock();
+			try {
+				if ( failure == null )
+					failure = cause;
+				changed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void work() {
+			String prefix;
+			while ( (prefix = take()) != null )
+				try {
+					list( prefix );
+				} catch ( RuntimeException e ) {
+					fail( e );
+				} finally {
+					finished();
+				}
+		}
+
+		private void list( String prefix ) {
+			val request = new ListObjectsV2Request().setBucketName( bucket ).setPrefix( prefix ).setDelimiter( delimiter );
+			ListObjectsV2Result page;
+			do {
+				page = s3.listObjectsV2( request );
+				for ( val commonPrefix : page.getCommonPrefixes() )
+					add( commonPrefix );
+				page.getObjectSummaries().forEach( consumer );
+				request.setContinuationToken( page.getNextContinuationToken() );
+			} while ( page.isTruncated() && page.getNextContinuationToken() != null && failure == null );
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package lambdify.aws.client.s3;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import lambdify.aws.client.core.http.HttpException;
+import lambdify.aws.client.s3.model.PartETag;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * Uploads large content through the multipart upload API, sending its parts
+ * concurrently. Content fitting in a single part is sent with a plain PUT.
+ *
+ * At most {@link #concurrency} parts are uploaded at the same time. Files and
+ * buffers are sent straight from their source, while streams are sliced into
+ * part-sized arrays: the caller blocks on the stream once {@link #concurrency}
+ * parts are in flight, thus memory usage is bounded by {@code partSize * (concurrency + 1)}.
+ * Failed parts are retried up to {@link #maxAttemptsPerPart} times. When a part
+ * can't be uploaded, the whole upload is aborted.
+ */
+@Getter @Setter
+@Accessors(fluent = true)
+@RequiredArgsConstructor
+public class S3Uploader {
+
+	static final long MIN_PART_SIZE = 5 * 1024 * 1024;
+	static final int MAX_PARTS = 10_000;
+
+	@NonNull private final AmazonS3 s3;
+
+	/**
+	 * Size, in bytes, of each part. S3 requires at least 5MB for every part but the last.
+	 */
+	private int partSize = 8 * 1024 * 1024;
+
+	/**
+	 * Amount of parts uploaded at the same time.
+	 */
+	private int concurrency = 4;
+
+	private int maxAttemptsPerPart = 3;
+
+	/**
+	 * Runs the part uploads. Defaults to the client's async executor.
+	 */
+	private Executor executor;
+
+	public Executor executor() {
+		return executor != null ? executor : s3.getAsyncExecutor();
+	}
+
+	public void upload( String bucket, String key, Path file ) {
+		try {
+			val size = Files.size( file );
+			val partSize = partSizeFor( size );
+			if ( size <= partSize ) {
+				s3.putObject( bucket, key, file );
+				return;
+			}
+
+			new Upload( bucket, key ).run( upload -> {
+				int partNumber = 1;
+				for ( long position = 0; position < size; position += partSize, partNumber++ ) {
+					val start = position;
+					val length = Math.min( partSize, size - position );
+					upload.submit( partNumber, ( uploadId, number ) -> s3.uploadPart( bucket, key, uploadId, number, file, start, length ), null );
+				}
+			});
+		} catch ( IOException e ) {
+			throw new HttpException( "Unable to read " + file + ". " + e.getMessage(), e );
+		}
+	}
+
+	/**
+	 * Uploads the remaining bytes of the buffer, without changing its position.
+	 */
+	public void upload( String bucket, String key, ByteBuffer buffer ) {
+		val size = buffer.remaining();
+		val partSize = partSizeFor( size );
+		if ( size <= partSize ) {
+			val bytes = new byte[ size ];
+			buffer.duplicate().get( bytes );
+			s3.putObject( bucket, key, bytes );
+			return;
+		}
+
+		try {
+			new Upload( bucket, key ).run( upload -> {
+				int partNumber = 1;
+				for ( int position = 0; position < size; position += (int) partSize, partNumber++ ) {
+					val slice = buffer.duplicate();
+					slice.limit( buffer.position() + (int) Math.min( size, position + partSize ) ).position( buffer.position() + position );
+					upload.submit( partNumber, ( uploadId, number ) -> s3.uploadPart( bucket, key, uploadId, number, slice ), null );
+				}
+			});
+		} catch ( IOException e ) {
+			throw new HttpException( "Upload failed. " + e.getMessage(), e );
+		}
+	}
+
+	/**
+	 * Uploads the stream content, whose length doesn't need to be known up front.
+	 * The stream is read by the caller thread, but not closed.
+	 */
+	public void upload( String bucket, String key, InputStream content ) {
+		try {
+			val first = readPart( content, new byte[ partSize ] );
+			if ( first.length < partSize ) {
+				s3.putObject( bucket, key, first );
+				return;
+			}
+
+			// parts are read ahead while the previous ones are sent, reusing their arrays
+			val arrays = new ArrayBlockingQueue<byte[]>( concurrency );
+			new Upload( bucket, key ).run( upload -> {
+				byte[] part = first;
+				int partNumber = 1;
+				while ( part.length > 0 ) {
+					if ( partNumber > MAX_PARTS )
+						throw new IllegalStateException( "Content has more than " + MAX_PARTS + " parts of " + partSize + " bytes" );
+					val bytes = part;
+					upload.submit( partNumber++, ( uploadId, number ) -> s3.uploadPart( bucket, key, uploadId, number, bytes ),
+						() -> { if ( bytes.length == partSize ) arrays.offer( bytes ); } );
+					val array = arrays.poll();
+					part = readPart( content, array != null ? array : new byte[ partSize ] );
+				}
+			});
+		} catch ( IOException e ) {
+			throw new HttpException( "Unable to read the content to upload. " + e.getMessage(), e );
+		}
+	}
+
+	/**
+	 * Fills the array with the stream content.
+	 *
+	 * @return the array itself, or a smaller copy when the stream ended before filling it.
+	 */
+	private static byte[] readPart( InputStream content, byte[] array ) throws IOException {
+		int length = 0, read;
+		while ( length < array.length && (read = content.read( array, length, array.length - length )) != -1 )
+			length += read;
+		return length == array.length ? array : Arrays.copyOf( array, length );
+	}
+
+	/**
+	 * @return the part size, grown as needed to keep the amount of parts under the S3 limit.
+	 */
+	private long partSizeFor( long size ) {
+		if ( partSize < MIN_PART_SIZE || concurrency <= 0 || maxAttemptsPerPart <= 0 )
+			throw new IllegalStateException( "partSize should have at least 5MB, and concurrency and maxAttemptsPerPart should be positive" );
+		return Math.max( partSize, (size + MAX_PARTS - 1) / MAX_PARTS );
+	}
+
+	interface PartUpload {
+		String send( String uploadId, int partNumber );
+	}
+
+	interface Parts {
+		void submitAll( Upload upload ) throws IOException;
+	}
+
+	/**
+	 * A multipart upload in progress.
+	 */
+	@RequiredArgsConstructor
+	class Upload {
+
+		final String bucket;
+		final String key;
+		final List<PartETag> parts = Collections.synchronizedList( new ArrayList<>() );
+		final List<CompletableFuture<Void>> pending = new ArrayList<>();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		Semaphore permits;
+		String uploadId;
+
+		void run( Parts allParts ) throws IOException {
+			uploadId = s3.createMultipartUpload( bucket, key );
+			permits = new Semaphore( concurrency );
+			try {
+				allParts.submitAll( this );
+				CompletableFuture.allOf( pending.toArray( new CompletableFuture<?>[0] ) ).handle( ( v, e ) -> null ).join();
+				if ( failure.get() != null )
+					throw failure.get();
+				s3.completeMultipartUpload( bucket, key, uploadId, parts );
+			} catch ( Throwable cause ) {
+				abort( cause );
+				if ( cause instanceof IOException ) throw (IOException) cause;
+				if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+				if ( cause instanceof Error ) throw (Error) cause;
+				throw new HttpException( "Upload failed. " + cause.getMessage(), cause );
+			}
+		}
+
+		/**
+		 * Sends the part in background, blocking while {@link #concurrency} parts
+		 * are already in flight.
+		 *
+		 * @param onDone called once the part is no longer needed, even if it failed.
+		 */
+		void submit( int partNumber, PartUpload part, Runnable onDone ) {
+			val lastFailure = failure.get();
+			if ( lastFailure instanceof RuntimeException ) throw (RuntimeException) lastFailure;
+			if ( lastFailure != null ) throw new HttpException( "Upload failed. " + lastFailure.getMessage(), lastFailure );
+
+			permits.acquireUninterruptibly();
+			pending.add( CompletableFuture.runAsync( () -> {
+				try {
+					parts.add( new PartETag( partNumber, sendWithRetries( part, partNumber ) ) );
+				} catch ( Throwable cause ) {
+					failure.compareAndSet( null, cause );
+				} finally {
+					permits.release();
+					if ( onDone != null ) onDone.run();
+				}
+			}, executor() ) );
+		}
+
+		private String sendWithRetries( PartUpload part, int partNumber ) {
+			for ( int attempt = 1; ; attempt++ ) {
+				try {
+					return part.send( uploadId, partNumber );
+				} catch ( RuntimeException e ) {
+					if ( attempt >= maxAttemptsPerPart || failure.get() != null )
+						throw e;
+				}
+			}
+		}
+
+		private void abort( Throwable cause ) {
+			try {
+				s3.abortMultipartUpload( bucket, key, uploadId );
+			} catch ( RuntimeException e ) {
+				cause.addSuppressed( e );
+			}
+		}
+	}
+}
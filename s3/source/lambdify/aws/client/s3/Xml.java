@@ -0,0 +1,115 @@
+package lambdify.aws.client.s3;
+
+import java.util.*;
+import lombok.val;
+
+/**
+ * Just enough XML to read and write the small documents exchanged with S3,
+ * whose elements never nest inside elements of the same name. It avoids pulling
+ * a full XML parser into the client.
+ */
+final class Xml {
+
+	private Xml(){}
+
+	/**
+	 * @return the (unescaped) text of the first {@code tag} element, or {@code null} if absent.
+	 */
+	static String text( String xml, String tag ) {
+		val elements = elements( xml, tag, 1 );
+		return elements.isEmpty() ? null : unescape( elements.get( 0 ) );
+	}
+
+	/**
+	 * @return the raw content of every {@code tag} element, in document order.
+	 */
+	static List<String> elements( String xml, String tag ) {
+		return elements( xml, tag, Integer.MAX_VALUE );
+	}
+
+	private static List<String> elements( String xml, String tag, int limit ) {
+		val found = new ArrayList<String>();
+		val open = "<" + tag;
+		val close = "</" + tag + ">";
+		int from = 0;
+		while ( found.size() < limit ) {
+			val start = xml.indexOf( open, from );
+			if ( start < 0 )
+				break;
+			val afterName = start + open.length();
+			if ( afterName >= xml.length() )
+				break;
+			val next = xml.charAt( afterName );
+			if ( next != '>' && next != '/' && next != ' ' ) {
+				// another element, whose name starts the same way
+				from = afterName;
+				continue;
+			}
+			val endOfOpen = xml.indexOf( '>', afterName );
+			if ( endOfOpen < 0 )
+				break;
+			if ( xml.charAt( endOfOpen - 1 ) == '/' ) {
+				found.add( "" );
+				from = endOfOpen + 1;
+				continue;
+			}
+			val end = xml.indexOf( close, endOfOpen );
+			if ( end < 0 )
+				break;
+			found.add( xml.substring( endOfOpen + 1, end ) );
+			from = end + close.length();
+		}
+		return found;
+	}
+
+	static String escape( String text ) {
+		val escaped = new StringBuilder( text.length() + 16 );
+		for ( int i = 0; i < text.length(); i++ ) {
+			val c = text.charAt( i );
+			switch ( c ) {
+				case '&': escaped.append( "&amp;" ); break;
+				case '<': escaped.append( "&lt;" ); break;
+				case '>': escaped.append( "&gt;" ); break;
+				case '"': escaped.append( "&quot;" ); break;
+				case '\'': escaped.append( "&apos;" ); break;
+				case '\r': escaped.append( "&#13;" ); break;
+				case '\n': escaped.append( "&#10;" ); break;
+				default: escaped.append( c );
+			}
+		}
+		return escaped.toString();
+	}
+
+	static String unescape( String text ) {
+		if ( text.indexOf( '&' ) < 0 )
+			return text;
+		val unescaped = new StringBuilder( text.length() );
+		int i = 0;
+		while ( i < text.length() ) {
+			val c = text.charAt( i );
+			val end = c == '&' ? text.indexOf( ';', i ) : -1;
+			if ( end < 0 ) {
+				unescaped.append( c );
+				i++;
+				continue;
+			}
+			val entity = text.substring( i + 1, end );
+			switch ( entity ) {
+				case "amp": unescaped.append( '&' ); break;
+				case "lt": unescaped.append( '<' ); break;
+				case "gt": unescaped.append( '>' ); break;
+				case "quot": unescaped.append( '"' ); break;
+				case "apos": unescaped.append( '\'' ); break;
+				default:
+					if ( entity.startsWith( "#x" ) )
+						unescaped.appendCodePoint( Integer.parseInt( entity.substring( 2 ), 16 ) );
+					else if ( entity.startsWith( "#" ) )
+						unescaped.appendCodePoint( Integer.parseInt( entity.substring( 1 ) ) );
+					else
+						unescaped.append( '&' ).append( entity ).append( ';' );
+			}
+			i = end + 1;
+		}
+		return unescaped.toString();
+	}
+}
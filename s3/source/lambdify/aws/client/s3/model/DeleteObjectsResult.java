@@ -0,0 +1,36 @@
+package lambdify.aws.client.s3.model;
+
+import java.io.Serializable;
+import java.util.*;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * Outcome of a batch deletion: the keys that were deleted, and why the others weren't.
+ */
+@Data @Accessors(chain = true)
+public class DeleteObjectsResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<String> deletedKeys = new ArrayList<>();
+
+    private List<DeleteError> errors = new ArrayList<>();
+
+    /**
+     * A key that could not be deleted.
+     */
+    @Data @Accessors(chain = true)
+    @NoArgsConstructor @AllArgsConstructor
+    public static class DeleteError implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String key;
+
+        /** The S3 error code, like AccessDenied */
+        private String code;
+
+        private String message;
+    }
+}
@@ -0,0 +1,31 @@
+package lambdify.aws.client.s3.model;
+
+import java.io.Serializable;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * Parameters of a ListObjectsV2 request. Only the bucket name is required.
+ */
+@Data @Accessors(chain = true)
+public class ListObjectsV2Request implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String bucketName;
+
+    /** Restricts the listing to the keys starting with this prefix */
+    private String prefix;
+
+    /** Groups the keys sharing the same prefix up to the delimiter into common prefixes */
+    private String delimiter;
+
+    /** Maximum amount of keys per page, up to (and by default) 1000 */
+    private Integer maxKeys;
+
+    /** Token of the page to be retrieved, as returned by the previous page */
+    private String continuationToken;
+
+    /** Lists only the keys after this one */
+    private String startAfter;
+}
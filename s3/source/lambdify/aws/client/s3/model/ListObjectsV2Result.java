@@ -0,0 +1,33 @@
+package lambdify.aws.client.s3.model;
+
+import java.io.Serializable;
+import java.util.*;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * A page of a ListObjectsV2 listing.
+ */
+@Data @Accessors(chain = true)
+public class ListObjectsV2Result implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String bucketName;
+    private String prefix;
+    private String delimiter;
+    private int keyCount;
+
+    /** Whether there are more pages to be retrieved */
+    private boolean truncated;
+
+    private String continuationToken;
+
+    /** Token to retrieve the next page, when the listing is truncated */
+    private String nextContinuationToken;
+
+    private List<S3ObjectSummary> objectSummaries = new ArrayList<>();
+
+    /** Prefixes grouping keys up to the delimiter, when one was requested */
+    private List<String> commonPrefixes = new ArrayList<>();
+}
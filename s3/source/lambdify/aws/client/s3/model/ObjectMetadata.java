@@ -35,4 +35,41 @@ public class ObjectMetadata implements Serializable
      * etc.
      */
     private Map<String, ?> metadata = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Returns the content range of a ranged GET, as sent on the Content-Range header.
+     *
+     * @return the first and last (inclusive) byte positions of the returned
+     *         content, or {@code null} if the whole object was returned.
+     */
+    public Long[] getContentRange() {
+        final Object header = metadata.get( "Content-Range" );
+        if ( header == null )
+            return null;
+
+        final String range = header.toString().trim();
+        final int dash = range.indexOf( '-' ), slash = range.indexOf( '/' );
+        if ( !range.startsWith( "bytes " ) || dash < 0 || slash < dash )
+            return null;
+        return new Long[]{
+            Long.parseLong( range.substring( 6, dash ).trim() ),
+            Long.parseLong( range.substring( dash + 1, slash ).trim() )
+        };
+    }
+
+    /**
+     * Returns the size of the whole object, even when only part of it was returned.
+     *
+     * @return the size announced by the Content-Range header (or by Content-Length
+     *         when the whole object was returned), or {@code -1} if unknown.
+     */
+    public long getInstanceLength() {
+        final Object range = metadata.get( "Content-Range" );
+        if ( range != null ) {
+            final String total = range.toString().substring( range.toString().indexOf( '/' ) + 1 ).trim();
+            return "*".equals( total ) ? -1 : Long.parseLong( total );
+        }
+        final Object length = metadata.get( "Content-Length" );
+        return length == null ? -1 : Long.parseLong( length.toString().trim() );
+    }
 }
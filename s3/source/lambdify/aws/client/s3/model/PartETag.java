@@ -0,0 +1,19 @@
+package lambdify.aws.client.s3.model;
+
+import java.io.Serializable;
+import lombok.Value;
+
+/**
+ * Identifies an uploaded part of a multipart upload, as required to complete it.
+ */
+@Value
+public class PartETag implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The part number, from 1 to 10,000 */
+    int partNumber;
+
+    /** The ETag S3 returned for the part */
+    String eTag;
+}
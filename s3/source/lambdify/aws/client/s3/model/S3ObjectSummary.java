@@ -0,0 +1,24 @@
+package lambdify.aws.client.s3.model;
+
+import java.io.Serializable;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * An object, as listed by ListObjectsV2, without its content and metadata.
+ */
+@Data @Accessors(chain = true)
+public class S3ObjectSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String bucketName;
+    private String key;
+    private String eTag;
+    private long size;
+
+    /** The last modification date, in the ISO-8601 format */
+    private String lastModified;
+
+    private String storageClass;
+}
@@ -1,6 +1,9 @@
 package lambdify.aws.client.s3;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+import java.net.*;
+import lambdify.aws.client.core.VirtualThreads;
+import lambdify.aws.client.core.http.*;
 import lombok.val;
 import org.junit.jupiter.api.*;
 
@@ -26,4 +29,24 @@ class AmazonS3BuilderTest {
 		val builder = new AmazonS3Builder().setRegion( "sa-east-1" );
 		assertEquals( "s3-sa-east-1.amazonaws.com", builder.getHost() );
 	}
-}
\ No newline at end of file
+
+	@DisplayName( "Will sign the payload of uploads unless unsigned payload is enabled" )
+	@Test void createSigner() throws MalformedURLException {
+		val endpoint = new URL( "https://s3.amazonaws.com/bucket/key" );
+		assertTrue( new AmazonS3Builder().createSigner().isPayloadSigned( endpoint ) );
+		assertFalse( new AmazonS3Builder().unsignedPayload( true ).createSigner().isPayloadSigned( endpoint ) );
+	}
+
+	@DisplayName( "Will replace the blocking defaults when virtual threads are enabled" )
+	@Test void setVirtualThreads() {
+		if ( !VirtualThreads.isAvailable() ) {
+			assertThrows( UnsupportedOperationException.class, () -> new AmazonS3Builder().setVirtualThreads( true ) );
+			return;
+		}
+
+		val client = new AmazonS3Builder().setHttpTransport( new HttpURLConnectionTransport() )
+			.setVirtualThreads( true ).build();
+		assertTrue( client.getTransport() instanceof PooledHttpTransport );
+		assertNotNull( client.getAsyncExecutor() );
+	}
+}
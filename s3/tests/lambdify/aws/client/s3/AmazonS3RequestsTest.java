@@ -0,0 +1,253 @@
+package lambdify.aws.client.s3;
+
+import static lambdify.aws.client.core.AwsCredentialsProvider.staticCredentials;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.*;
+import lambdify.aws.client.core.http.*;
+import lambdify.aws.client.core.http.HttpUtils.*;
+import lambdify.aws.client.s3.model.*;
+import lombok.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Checks the requests sent by {@link AmazonS3} against canned responses.
+ */
+class AmazonS3RequestsTest {
+
+	static final byte[] CONTENT = "0123456789".getBytes( StandardCharsets.UTF_8 );
+
+	final List<HttpRequest> requests = Collections.synchronizedList( new ArrayList<>() );
+
+	final AmazonS3 s3 = AmazonS3.builder()
+		.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+		.setHttpTransport( request -> {
+			requests.add( request );
+			return respondWithRange( request.headers().get( "range" ) );
+		})
+		.build();
+
+	static HttpResponse respondWithRange( String range ) {
+		val headers = new HashMap<String, List<String>>();
+		if ( range == null )
+			return new HttpResponse( 200, headers, CONTENT );
+
+		val bounds = range.substring( "bytes=".length() ).split( "-", -1 );
+		val from = bounds[0].isEmpty() ? CONTENT.length - Integer.parseInt( bounds[1] ) : Integer.parseInt( bounds[0] );
+		val to = bounds[0].isEmpty() ? CONTENT.length - 1 : Math.min( CONTENT.length - 1, Integer.parseInt( bounds[1] ) );
+		headers.put( "Content-Range", Collections.singletonList( "bytes " + from + "-" + to + "/" + CONTENT.length ) );
+		return new HttpResponse( 206, headers, Arrays.copyOfRange( CONTENT, from, to + 1 ) );
+	}
+
+	@DisplayName( "Can retrieve a range of bytes of an object" )
+	@Test void getObjectRange() throws IOException {
+		try ( val object = s3.getObject( "bucket", "key", 2, 5 ) ) {
+			assertEquals( "bytes=2-5", requests.get( 0 ).headers().get( "range" ) );
+			assertEquals( "2345", new String( HttpUtils.readBytes( object.getObjectContent() ), StandardCharsets.UTF_8 ) );
+			assertArrayEquals( new Long[]{ 2L, 5L }, object.getMetadata().getContentRange() );
+			assertEquals( 10, object.getMetadata().getInstanceLength() );
+		}
+	}
+
+	@DisplayName( "Can retrieve the last bytes of an object" )
+	@Test void getObjectSuffix() throws Exception {
+		try ( val object = s3.getObjectSuffixAsync( "bucket", "key", 3 ).get() ) {
+			assertEquals( "bytes=-3", requests.get( 0 ).headers().get( "range" ) );
+			assertEquals( "789", new String( HttpUtils.readBytes( object.getObjectContent() ), StandardCharsets.UTF_8 ) );
+			assertArrayEquals( new Long[]{ 7L, 9L }, object.getMetadata().getContentRange() );
+		}
+	}
+
+	@DisplayName( "Will reject invalid ranges before sending any request" )
+	@Test void invalidRanges() {
+		assertThrows( IllegalArgumentException.class, () -> s3.getObject( "bucket", "key", 5, 2 ) );
+		assertThrows( IllegalArgumentException.class, () -> s3.getObjectSuffix( "bucket", "key", 0 ) );
+		assertTrue( requests.isEmpty() );
+	}
+
+	@DisplayName( "Will hash and send files straight from their mapping" )
+	@Test void putObjectFromPath() throws Exception {
+		val file = Files.createTempFile( "s3-put", ".bin" );
+		val content = new byte[ 300_000 ];
+		new Random( 3 ).nextBytes( content );
+		Files.write( file, content );
+
+		val sent = new ByteArrayOutputStream();
+		val client = AmazonS3.builder().crc32cChecksum( true )
+			.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+			.setHttpTransport( request -> {
+				requests.add( request );
+				try {
+					request.bodyWriter().writeTo( sent );
+				} catch ( IOException e ) {
+					throw new UncheckedIOException( e );
+				}
+				return new HttpResponse( 200, new HashMap<>(), new byte[0] );
+			})
+			.build();
+		try {
+			client.putObject( "bucket", "key", file );
+		} finally {
+			Files.delete( file );
+		}
+
+		assertArrayEquals( content, sent.toByteArray() );
+		val headers = requests.get( 0 ).headers();
+		assertEquals( "300000", headers.get( "content-length" ) );
+		assertEquals( client.getSigner().hashPayload( content ), headers.get( "x-amz-content-sha256" ) );
+		val checksum = new Crc32c();
+		checksum.update( content );
+		assertEquals( checksum.toBase64(), headers.get( AmazonS3.CHECKSUM_CRC32C_HEADER ) );
+	}
+
+	@DisplayName( "Will send the checksum of unsigned streams as a trailer" )
+	@Test void putObjectFromStreamWithChecksum() {
+		val content = new byte[ 70_000 ];
+		new Random( 5 ).nextBytes( content );
+		val sent = new ByteArrayOutputStream();
+		val client = AmazonS3.builder().unsignedPayload( true ).crc32cChecksum( true )
+			.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+			.setHttpTransport( request -> {
+				requests.add( request );
+				try {
+					request.bodyWriter().writeTo( sent );
+				} catch ( IOException e ) {
+					throw new UncheckedIOException( e );
+				}
+				return new HttpResponse( 200, new HashMap<>(), new byte[0] );
+			})
+			.build();
+
+		client.putObject( "bucket", "key", new ByteArrayInputStream( content ), content.length );
+
+		val headers = requests.get( 0 ).headers();
+		assertEquals( AwsChunkedTrailerPayload.STREAMING_UNSIGNED_PAYLOAD_TRAILER, headers.get( "x-amz-content-sha256" ) );
+		assertEquals( "aws-chunked", headers.get( "content-encoding" ) );
+		assertEquals( "70000", headers.get( "x-amz-decoded-content-length" ) );
+		assertEquals( AmazonS3.CHECKSUM_CRC32C_HEADER, headers.get( "x-amz-trailer" ) );
+		assertEquals( String.valueOf( sent.size() ), headers.get( "content-length" ) );
+
+		val checksum = new Crc32c();
+		checksum.update( content );
+		val body = sent.toByteArray();
+		val decoded = new ByteArrayOutputStream();
+		decoded.write( body, "10000\r\n".length(), 65536 );
+		decoded.write( body, "10000\r\n".length() + 65536 + "\r\n1170\r\n".length(), 70_000 - 65536 );
+		assertArrayEquals( content, decoded.toByteArray() );
+		val end = new String( body, body.length - 39, 39, StandardCharsets.US_ASCII );
+		assertEquals( "\r\n0\r\nx-amz-checksum-crc32c:" + checksum.toBase64() + "\r\n\r\n", end );
+	}
+
+	@DisplayName( "Will follow the continuation tokens, decoding the listed keys" )
+	@Test void listObjectsV2Pages() {
+		val bucket = new InMemoryBucket( "bucket", Arrays.asList( "a+b", "a b", "a/c", "b", "c&d" ) );
+		bucket.maxKeys = 2;
+		val client = AmazonS3.builder()
+			.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+			.setHttpTransport( bucket::list )
+			.build();
+
+		val request = new ListObjectsV2Request().setBucketName( "bucket" ).setPrefix( "a" );
+		val pages = client.listObjectsV2Pages( request ).collect( Collectors.toList() );
+		assertEquals( 2, pages.size() );
+		assertTrue( pages.get( 0 ).isTruncated() );
+		assertEquals( Arrays.asList( "a b", "a+b", "a/c" ), client.listAllObjectsV2( request )
+			.map( S3ObjectSummary::getKey ).collect( Collectors.toList() ) );
+		assertNull( request.getContinuationToken() );
+
+		bucket.maxKeys = 1000;
+		val delimited = client.listObjectsV2( new ListObjectsV2Request().setBucketName( "bucket" ).setDelimiter( "/" ) );
+		assertEquals( Collections.singletonList( "a/" ), delimited.getCommonPrefixes() );
+		assertEquals( "bucket", delimited.getObjectSummaries().get( 0 ).getBucketName() );
+	}
+
+	@DisplayName( "Will delete keys in batches of 1000, reporting the keys that were not deleted" )
+	@Test void deleteObjects() throws Exception {
+		val batchSizes = Collections.synchronizedList( new ArrayList<Integer>() );
+		val client = AmazonS3.builder()
+			.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+			.setHttpTransport( request -> {
+				assertTrue( request.queryParameters().containsKey( "delete" ) );
+				assertEquals( md5Of( request.body() ), request.headers().get( "content-md5" ) );
+
+				val xml = new String( request.body(), StandardCharsets.UTF_8 );
+				val keys = Xml.elements( xml, "Object" );
+				batchSizes.add( keys.size() );
+				if ( keys.contains( "<Key>key-2000</Key>" ) )
+					return new HttpResponse( 503, new HashMap<>(), "<Error><Code>SlowDown</Code></Error>".getBytes() );
+				val response = new StringBuilder( "<DeleteResult>" );
+				for ( val key : keys )
+					if ( key.contains( "&lt;locked&gt;" ) )
+						response.append( "<Error>" ).append( key ).append( "<Code>AccessDenied</Code><Message>Access Denied</Message></Error>" );
+				return new HttpResponse( 200, new HashMap<>(), response.append( "</DeleteResult>" ).toString().getBytes( StandardCharsets.UTF_8 ) );
+			})
+			.build();
+
+		val keys = IntStream.range( 0, 2500 ).mapToObj( i -> i == 10 ? "/<locked>" : "key-" + i ).collect( Collectors.toList() );
+		val result = client.deleteObjects( "bucket", keys );
+
+		assertEquals( Arrays.asList( 1000, 1000, 500 ), batchSizes.stream().sorted( Comparator.reverseOrder() ).collect( Collectors.toList() ) );
+		assertEquals( 1999, result.getDeletedKeys().size() );
+		assertEquals( 501, result.getErrors().size() );
+		val denied = result.getErrors().get( 0 );
+		assertEquals( "<locked>", denied.getKey() );
+		assertEquals( "AccessDenied", denied.getCode() );
+		assertEquals( "RequestFailed", result.getErrors().get( 1 ).getCode() );
+	}
+
+	@DisplayName( "Will give every multipart upload response back to its pool" )
+	@Test void multipartUploadReleasesResponses() {
+		val released = new AtomicInteger();
+		val pool = new ResponseBufferPool( 1024 * 1024 ) {
+			@Override public void release( byte[] buffer ) {
+				released.incrementAndGet();
+				super.release( buffer );
+			}
+		};
+		val client = AmazonS3.builder()
+			.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+			.setHttpTransport( request -> {
+				val headers = new HashMap<String, List<String>>();
+				headers.put( "ETag", Collections.singletonList( "\"etag\"" ) );
+				val body = "<InitiateMultipartUploadResult><UploadId>upload</UploadId></InitiateMultipartUploadResult>".getBytes( StandardCharsets.UTF_8 );
+				val buffer = pool.acquire( body.length );
+				System.arraycopy( body, 0, buffer, 0, body.length );
+				return new HttpResponse( 200, headers, buffer, body.length, pool );
+			})
+			.build();
+
+		val uploadId = client.createMultipartUpload( "bucket", "key" );
+		val eTag = client.uploadPart( "bucket", "key", uploadId, 1, new byte[ 10 ] );
+		client.uploadPart( "bucket", "key", uploadId, 2, ByteBuffer.allocateDirect( 10 ) );
+		client.completeMultipartUpload( "bucket", "key", uploadId, Collections.singletonList( new PartETag( 1, eTag ) ) );
+		client.abortMultipartUpload( "bucket", "key", uploadId );
+
+		assertEquals( "upload", uploadId );
+		assertEquals( "\"etag\"", eTag );
+		assertEquals( 5, released.get() );
+	}
+
+	@DisplayName( "Will fail completions whose successful response holds an error" )
+	@Test void completeMultipartUploadWithError() {
+		val client = AmazonS3.builder()
+			.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+			.setHttpTransport( request -> new HttpResponse( 200, new HashMap<>(),
+				"<?xml version=\"1.0\"?>\n<Error><Code>InternalError</Code><Message>Please retry</Message></Error>".getBytes( StandardCharsets.UTF_8 ) ) )
+			.build();
+
+		val failure = assertThrows( AmazonS3.AmazonS3ExecutionFailure.class,
+			() -> client.completeMultipartUpload( "bucket", "key", "upload", Collections.singletonList( new PartETag( 1, "etag" ) ) ) );
+		assertEquals( "Code: InternalError; Message: Please retry", failure.getMessage() );
+	}
+
+	@SneakyThrows
+	static String md5Of( byte[] body ) {
+		return Base64.getEncoder().encodeToString( MessageDigest.getInstance( "MD5" ).digest( body ) );
+	}
+}
@@ -2,8 +2,8 @@ package lambdify.aws.client.s3;
 
 import static lambdify.aws.client.core.AwsCredentialsProvider.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import java.io.ByteArrayInputStream;
 import java.util.*;
+import lambdify.aws.client.core.http.HttpUtils;
 import lombok.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.*;
@@ -30,10 +30,9 @@ class AmazonS3Test {
 		s3.putObject( "lambdify", "sample.json", JSON );
 
 		val object = s3.getObject( "lambdify", "/sample.json" );
-		val contentLength = Integer.valueOf( (String)object.getMetadata().getMetadata().get( "Content-Length" ) );
-		val buffer = new byte[contentLength];
-		try ( val content = ((ByteArrayInputStream)object.getObjectContent()) ) {
-			content.read( buffer, 0, contentLength );
+		final byte[] buffer;
+		try ( val content = object.getObjectContent() ) {
+			buffer = HttpUtils.readBytes( content );
 		}
 
 		assertEquals( SAMPLE_JSON, new String(buffer) );
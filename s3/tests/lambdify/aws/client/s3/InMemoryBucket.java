@@ -0,0 +1,72 @@
+package lambdify.aws.client.s3;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import lambdify.aws.client.core.http.HttpUtils;
+import lambdify.aws.client.core.http.HttpUtils.*;
+import lombok.val;
+
+/**
+ * Answers ListObjectsV2 requests as S3 would, for a fixed set of keys.
+ */
+class InMemoryBucket {
+
+	final String name;
+	final TreeSet<String> keys = new TreeSet<>();
+	final AtomicInteger listRequests = new AtomicInteger();
+	int maxKeys = 1000;
+
+	InMemoryBucket( String name, Collection<String> keys ) {
+		this.name = name;
+		this.keys.addAll( keys );
+	}
+
+	HttpResponse list( HttpRequest request ) {
+		listRequests.incrementAndGet();
+		val query = request.queryParameters();
+		val prefix = query.getOrDefault( "prefix", "" );
+		val delimiter = query.get( "delimiter" );
+		val token = query.get( "continuation-token" );
+		val max = Math.min( maxKeys, Integer.parseInt( query.getOrDefault( "max-keys", "1000" ) ) );
+
+		val contents = new StringBuilder();
+		val commonPrefixes = new LinkedHashSet<String>();
+		String last = null;
+		int count = 0;
+		boolean truncated = false;
+		for ( val key : token == null ? keys : keys.tailSet( token, false ) ) {
+			if ( !key.startsWith( prefix ) )
+				continue;
+			val delimiterAt = delimiter == null ? -1 : key.indexOf( delimiter, prefix.length() );
+			if ( delimiterAt >= 0 && commonPrefixes.contains( key.substring( 0, delimiterAt + 1 ) ) )
+				continue;
+			if ( count == max ) {
+				truncated = true;
+				break;
+			}
+			if ( delimiterAt >= 0 ) {
+				// the next page starts after every key of the common prefix
+				commonPrefixes.add( key.substring( 0, delimiterAt + 1 ) );
+				last = key.substring( 0, delimiterAt + 1 ) + '\uffff';
+			} else {
+				contents.append( "<Contents><Key>" ).append( HttpUtils.urlEncode( key ) ).append( "</Key><Size>" )
+					.append( key.length() ).append( "</Size><ETag>&quot;e&quot;</ETag><StorageClass>STANDARD</StorageClass></Contents>" );
+				last = key;
+			}
+			count++;
+		}
+
+		val xml = new StringBuilder( "<?xml version=\"1.0\" encoding=\"UTF-8\"?><ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">" )
+			.append( "<Name>" ).append( name ).append( "</Name><Prefix>" ).append( HttpUtils.urlEncode( prefix ) ).append( "</Prefix>" )
+			.append( "<KeyCount>" ).append( count ).append( "</KeyCount><IsTruncated>" ).append( truncated ).append( "</IsTruncated>" )
+			.append( "<EncodingType>url</EncodingType>" );
+		if ( truncated )
+			xml.append( "<NextContinuationToken>" ).append( Xml.escape( last ) ).append( "</NextContinuationToken>" );
+		xml.append( contents );
+		for ( val commonPrefix : commonPrefixes )
+			xml.append( "<CommonPrefixes><Prefix>" ).append( HttpUtils.urlEncode( commonPrefix ) ).append( "</Prefix></CommonPrefixes>" );
+		xml.append( "</ListBucketResult>" );
+		return new HttpResponse( 200, new HashMap<>(), xml.toString().getBytes( StandardCharsets.UTF_8 ) );
+	}
+}
@@ -0,0 +1,121 @@
+package lambdify.aws.client.s3;
+
+import static lambdify.aws.client.core.AwsCredentialsProvider.staticCredentials;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import lambdify.aws.client.core.http.HttpException;
+import lambdify.aws.client.core.http.HttpUtils.*;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ *
+ */
+class S3DownloaderTest {
+
+	static final byte[] CONTENT = new byte[ 100_000 ];
+
+	static {
+		new Random( 42 ).nextBytes( CONTENT );
+	}
+
+	final Set<String> ranges = ConcurrentHashMap.newKeySet();
+	final AtomicInteger failuresLeft = new AtomicInteger();
+	Path target;
+
+	@BeforeEach void createTarget() throws IOException {
+		target = Files.createTempFile( "s3-downloader", ".bin" );
+	}
+
+	@AfterEach void deleteTarget() throws IOException {
+		Files.deleteIfExists( target );
+	}
+
+	AmazonS3 s3( byte[] content ) {
+		return AmazonS3.builder()
+			.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+			.setHttpTransport( request -> respond( request, content ) )
+			.build();
+	}
+
+	/**
+	 * Serves the requested range, cutting the body in half while failures are expected.
+	 */
+	HttpResponse respond( HttpRequest request, byte[] content ) {
+		val range = request.headers().get( "range" );
+		if ( range == null )
+			return new HttpResponse( 200, new HashMap<>(), content );
+		ranges.add( range );
+		if ( content.length == 0 )
+			return new HttpResponse( 416, new HashMap<>(), "<Code>InvalidRange</Code>".getBytes() );
+
+		val bounds = range.substring( "bytes=".length() ).split( "-" );
+		val from = Integer.parseInt( bounds[0] );
+		val to = Math.min( content.length - 1, Integer.parseInt( bounds[1] ) );
+		val headers = new HashMap<String, List<String>>();
+		headers.put( "Content-Range", Collections.singletonList( "bytes " + from + "-" + to + "/" + content.length ) );
+		headers.put( "ETag", Collections.singletonList( "\"etag\"" ) );
+		val end = failuresLeft.getAndDecrement() > 0 ? from + (to - from + 1) / 2 : to + 1;
+		return new HttpResponse( 206, headers, Arrays.copyOfRange( content, from, end ) );
+	}
+
+	@DisplayName( "Will download every part of the object into the file" )
+	@Test void download() throws IOException {
+		val size = new S3Downloader( s3( CONTENT ) ).partSize( 16 * 1024 ).concurrency( 4 )
+			.download( "bucket", "key", target );
+		assertEquals( CONTENT.length, size );
+		assertArrayEquals( CONTENT, Files.readAllBytes( target ) );
+		assertEquals( 7, ranges.size() );
+		assertTrue( ranges.contains( "bytes=98304-99999" ) );
+	}
+
+	@DisplayName( "Will resume failed parts from the last byte written" )
+	@Test void download1() throws IOException {
+		failuresLeft.set( 2 );
+		new S3Downloader( s3( CONTENT ) ).partSize( 50_000 ).concurrency( 1 ).download( "bucket", "key", target );
+		assertArrayEquals( CONTENT, Files.readAllBytes( target ) );
+		assertEquals( new HashSet<>( Arrays.asList( "bytes=0-49999", "bytes=25000-49999", "bytes=37500-49999", "bytes=50000-99999" ) ), ranges );
+	}
+
+	@DisplayName( "Will fail once a part runs out of attempts" )
+	@Test void download2() {
+		failuresLeft.set( 10 );
+		assertThrows( HttpException.class, () -> new S3Downloader( s3( CONTENT ) ).partSize( 50_000 )
+			.maxAttemptsPerPart( 2 ).download( "bucket", "key", target ) );
+	}
+
+	@DisplayName( "Will wait for the other parts before failing on the first one" )
+	@Test void download4() {
+		val inFlight = new AtomicInteger();
+		val s3 = AmazonS3.builder()
+			.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+			.setHttpTransport( request -> {
+				inFlight.incrementAndGet();
+				try {
+					if ( !"bytes=0-16383".equals( request.headers().get( "range" ) ) )
+						Thread.sleep( 100 );
+					return respond( request, CONTENT );
+				} catch ( InterruptedException e ) {
+					throw new IllegalStateException( e );
+				} finally {
+					inFlight.decrementAndGet();
+				}
+			})
+			.build();
+		failuresLeft.set( 1 );
+
+		assertThrows( HttpException.class, () -> new S3Downloader( s3 ).partSize( 16 * 1024 ).concurrency( 4 )
+			.maxAttemptsPerPart( 1 ).download( "bucket", "key", target ) );
+		assertEquals( 0, inFlight.get() );
+	}
+
+	@DisplayName( "Can download empty objects" )
+	@Test void download3() throws Exception {
+		assertEquals( 0, (long) new S3Downloader( s3( new byte[0] ) ).downloadAsync( "bucket", "key", target ).get() );
+		assertEquals( 0, Files.size( target ) );
+	}
+}
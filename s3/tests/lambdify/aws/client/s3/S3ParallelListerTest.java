@@ -0,0 +1,47 @@
+package lambdify.aws.client.s3;
+
+import static lambdify.aws.client.core.AwsCredentialsProvider.staticCredentials;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import java.util.stream.*;
+import lambdify.aws.client.s3.model.S3ObjectSummary;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ *
+ */
+class S3ParallelListerTest {
+
+	final List<String> keys = IntStream.range( 0, 500 )
+		.mapToObj( i -> "logs/" + (i % 5) + "/" + (i % 3) + "/entry " + i + ".json" )
+		.collect( Collectors.toList() );
+	final InMemoryBucket bucket = new InMemoryBucket( "bucket", keys );
+
+	final AmazonS3 s3 = AmazonS3.builder()
+		.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+		.setHttpTransport( bucket::list )
+		.build();
+
+	@DisplayName( "Will list every object under the common prefixes found along the way" )
+	@Test void list() {
+		bucket.maxKeys = 10;
+		val listed = new S3ParallelLister( s3 ).concurrency( 4 ).listAll( "bucket", Collections.singletonList( "logs/" ) );
+		assertEquals( new TreeSet<>( keys ), listed.stream().map( S3ObjectSummary::getKey ).collect( Collectors.toCollection( TreeSet::new ) ) );
+		assertEquals( keys.size(), listed.size() );
+	}
+
+	@DisplayName( "Will only list the given prefixes when no delimiter is defined" )
+	@Test void list1() {
+		val listed = new S3ParallelLister( s3 ).delimiter( null )
+			.listAll( "bucket", Arrays.asList( "logs/1/", "logs/2/" ) );
+		assertEquals( 200, listed.size() );
+		assertEquals( 2, bucket.listRequests.get() );
+	}
+
+	@DisplayName( "Will report failures of the consumer" )
+	@Test void list2() {
+		assertThrows( IllegalStateException.class, () -> new S3ParallelLister( s3 )
+			.list( "bucket", "logs/", object -> { throw new IllegalStateException( "failed" ); } ) );
+	}
+}
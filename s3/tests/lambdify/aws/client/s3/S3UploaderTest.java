@@ -0,0 +1,141 @@
+package lambdify.aws.client.s3;
+
+import static lambdify.aws.client.core.AwsCredentialsProvider.staticCredentials;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import lambdify.aws.client.core.http.HttpUtils.*;
+import lombok.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Runs the uploads against an in-memory imitation of the S3 multipart upload API.
+ */
+class S3UploaderTest {
+
+	static final int PART_SIZE = (int) S3Uploader.MIN_PART_SIZE;
+	static final byte[] CONTENT = new byte[ PART_SIZE * 2 + 1000 ];
+
+	static {
+		new Random( 7 ).nextBytes( CONTENT );
+	}
+
+	final Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+	final List<String> methods = Collections.synchronizedList( new ArrayList<>() );
+	final AtomicInteger failuresLeft = new AtomicInteger();
+	volatile byte[] object;
+	volatile boolean aborted;
+
+	final AmazonS3 s3 = AmazonS3.builder()
+		.setCredentialsProvider( staticCredentials( "access", "secret" ) )
+		.setHttpTransport( this::respond )
+		.build();
+
+	final S3Uploader uploader = new S3Uploader( s3 ).partSize( PART_SIZE ).concurrency( 2 );
+
+	@SneakyThrows
+	HttpResponse respond( HttpRequest request ) {
+		val query = request.queryParameters();
+		methods.add( request.method() + (query.isEmpty() ? "" : " " + new TreeSet<>( query.keySet() )) );
+		val headers = new HashMap<String, List<String>>();
+		val body = bodyOf( request );
+
+		if ( query.containsKey( "uploads" ) )
+			return ok( headers, "<InitiateMultipartUploadResult><UploadId>upload&amp;1</UploadId></InitiateMultipartUploadResult>" );
+		if ( query.containsKey( "partNumber" ) ) {
+			assertEquals( "upload&1", query.get( "uploadId" ) );
+			if ( failuresLeft.getAndDecrement() > 0 )
+				return new HttpResponse( 500, headers, "<Error><Code>InternalError</Code></Error>".getBytes() );
+			val partNumber = Integer.parseInt( query.get( "partNumber" ) );
+			uploadedParts.put( partNumber, body );
+			headers.put( "ETag", Collections.singletonList( "\"etag-" + partNumber + "\"" ) );
+			return ok( headers, "" );
+		}
+		if ( query.containsKey( "uploadId" ) && "DELETE".equals( request.method() ) ) {
+			aborted = true;
+			return new HttpResponse( 204, headers, new byte[0] );
+		}
+		if ( query.containsKey( "uploadId" ) ) {
+			val xml = new String( body, StandardCharsets.UTF_8 );
+			val assembled = new ByteArrayOutputStream();
+			for ( val part : Xml.elements( xml, "Part" ) ) {
+				val partNumber = Integer.parseInt( Xml.text( part, "PartNumber" ) );
+				assertEquals( "\"etag-" + partNumber + "\"", Xml.text( part, "ETag" ) );
+				assembled.write( uploadedParts.get( partNumber ) );
+			}
+			object = assembled.toByteArray();
+			return ok( headers, "<CompleteMultipartUploadResult/>" );
+		}
+		object = body;
+		return ok( headers, "" );
+	}
+
+	static byte[] bodyOf( HttpRequest request ) throws IOException {
+		// copied, as S3 would: the uploader reuses the part arrays once they were sent
+		if ( request.bodyWriter() == null )
+			return request.body() != null ? request.body().clone() : null;
+		val output = new ByteArrayOutputStream();
+		request.bodyWriter().writeTo( output );
+		return output.toByteArray();
+	}
+
+	static HttpResponse ok( Map<String, List<String>> headers, String body ) {
+		return new HttpResponse( 200, headers, body.getBytes( StandardCharsets.UTF_8 ) );
+	}
+
+	@DisplayName( "Will upload files in parts, read straight from the file" )
+	@Test void uploadFile() throws IOException {
+		val file = Files.createTempFile( "s3-uploader", ".bin" );
+		try {
+			Files.write( file, CONTENT );
+			uploader.upload( "bucket", "key", file );
+		} finally {
+			Files.delete( file );
+		}
+		assertArrayEquals( CONTENT, object );
+		assertEquals( 3, uploadedParts.size() );
+		assertEquals( 1000, uploadedParts.get( 3 ).length );
+	}
+
+	@DisplayName( "Will upload buffers in parts, retrying the failed ones" )
+	@Test void uploadBuffer() {
+		failuresLeft.set( 2 );
+		val buffer = ByteBuffer.allocateDirect( CONTENT.length + 10 );
+		buffer.position( 10 );
+		buffer.put( CONTENT ).position( 10 );
+		uploader.upload( "bucket", "key", buffer );
+		assertArrayEquals( CONTENT, object );
+		assertEquals( 10, buffer.position() );
+		assertFalse( aborted );
+	}
+
+	@DisplayName( "Will upload streams of unknown length in parts" )
+	@Test void uploadStream() {
+		uploader.upload( "bucket", "key", new ByteArrayInputStream( CONTENT ) );
+		assertArrayEquals( CONTENT, object );
+		assertEquals( "POST [uploads]", methods.get( 0 ) );
+		assertEquals( "POST [uploadId]", methods.get( methods.size() - 1 ) );
+	}
+
+	@DisplayName( "Will send content smaller than a part with a single request" )
+	@Test void uploadSmallStream() {
+		val content = "small".getBytes( StandardCharsets.UTF_8 );
+		uploader.upload( "bucket", "key", new ByteArrayInputStream( content ) );
+		assertArrayEquals( content, object );
+		assertEquals( Collections.singletonList( "PUT" ), methods );
+	}
+
+	@DisplayName( "Will abort the upload once a part runs out of attempts" )
+	@Test void uploadFailure() {
+		failuresLeft.set( 100 );
+		assertThrows( AmazonS3.AmazonS3ExecutionFailure.class,
+			() -> uploader.upload( "bucket", "key", new ByteArrayInputStream( CONTENT ) ) );
+		assertTrue( aborted );
+		assertNull( object );
+	}
+}
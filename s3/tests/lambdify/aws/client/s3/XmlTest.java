@@ -0,0 +1,33 @@
+package lambdify.aws.client.s3;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ *
+ */
+class XmlTest {
+
+	@DisplayName( "Will read the text of elements, ignoring elements whose name starts the same way" )
+	@Test void text() {
+		val xml = "<Result xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"><KeyCount>2</KeyCount><Key>a &amp; b&#x21;</Key></Result>";
+		assertEquals( "a & b!", Xml.text( xml, "Key" ) );
+		assertEquals( "2", Xml.text( xml, "KeyCount" ) );
+		assertNull( Xml.text( xml, "Prefix" ) );
+	}
+
+	@DisplayName( "Will list the content of every element, including empty ones" )
+	@Test void elements() {
+		val xml = "<Root><Item><Key>1</Key></Item><Item/><Item><Key>3</Key></Item></Root>";
+		assertEquals( Arrays.asList( "<Key>1</Key>", "", "<Key>3</Key>" ), Xml.elements( xml, "Item" ) );
+	}
+
+	@DisplayName( "Will escape and unescape the XML special characters" )
+	@Test void escape() {
+		val text = "<a href=\"x\">'b' & c</a>";
+		assertEquals( "&lt;a href=&quot;x&quot;&gt;&apos;b&apos; &amp; c&lt;/a&gt;", Xml.escape( text ) );
+		assertEquals( text, Xml.unescape( Xml.escape( text ) ) );
+	}
+}
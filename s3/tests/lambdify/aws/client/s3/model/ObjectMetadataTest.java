@@ -0,0 +1,33 @@
+package lambdify.aws.client.s3.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import lombok.val;
+import org.junit.jupiter.api.*;
+
+/**
+ *
+ */
+class ObjectMetadataTest {
+
+	@DisplayName( "Will parse the Content-Range header of partial responses" )
+	@Test void getContentRange() {
+		val headers = new TreeMap<String, String>( String.CASE_INSENSITIVE_ORDER );
+		headers.put( "content-range", "bytes 100-199/5000" );
+		val metadata = new ObjectMetadata().setMetadata( headers );
+		assertArrayEquals( new Long[]{ 100L, 199L }, metadata.getContentRange() );
+		assertEquals( 5000, metadata.getInstanceLength() );
+
+		headers.put( "Content-Range", "bytes 0-9/*" );
+		assertEquals( -1, metadata.getInstanceLength() );
+	}
+
+	@DisplayName( "Will use the Content-Length header when the whole object was returned" )
+	@Test void getInstanceLength() {
+		val headers = new TreeMap<String, String>( String.CASE_INSENSITIVE_ORDER );
+		headers.put( "Content-Length", "42" );
+		val metadata = new ObjectMetadata().setMetadata( headers );
+		assertNull( metadata.getContentRange() );
+		assertEquals( 42, metadata.getInstanceLength() );
+	}
+}